@@ -5,11 +5,15 @@ import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import java.io.IOException;
 import java.io.InputStream;
 
 @SpringBootApplication
+@EnableScheduling
+@EnableAsync
 public class CulinaryCompanionApplication {
 
 	// https://firebase.google.com/docs/admin/setup
@@ -0,0 +1,226 @@
+package com.ps.culinarycompanion.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Thread-safe in-process cache bounded by entry count, total weight and time-to-live. When either bound is
+ * exceeded, the least recently used entries are evicted; entries older than the TTL are treated as absent and
+ * dropped on access.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class BoundedCache<K, V> {
+
+    private final int maxEntries;
+
+    private final long maxWeight;
+
+    private final long ttlNanos;
+
+    private final ToLongFunction<? super V> weigher;
+
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    private final AtomicLong loads = new AtomicLong();
+
+    private final AtomicLong loadNanos = new AtomicLong();
+
+    /** Guarded by {@link #entries}. */
+    private long weight;
+
+    /** Number of invalidations so far, guarded by {@link #entries}. */
+    private long invalidations;
+
+    public BoundedCache(int maxEntries, Duration ttl) {
+        this(maxEntries, Long.MAX_VALUE, ttl, value -> 1);
+    }
+
+    /**
+     * Creates a cache bounded by weight as well as entry count.
+     *
+     * @param  maxEntries  the maximum number of entries
+     * @param  maxWeight   the maximum total weight of the entries
+     * @param  ttl         how long an entry stays valid after it is written
+     * @param  weigher     computes the weight of a value, for example its approximate size in bytes
+     */
+    public BoundedCache(int maxEntries, long maxWeight, Duration ttl, ToLongFunction<? super V> weigher) {
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.ttlNanos = ttl.toNanos();
+        this.weigher = weigher;
+    }
+
+    /**
+     * Returns the cached value for the given key, counting a hit or a miss.
+     *
+     * @param  key  the cache key
+     * @return      the cached value, or null if absent or expired
+     */
+    public V get(K key) {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && now - entry.writtenAt() > ttlNanos) {
+                remove(key);
+                evictions.incrementAndGet();
+                entry = null;
+            }
+            if (entry == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            return entry.value();
+        }
+    }
+
+    /**
+     * Returns the cached value for the given key, loading and caching it on a miss. The loader runs outside the
+     * lock, so concurrent misses on the same key may each load it. A value whose load overlapped an invalidation is
+     * returned but not cached, so a read racing a write never puts the old value back.
+     *
+     * @param  key     the cache key
+     * @param  loader  loads the value on a miss; a null result is returned and not cached
+     * @return         the cached or loaded value
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+
+        long generation;
+        synchronized (entries) {
+            generation = invalidations;
+        }
+        long start = System.nanoTime();
+        try {
+            value = loader.apply(key);
+        } finally {
+            loads.incrementAndGet();
+            loadNanos.addAndGet(System.nanoTime() - start);
+        }
+        if (value != null) {
+            Entry<V> entry = new Entry<>(value, System.nanoTime(), weigher.applyAsLong(value));
+            synchronized (entries) {
+                if (invalidations == generation) {
+                    store(key, entry);
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Stores a value, evicting the least recently used entries if the cache is full.
+     *
+     * @param  key    the cache key
+     * @param  value  the value to cache
+     */
+    public void put(K key, V value) {
+        Entry<V> entry = new Entry<>(value, System.nanoTime(), weigher.applyAsLong(value));
+        synchronized (entries) {
+            store(key, entry);
+        }
+    }
+
+    /**
+     * Removes the entry for the given key.
+     *
+     * @param  key  the cache key
+     */
+    public void invalidate(K key) {
+        synchronized (entries) {
+            remove(key);
+            invalidations++;
+        }
+    }
+
+    /**
+     * Removes every entry.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+            weight = 0;
+            invalidations++;
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long weight() {
+        synchronized (entries) {
+            return weight;
+        }
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    public long evictions() {
+        return evictions.get();
+    }
+
+    public long loads() {
+        return loads.get();
+    }
+
+    public long loadNanos() {
+        return loadNanos.get();
+    }
+
+    /**
+     * Returns the fraction of lookups that found a value.
+     *
+     * @return  the hit ratio, 0 before the first lookup
+     */
+    public double hitRatio() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    private void store(K key, Entry<V> entry) {
+        Entry<V> previous = entries.put(key, entry);
+        weight += entry.weight() - (previous == null ? 0 : previous.weight());
+        Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || weight > maxWeight) && eldest.hasNext()) {
+            weight -= eldest.next().getValue().weight();
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void remove(K key) {
+        Entry<V> removed = entries.remove(key);
+        if (removed != null) {
+            weight -= removed.weight();
+        }
+    }
+
+    private record Entry<V>(V value, long writtenAt, long weight) {
+    }
+}
@@ -0,0 +1,49 @@
+package com.ps.culinarycompanion.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.TimeUnit;
+
+public final class CacheMetrics {
+
+    private CacheMetrics() {
+
+    }
+
+    /**
+     * Publishes the size, weight, hit ratio, hit, miss and eviction counters and load time of a cache as
+     * {@code cache.*} meters tagged with its name.
+     *
+     * @param  registry  the registry to publish to
+     * @param  name      the cache name used as the {@code cache} tag
+     * @param  cache     the cache to observe
+     */
+    public static void register(MeterRegistry registry, String name, BoundedCache<?, ?> cache) {
+        Gauge.builder("cache.size", cache, BoundedCache::size)
+                .tag("cache", name)
+                .register(registry);
+        FunctionCounter.builder("cache.gets", cache, BoundedCache::hits)
+                .tag("cache", name)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", cache, BoundedCache::misses)
+                .tag("cache", name)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", cache, BoundedCache::evictions)
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("cache.weight", cache, BoundedCache::weight)
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("cache.hit.ratio", cache, BoundedCache::hitRatio)
+                .tag("cache", name)
+                .register(registry);
+        FunctionTimer.builder("cache.loads", cache, BoundedCache::loads, BoundedCache::loadNanos, TimeUnit.NANOSECONDS)
+                .tag("cache", name)
+                .register(registry);
+    }
+}
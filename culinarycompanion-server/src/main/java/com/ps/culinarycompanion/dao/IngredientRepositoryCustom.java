@@ -0,0 +1,28 @@
+package com.ps.culinarycompanion.dao;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Ingredient writes that need SQL the derived repository methods cannot express.
+ */
+public interface IngredientRepositoryCustom {
+
+    /**
+     * Inserts the names that do not exist yet and returns the ids of all of them. Names inserted concurrently by
+     * another transaction are not an error: the conflicting insert is skipped and the committed row's id returned.
+     *
+     * @param  names  distinct ingredient names
+     * @return        the id of every name, and which of them this call inserted
+     */
+    InsertedIngredients insertIfAbsent(Collection<String> names);
+
+    /**
+     * The outcome of {@link #insertIfAbsent}.
+     *
+     * @param ids      the id of every name, keyed by name
+     * @param created  the ids of the names this call inserted, a subset of {@code ids}
+     */
+    record InsertedIngredients(Map<String, Integer> ids, Map<String, Integer> created) {
+    }
+}
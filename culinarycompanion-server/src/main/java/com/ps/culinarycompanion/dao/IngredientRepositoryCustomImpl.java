@@ -0,0 +1,60 @@
+package com.ps.culinarycompanion.dao;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class IngredientRepositoryCustomImpl implements IngredientRepositoryCustom {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    IngredientRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public InsertedIngredients insertIfAbsent(Collection<String> names) {
+        if (names.isEmpty()) {
+            return new InsertedIngredients(Map.of(), Map.of());
+        }
+
+        // One multi-row insert. Asking for the generated columns makes the PostgreSQL driver append
+        // RETURNING ingredient_id, name, so the ids of the inserted rows come back with it. Each row takes a
+        // whole nextval as its id, which lies outside every block Hibernate's pooled optimizer hands out.
+        // Rows go in name order, so concurrent inserts of overlapping names take their unique index locks in the
+        // same order and cannot deadlock.
+        List<String> values = names.stream().sorted().toList();
+        String sql = "insert into ingredient_details (ingredient_id, name) values "
+                + String.join(", ", Collections.nCopies(values.size(), "(nextval('ingredient_details_seq'), ?)"))
+                + " on conflict do nothing";
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, new String[] {"ingredient_id", "name"});
+            for (int i = 0; i < values.size(); i++) {
+                statement.setString(i + 1, values.get(i));
+            }
+            return statement;
+        }, keys);
+        Map<String, Integer> created = new HashMap<>();
+        for (Map<String, Object> row : keys.getKeyList()) {
+            created.put((String) row.get("name"), ((Number) row.get("ingredient_id")).intValue());
+        }
+        Map<String, Integer> ids = new HashMap<>(created);
+
+        // Names skipped by the conflict clause exist already
+        List<String> existing = values.stream().filter(name -> !ids.containsKey(name)).toList();
+        if (!existing.isEmpty()) {
+            jdbcTemplate.query("select ingredient_id, name from ingredient_details where name in ("
+                            + String.join(", ", Collections.nCopies(existing.size(), "?")) + ")",
+                    rs -> { ids.put(rs.getString(2), rs.getInt(1)); }, existing.toArray());
+        }
+        return new InsertedIngredients(ids, created);
+    }
+}
@@ -1,7 +1,73 @@
 package com.ps.culinarycompanion.dao;
 
 import com.ps.culinarycompanion.recipes.Recipe;
+import com.ps.culinarycompanion.recipes.RecipeIngredientView;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface RecipeRepository extends JpaRepository<Recipe, Integer> {
+
+    @EntityGraph(attributePaths = {"ingredients", "ingredients.ingredient"})
+    Optional<Recipe> findWithIngredientsByRecipeId(Integer recipeId);
+
+    // Ingredient lines of many recipes in one query, as read-only projections
+    @Query("""
+            select new com.ps.culinarycompanion.recipes.RecipeIngredientView(
+                ri.recipeIngredientId.recipeId, i.ingredientId, i.name, ri.quantity, ri.unit)
+            from recipe_ingredients ri join ri.ingredient i
+            where ri.recipeIngredientId.recipeId in :recipeIds""")
+    List<RecipeIngredientView> findIngredientViews(@Param("recipeIds") Collection<Integer> recipeIds);
+
+    // Keyset pagination: the first page of each order, then the recipes strictly after a cursor
+
+    List<Recipe> findAllByOrderByRecipeIdAsc(Limit limit);
+
+    List<Recipe> findAllByOrderByRecipeIdDesc(Limit limit);
+
+    List<Recipe> findAllByOrderByLastModifiedDateAscRecipeIdAsc(Limit limit);
+
+    List<Recipe> findAllByOrderByLastModifiedDateDescRecipeIdDesc(Limit limit);
+
+    List<Recipe> findByRecipeIdGreaterThanOrderByRecipeIdAsc(Integer recipeId, Limit limit);
+
+    List<Recipe> findByRecipeIdLessThanOrderByRecipeIdDesc(Integer recipeId, Limit limit);
+
+    @Query("""
+            select r from recipe_details r
+            where r.lastModifiedDate > :date or (r.lastModifiedDate = :date and r.recipeId > :recipeId)
+            order by r.lastModifiedDate asc, r.recipeId asc""")
+    List<Recipe> findAfterByLastModifiedAsc(@Param("date") LocalDate date, @Param("recipeId") Integer recipeId,
+                                            Limit limit);
+
+    @Query("""
+            select r from recipe_details r
+            where r.lastModifiedDate < :date or (r.lastModifiedDate = :date and r.recipeId < :recipeId)
+            order by r.lastModifiedDate desc, r.recipeId desc""")
+    List<Recipe> findAfterByLastModifiedDesc(@Param("date") LocalDate date, @Param("recipeId") Integer recipeId,
+                                             Limit limit);
+
+    // Rows written before every insert set a last modified date fall back to their creation date
+    @Modifying
+    @Query("""
+            update recipe_details r set r.lastModifiedDate = coalesce(r.createdDate, current_date)
+            where r.lastModifiedDate is null""")
+    int backfillLastModifiedDates();
+
+    // A user's own recipes, served by the (user_email, recipe_id) index
+
+    List<Recipe> findByUserEmailOrderByRecipeIdAsc(String userEmail, Limit limit);
+
+    List<Recipe> findByUserEmailAndRecipeIdGreaterThanOrderByRecipeIdAsc(String userEmail, Integer recipeId,
+                                                                         Limit limit);
+
+    long countByUserEmail(String userEmail);
 }
@@ -2,7 +2,38 @@ package com.ps.culinarycompanion.dao;
 
 import com.ps.culinarycompanion.useringredients.UserIngredient;
 import com.ps.culinarycompanion.useringredients.UserIngredientId;
+import com.ps.culinarycompanion.useringredients.UserIngredientView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface UserIngredientRepository extends JpaRepository<UserIngredient, UserIngredientId> {
+
+    // One user's pantry as read-only projections, served by idx_user_ingredients_user
+    @Query("""
+            select new com.ps.culinarycompanion.useringredients.UserIngredientView(
+                ui.userIngredientId.userId, i.ingredientId, i.name, ui.quantity, ui.unit)
+            from user_ingredients ui join ui.ingredient i
+            where ui.userIngredientId.userId = :userId
+            order by i.name""")
+    List<UserIngredientView> findViewsByUserId(@Param("userId") Integer userId);
+
+    // The lines of one user's pantry for the given ingredients, loaded to be edited in place
+    @Query("""
+            select ui from user_ingredients ui join fetch ui.ingredient i
+            where ui.userIngredientId.userId = :userId and i.name in :names""")
+    List<UserIngredient> findByUserIdAndIngredientNames(@Param("userId") Integer userId,
+                                                        @Param("names") Collection<String> names);
+
+    // Keyed delete of one user's lines for the given ingredients, without loading them
+    @Modifying
+    @Query("""
+            delete from user_ingredients ui
+            where ui.userIngredientId.userId = :userId and ui.userIngredientId.ingredientId in (
+                select i.ingredientId from ingredient_details i where i.name in :names)""")
+    int deleteByUserIdAndIngredientNames(@Param("userId") Integer userId, @Param("names") Collection<String> names);
 }
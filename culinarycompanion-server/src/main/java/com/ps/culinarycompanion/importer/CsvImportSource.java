@@ -0,0 +1,85 @@
+package com.ps.culinarycompanion.importer;
+
+import com.ps.culinarycompanion.recipes.CsvReader;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads recipes from CSV with a header row. The food.com recipes.csv columns (name, description, steps,
+ * ingredients) are read as they are; a file may instead use title and instructions columns, and may carry a
+ * user_email column. List columns are either Python list literals, as in the food.com dataset, or comma separated.
+ */
+class CsvImportSource implements ImportSource {
+
+    private final CsvReader csv;
+
+    private final String titleColumn;
+
+    private final String instructionsColumn;
+
+    CsvImportSource(Reader reader) throws IOException {
+        this.csv = new CsvReader(reader);
+        this.titleColumn = csv.column("title") >= 0 ? "title" : "name";
+        this.instructionsColumn = csv.column("instructions") >= 0 ? "instructions" : "steps";
+    }
+
+    @Override
+    public ImportRecord next() throws IOException {
+        String[] record = csv.next();
+        if (record == null) {
+            return null;
+        }
+        String userEmail = csv.get(record, "user_email");
+        return new ImportRecord(csv.get(record, titleColumn).trim(), csv.get(record, "description").trim(),
+                String.join("\n", list(csv.get(record, instructionsColumn))),
+                userEmail.isBlank() ? null : userEmail.trim(), list(csv.get(record, "ingredients")));
+    }
+
+    /**
+     * Splits a list column, either a Python list literal such as {@code ['salt', "baker's yeast"]} or a plain
+     * comma separated list.
+     *
+     * @param  value  the column value
+     * @return        the trimmed, non-empty items
+     */
+    static List<String> list(String value) {
+        List<String> items = new ArrayList<>();
+        String trimmed = value.trim();
+        if (!trimmed.startsWith("[")) {
+            for (String item : trimmed.split(",")) {
+                if (!item.isBlank()) {
+                    items.add(item.trim());
+                }
+            }
+            return items;
+        }
+
+        StringBuilder item = new StringBuilder();
+        for (int i = 1; i < trimmed.length(); i++) {
+            char quote = trimmed.charAt(i);
+            if (quote != '\'' && quote != '"') {
+                continue;
+            }
+            item.setLength(0);
+            for (i++; i < trimmed.length() && trimmed.charAt(i) != quote; i++) {
+                char c = trimmed.charAt(i);
+                if (c == '\\' && i + 1 < trimmed.length()) {
+                    c = trimmed.charAt(++i);
+                }
+                item.append(c);
+            }
+            if (!item.toString().isBlank()) {
+                items.add(item.toString().trim());
+            }
+        }
+        return items;
+    }
+
+    @Override
+    public void close() throws IOException {
+        csv.close();
+    }
+}
@@ -0,0 +1,54 @@
+package com.ps.culinarycompanion.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ps.culinarycompanion.exception.BadRequestException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * The file formats recipes can be imported from.
+ */
+public enum ImportFormat {
+
+    /**
+     * CSV with a header row, such as the food.com recipes.csv. See {@link CsvImportSource} for the columns read.
+     */
+    CSV,
+
+    /**
+     * One JSON {@link ImportRecord} per line.
+     */
+    NDJSON;
+
+    /**
+     * Parses the format request parameter.
+     *
+     * @param  format  "csv" or "ndjson"
+     * @return         the format
+     * @throws BadRequestException if the format is not recognised
+     */
+    public static ImportFormat of(String format) {
+        return switch (format.toLowerCase(Locale.ROOT)) {
+            case "csv" -> CSV;
+            case "ndjson", "jsonl" -> NDJSON;
+            default -> throw new BadRequestException("Unknown format: " + format);
+        };
+    }
+
+    /**
+     * Opens a streaming source over the given input.
+     *
+     * @param  reader        the input, should be buffered
+     * @param  objectMapper  the mapper NDJSON records are read with
+     * @return               the source, which closes the reader when it is closed
+     * @throws IOException if the CSV header cannot be read
+     */
+    public ImportSource open(BufferedReader reader, ObjectMapper objectMapper) throws IOException {
+        return switch (this) {
+            case CSV -> new CsvImportSource(reader);
+            case NDJSON -> new NdjsonImportSource(reader, objectMapper);
+        };
+    }
+}
@@ -0,0 +1,17 @@
+package com.ps.culinarycompanion.importer;
+
+import java.util.List;
+
+/**
+ * One recipe read from an import file. Imported recipes carry ingredient names only; quantities and units are left
+ * empty.
+ *
+ * @param title         the recipe title, records without one are skipped
+ * @param description   the recipe description
+ * @param instructions  the recipe instructions
+ * @param userEmail     the uploader, or null to use the import's default
+ * @param ingredients   the ingredient names
+ */
+public record ImportRecord(String title, String description, String instructions, String userEmail,
+                           List<String> ingredients) {
+}
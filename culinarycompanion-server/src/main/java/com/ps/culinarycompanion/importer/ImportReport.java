@@ -0,0 +1,16 @@
+package com.ps.culinarycompanion.importer;
+
+/**
+ * The outcome of an import run.
+ *
+ * @param source               the name the run's checkpoint is kept under
+ * @param rowsSkipped          rows committed by earlier runs of the same source and skipped over
+ * @param rowsRead             rows read and committed by this run
+ * @param recipesImported      recipes written by this run, rows without a title are not imported
+ * @param ingredientsCreated   ingredients that did not exist before this run
+ * @param elapsedMillis        how long the run took
+ * @param rowsPerSecond        rows read per second
+ */
+public record ImportReport(String source, long rowsSkipped, long rowsRead, long recipesImported,
+                           long ingredientsCreated, long elapsedMillis, double rowsPerSecond) {
+}
@@ -0,0 +1,18 @@
+package com.ps.culinarycompanion.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A stream of recipes being imported, read one record at a time so the input never has to fit in memory.
+ */
+public interface ImportSource extends Closeable {
+
+    /**
+     * Reads the next recipe.
+     *
+     * @return  the next recipe, or null at the end of the input
+     * @throws IOException if the input cannot be read or a record is malformed
+     */
+    ImportRecord next() throws IOException;
+}
@@ -0,0 +1,35 @@
+package com.ps.culinarycompanion.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * Reads recipes from newline-delimited JSON, one {@link ImportRecord} object per line. Blank lines are ignored.
+ */
+class NdjsonImportSource implements ImportSource {
+
+    private final BufferedReader reader;
+
+    private final ObjectMapper objectMapper;
+
+    NdjsonImportSource(BufferedReader reader, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public ImportRecord next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+        } while (line != null && line.isBlank());
+        return line == null ? null : objectMapper.readValue(line, ImportRecord.class);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,52 @@
+package com.ps.culinarycompanion.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+@RestController
+public class RecipeImportController {
+
+    private final RecipeImportService recipeImportService;
+
+    private final ObjectMapper objectMapper;
+
+    public RecipeImportController(RecipeImportService recipeImportService, ObjectMapper objectMapper) {
+        this.recipeImportService = recipeImportService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Imports recipes from the request body, which is read as it arrives rather than buffered. Every committed
+     * chunk is checkpointed under the source name, so re-sending the same file after a failure resumes where the
+     * previous request stopped. Only users with the admin role, listed in {@code security.admin-emails}, may import.
+     *
+     * @param  source     the name the checkpoint is kept under, for example the file name
+     * @param  format     "csv" (such as the food.com recipes.csv) or "ndjson"
+     * @param  userEmail  the uploader of records that do not name one
+     * @param  body       the file, UTF-8 encoded
+     * @return            a ResponseEntity containing the import report and the HTTP status code OK
+     * @throws IOException if the body cannot be read or a record is malformed
+     */
+    @PostMapping("/api/recipes/import")
+    public ResponseEntity<ImportReport> importRecipes(@RequestParam String source,
+                                                      @RequestParam(defaultValue = "csv") String format,
+                                                      @RequestParam(required = false) String userEmail,
+                                                      InputStream body) throws IOException {
+        ImportFormat importFormat = ImportFormat.of(format);
+        try (ImportSource records = importFormat.open(
+                new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8)), objectMapper)) {
+            return new ResponseEntity<>(recipeImportService.importRecipes(source, records, userEmail),
+                    HttpStatus.OK);
+        }
+    }
+}
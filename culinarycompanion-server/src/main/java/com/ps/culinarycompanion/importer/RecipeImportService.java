@@ -0,0 +1,47 @@
+package com.ps.culinarycompanion.importer;
+
+import com.ps.culinarycompanion.ingredients.IngredientNormalizer;
+import com.ps.culinarycompanion.recipes.RecipesImportedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+
+@Service
+public class RecipeImportService {
+
+    private final RecipeImporter importer;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public RecipeImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               ApplicationEventPublisher eventPublisher, IngredientNormalizer normalizer,
+                               @Value("${recipe.import.batch-size:5000}") int batchSize) {
+        this.importer = new RecipeImporter(jdbcTemplate, new TransactionTemplate(transactionManager), batchSize,
+                normalizer);
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Imports a stream of recipes, resuming after the rows already committed under the same source name. Imports
+     * run one at a time. Once the recipes are committed, the in-memory recipe indexes are reloaded.
+     *
+     * @param  source     the name the checkpoint is kept under
+     * @param  records    the recipes to import
+     * @param  userEmail  the uploader of records that do not name one, may be null
+     * @return            the import's report
+     * @throws IOException if the source cannot be read
+     */
+    public synchronized ImportReport importRecipes(String source, ImportSource records, String userEmail)
+            throws IOException {
+        ImportReport report = importer.run(source, records, userEmail);
+        if (report.recipesImported() > 0) {
+            eventPublisher.publishEvent(new RecipesImportedEvent(source, report.recipesImported()));
+        }
+        return report;
+    }
+}
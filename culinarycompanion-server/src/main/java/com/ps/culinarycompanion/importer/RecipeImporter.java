@@ -0,0 +1,288 @@
+package com.ps.culinarycompanion.importer;
+
+import com.ps.culinarycompanion.ingredients.IngredientNormalizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes a stream of recipes straight to recipe_details, ingredient_details and recipe_ingredients over JDBC,
+ * bypassing the persistence context so millions of rows can be loaded without holding entities in memory.
+ * <p>
+ * Rows are written in chunks of {@code batchSize}, each as three JDBC batches in its own transaction together with
+ * the source's checkpoint, so an interrupted import resumes after the last committed chunk when it is run again
+ * with the same source name. Ingredient names are reduced to their canonical form by {@link IngredientNormalizer}
+ * and resolved through a name-to-id map loaded once per run. Ids are
+ * drawn from the entities' pooled sequences in the same blocks Hibernate uses, so imported rows never collide with
+ * rows the application inserts concurrently.
+ * <p>
+ * Not thread-safe; each run should use its own instance or be serialized by the caller.
+ */
+public class RecipeImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(RecipeImporter.class);
+
+    /**
+     * Ids reserved by one call to a sequence, Hibernate's default allocationSize for {@code @GeneratedValue}.
+     */
+    static final int ID_ALLOCATION_SIZE = 50;
+
+    /**
+     * Width of the entities' string columns, which are mapped without an explicit length.
+     */
+    static final int MAX_COLUMN_LENGTH = 255;
+
+    private static final long PROGRESS_INTERVAL_NANOS = 5_000_000_000L;
+
+    private static final String CREATE_CHECKPOINT_TABLE = """
+            create table if not exists recipe_import_checkpoint (
+                source varchar(255) primary key,
+                rows_done bigint not null,
+                updated_at timestamp not null)""";
+
+    private static final String SELECT_CHECKPOINT = "select rows_done from recipe_import_checkpoint where source = ?";
+
+    private static final String SAVE_CHECKPOINT = """
+            insert into recipe_import_checkpoint (source, rows_done, updated_at) values (?, ?, ?)
+            on conflict (source) do update set rows_done = excluded.rows_done, updated_at = excluded.updated_at""";
+
+    private static final String INSERT_INGREDIENT = """
+            insert into ingredient_details (ingredient_id, name) values (?, ?)
+            on conflict (name) do nothing""";
+
+    private static final String SELECT_INGREDIENTS_BY_NAME =
+            "select ingredient_id, name from ingredient_details where name = any (?)";
+
+    private static final String INSERT_RECIPE = """
+            insert into recipe_details (recipe_id, title, description, instructions, user_email, created_date,
+                last_modified_date, last_modified_at, version)
+            values (?, ?, ?, ?, ?, ?, ?, ?, 0)""";
+
+    private static final String INSERT_RECIPE_INGREDIENT =
+            "insert into recipe_ingredients (recipe_id, ingredient_id) values (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    private final IngredientNormalizer normalizer;
+
+    private final IdBlock recipeIds = new IdBlock("recipe_details_seq");
+
+    private final IdBlock ingredientIds = new IdBlock("ingredient_details_seq");
+
+    /**
+     * Creates an importer.
+     *
+     * @param  jdbcTemplate         the template rows are written with
+     * @param  transactionTemplate  the template each chunk is committed with
+     * @param  batchSize            the number of rows committed per chunk
+     * @param  normalizer           the normalizer ingredient names are canonicalized with
+     */
+    public RecipeImporter(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, int batchSize,
+                          IngredientNormalizer normalizer) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.normalizer = normalizer;
+    }
+
+    /**
+     * Imports every recipe of a source, skipping the rows committed by earlier runs under the same name.
+     *
+     * @param  source            the name the checkpoint is kept under, for example the file name
+     * @param  records           the recipes to import
+     * @param  defaultUserEmail  the uploader of records that do not name one, may be null
+     * @return                   the run's report
+     * @throws IOException if the source cannot be read
+     */
+    public ImportReport run(String source, ImportSource records, String defaultUserEmail) throws IOException {
+        long start = System.nanoTime();
+        jdbcTemplate.execute(CREATE_CHECKPOINT_TABLE);
+        List<Long> checkpoint = jdbcTemplate.queryForList(SELECT_CHECKPOINT, Long.class, source);
+        long rowsSkipped = checkpoint.isEmpty() ? 0 : checkpoint.get(0);
+        for (long i = 0; i < rowsSkipped; i++) {
+            if (records.next() == null) {
+                break;
+            }
+        }
+
+        Map<String, Integer> ingredientsByName = new HashMap<>();
+        jdbcTemplate.query("select ingredient_id, name from ingredient_details",
+                rs -> { ingredientsByName.put(rs.getString(2), rs.getInt(1)); });
+
+        long rowsRead = 0;
+        long recipesImported = 0;
+        long ingredientsCreated = 0;
+        long lastProgress = start;
+        List<ImportRecord> chunk = new ArrayList<>(batchSize);
+        ImportRecord record = records.next();
+        while (record != null) {
+            chunk.clear();
+            while (record != null && chunk.size() < batchSize) {
+                chunk.add(record);
+                record = records.next();
+            }
+            long rowsDone = rowsSkipped + rowsRead + chunk.size();
+            Chunk written = transactionTemplate.execute(
+                    status -> write(source, chunk, rowsDone, ingredientsByName, defaultUserEmail));
+            // Only remember new ingredients once their insert has committed
+            ingredientsByName.putAll(written.createdIngredients());
+            rowsRead += chunk.size();
+            recipesImported += written.recipes();
+            ingredientsCreated += written.createdIngredients().size();
+
+            long now = System.nanoTime();
+            if (now - lastProgress >= PROGRESS_INTERVAL_NANOS) {
+                log.info("Imported {} rows from {} ({} rows/s)", rowsRead, source,
+                        Math.round(rowsPerSecond(rowsRead, now - start)));
+                lastProgress = now;
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        ImportReport report = new ImportReport(source, rowsSkipped, rowsRead, recipesImported, ingredientsCreated,
+                elapsed / 1_000_000, rowsPerSecond(rowsRead, elapsed));
+        log.info("Imported {} recipes and {} new ingredients from {} in {} ms ({} rows/s)", recipesImported,
+                ingredientsCreated, source, report.elapsedMillis(), Math.round(report.rowsPerSecond()));
+        return report;
+    }
+
+    private Chunk write(String source, List<ImportRecord> chunk, long rowsDone,
+                        Map<String, Integer> ingredientsByName, String defaultUserEmail) {
+        Map<String, Integer> created = new LinkedHashMap<>();
+        for (ImportRecord record : chunk) {
+            for (String name : names(record)) {
+                if (!ingredientsByName.containsKey(name) && !created.containsKey(name)) {
+                    created.put(name, ingredientIds.next());
+                }
+            }
+        }
+        if (!created.isEmpty()) {
+            insertIngredients(created);
+        }
+
+        Timestamp now = Timestamp.from(Instant.now());
+        Date today = Date.valueOf(LocalDate.now());
+        List<Object[]> recipes = new ArrayList<>(chunk.size());
+        List<Object[]> lines = new ArrayList<>();
+        Set<Integer> recipeIngredients = new HashSet<>();
+        for (ImportRecord record : chunk) {
+            if (record.title() == null || record.title().isBlank()) {
+                continue;
+            }
+            int recipeId = recipeIds.next();
+            recipes.add(new Object[] {recipeId, clip(record.title()), clip(record.description()),
+                    clip(record.instructions()), record.userEmail() != null ? record.userEmail() : defaultUserEmail,
+                    today, today, now});
+            recipeIngredients.clear();
+            for (String name : names(record)) {
+                Integer ingredientId = created.getOrDefault(name, ingredientsByName.get(name));
+                if (recipeIngredients.add(ingredientId)) {
+                    lines.add(new Object[] {recipeId, ingredientId});
+                }
+            }
+        }
+        if (!recipes.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_RECIPE, recipes);
+            jdbcTemplate.batchUpdate(INSERT_RECIPE_INGREDIENT, lines);
+        }
+        jdbcTemplate.update(SAVE_CHECKPOINT, source, rowsDone, now);
+        return new Chunk(recipes.size(), created);
+    }
+
+    /**
+     * Inserts new ingredients, keeping the id of any that another writer inserted first.
+     */
+    private void insertIngredients(Map<String, Integer> created) {
+        List<String> names = new ArrayList<>(created.keySet());
+        List<Object[]> rows = new ArrayList<>(names.size());
+        for (String name : names) {
+            rows.add(new Object[] {created.get(name), name});
+        }
+        int[] counts = jdbcTemplate.batchUpdate(INSERT_INGREDIENT, rows);
+
+        // A name skipped by "on conflict do nothing" already has an id. Drivers that rewrite batches report
+        // no per-row counts, in which case every name is looked up again.
+        List<String> conflicts = new ArrayList<>();
+        for (int i = 0; i < names.size(); i++) {
+            if (i >= counts.length || counts[i] != 1) {
+                conflicts.add(names.get(i));
+            }
+        }
+        if (!conflicts.isEmpty()) {
+            jdbcTemplate.query(SELECT_INGREDIENTS_BY_NAME,
+                    ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", conflicts.toArray())),
+                    rs -> { created.put(rs.getString(2), rs.getInt(1)); });
+        }
+    }
+
+    private List<String> names(ImportRecord record) {
+        if (record.ingredients() == null) {
+            return List.of();
+        }
+        List<String> names = new ArrayList<>(record.ingredients().size());
+        for (String ingredient : record.ingredients()) {
+            if (ingredient != null && !ingredient.isBlank()) {
+                names.add(clip(normalizer.normalize(ingredient)));
+            }
+        }
+        return names;
+    }
+
+    private static String clip(String value) {
+        return value == null || value.length() <= MAX_COLUMN_LENGTH ? value : value.substring(0, MAX_COLUMN_LENGTH);
+    }
+
+    private static double rowsPerSecond(long rows, long nanos) {
+        return nanos == 0 ? 0 : rows * 1e9 / nanos;
+    }
+
+    /**
+     * The number of recipes a chunk wrote and the ingredients it created.
+     */
+    private record Chunk(int recipes, Map<String, Integer> createdIngredients) {
+    }
+
+    /**
+     * Hands out the ids of a pooled sequence. Like Hibernate's pooled optimizer, each nextval reserves the
+     * {@link #ID_ALLOCATION_SIZE} ids ending at the returned value.
+     */
+    private final class IdBlock {
+
+        private final String sequence;
+
+        private long next = 1;
+
+        private long last;
+
+        IdBlock(String sequence) {
+            this.sequence = sequence;
+        }
+
+        int next() {
+            if (next > last) {
+                long high = jdbcTemplate.queryForObject("select nextval('" + sequence + "')", Long.class);
+                next = Math.max(1, high - ID_ALLOCATION_SIZE + 1);
+                last = high;
+            }
+            return Math.toIntExact(next++);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.ps.culinarycompanion.ingredients;
+
+import com.ps.culinarycompanion.recipes.RecipesImportedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Completes typed ingredient names from an in-memory {@link IngredientTrie}, ranking ingredients by how many
+ * recipes and pantries use them.
+ * <p>
+ * New ingredients are added to the trie as they are created. Usage counts only change when the trie is rebuilt,
+ * which happens in the background and after a bulk import.
+ */
+@Component
+public class IngredientAutocomplete {
+
+    private static final Logger log = LoggerFactory.getLogger(IngredientAutocomplete.class);
+
+    public static final int MAX_SUGGESTIONS = IngredientTrie.TOP_K;
+
+    private static final String INGREDIENT_USES = """
+            select i.ingredient_id, i.name, coalesce(r.uses, 0) + coalesce(u.uses, 0)
+            from ingredient_details i
+            left join (select ingredient_id, count(*) as uses from recipe_ingredients group by ingredient_id) r
+                on r.ingredient_id = i.ingredient_id
+            left join (select ingredient_id, count(*) as uses from user_ingredients group by ingredient_id) u
+                on u.ingredient_id = i.ingredient_id""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Guarded by {@link #lock}. */
+    private IngredientTrie trie = new IngredientTrie();
+
+    /**
+     * Ingredients added while a new trie is being built, added to it before it is swapped in. Null when no build
+     * is running. Guarded by {@link #lock}.
+     */
+    private List<IngredientSuggestion> addedDuringRebuild;
+
+    public IngredientAutocomplete(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Rebuilds the trie with current usage counts once the application has started, then periodically.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${ingredient.autocomplete.rebuild-interval:PT10M}",
+            initialDelayString = "${ingredient.autocomplete.rebuild-interval:PT10M}")
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            addedDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        IngredientTrie rebuilt = new IngredientTrie();
+        boolean built = false;
+        try {
+            jdbcTemplate.query(INGREDIENT_USES, rs -> {
+                rebuilt.add(rs.getInt(1), rs.getString(2), rs.getLong(3));
+            });
+            built = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (built) {
+                    addedDuringRebuild.forEach(added -> rebuilt.add(added.ingredientId(), added.name(), 0));
+                    trie = rebuilt;
+                }
+                addedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info("Indexed {} ingredient names in {} trie nodes in {} ms", rebuilt.size(), rebuilt.nodes(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Rebuilds the trie in the background after a bulk import, which creates ingredients without publishing events.
+     *
+     * @param  event  the import
+     */
+    @Async
+    @EventListener
+    public void onRecipesImported(RecipesImportedEvent event) {
+        rebuild();
+    }
+
+    /**
+     * Adds newly created ingredients once they are committed, unused so far.
+     *
+     * @param  event  the created ingredients
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIngredientsCreated(IngredientsCreatedEvent event) {
+        lock.writeLock().lock();
+        try {
+            event.idsByName().forEach((name, id) -> {
+                trie.add(id, name, 0);
+                if (addedDuringRebuild != null) {
+                    addedDuringRebuild.add(new IngredientSuggestion(id, name));
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the most used ingredients with a word starting with the given prefix.
+     *
+     * @param  prefix  the typed prefix, matched case-insensitively
+     * @param  limit   the maximum number of ingredients, at most {@link #MAX_SUGGESTIONS}
+     * @return         the ingredients, most used first
+     */
+    public List<IngredientSuggestion> complete(String prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            return trie.complete(prefix, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
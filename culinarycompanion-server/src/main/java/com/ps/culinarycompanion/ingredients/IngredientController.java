@@ -8,6 +8,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -17,8 +18,11 @@ public class IngredientController {
 
     private final IngredientService ingredientService;
 
-    public IngredientController(IngredientService ingredientService) {
+    private final IngredientAutocomplete ingredientAutocomplete;
+
+    public IngredientController(IngredientService ingredientService, IngredientAutocomplete ingredientAutocomplete) {
         this.ingredientService = ingredientService;
+        this.ingredientAutocomplete = ingredientAutocomplete;
     }
 
     /**
@@ -31,6 +35,20 @@ public class IngredientController {
         return new ResponseEntity<>(ingredientService.getAllIngredients(), HttpStatus.OK);
     }
 
+    /**
+     * Suggests ingredients while a name is being typed, most used first.
+     *
+     * @param  prefix  the typed text, matched case-insensitively against the start of each word of a name
+     * @param  limit   the maximum number of ingredients to return, at most 10
+     * @return         a ResponseEntity containing the suggested ingredients and the HTTP status code OK
+     */
+    @GetMapping("/api/ingredients/autocomplete")
+    public ResponseEntity<List<IngredientSuggestion>> autocomplete(@RequestParam String prefix,
+                                                                   @RequestParam(defaultValue = "10") int limit) {
+        return new ResponseEntity<>(ingredientAutocomplete.complete(prefix,
+                Math.min(Math.max(limit, 0), IngredientAutocomplete.MAX_SUGGESTIONS)), HttpStatus.OK);
+    }
+
     /**
      * Retrieves an ingredient by its ID.
      *
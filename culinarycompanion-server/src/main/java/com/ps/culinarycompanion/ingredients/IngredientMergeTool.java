@@ -0,0 +1,51 @@
+package com.ps.culinarycompanion.ingredients;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command-line tool that merges ingredients whose names normalize to the same canonical name, see
+ * {@link IngredientMerger}. Run it once with the servers stopped after upgrading to normalized ingredient names.
+ * <pre>
+ * java -cp culinarycompanion.jar \
+ *      -Dloader.main=com.ps.culinarycompanion.ingredients.IngredientMergeTool \
+ *      org.springframework.boot.loader.launch.PropertiesLauncher \
+ *      --jdbc-url URL --jdbc-user USER --jdbc-password PASSWORD
+ * </pre>
+ */
+public final class IngredientMergeTool {
+
+    private IngredientMergeTool() {
+
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i], args[i + 1]);
+        }
+        if (!options.containsKey("--jdbc-url")) {
+            System.err.println("Usage: IngredientMergeTool --jdbc-url URL --jdbc-user USER --jdbc-password PASSWORD");
+            System.exit(2);
+        }
+
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(options.get("--jdbc-url"),
+                options.get("--jdbc-user"), options.get("--jdbc-password"), true);
+        try {
+            IngredientMerger merger = new IngredientMerger(new JdbcTemplate(dataSource),
+                    new TransactionTemplate(new DataSourceTransactionManager(dataSource)), new IngredientNormalizer());
+            IngredientMerger.Report report = merger.merge();
+            System.out.printf("Merged %d of %d ingredients and renamed %d (%d recipe lines, %d pantry lines moved) "
+                            + "in %d ms%n", report.ingredientsMerged(), report.ingredientsScanned(),
+                    report.ingredientsRenamed(), report.recipeLinesMoved(), report.pantryLinesMoved(),
+                    report.elapsedMillis());
+        } finally {
+            dataSource.destroy();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.ps.culinarycompanion.ingredients;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collapses ingredients whose names normalize to the same canonical name into one row, for data written before
+ * names were normalized on the way in.
+ * <p>
+ * Each group of duplicates keeps one survivor: the ingredient already named canonically, otherwise the one with the
+ * lowest id, renamed to the canonical name. Recipe and pantry lines pointing at the other ingredients are moved to
+ * the survivor, keeping the first line when a recipe or pantry already holds both, and the duplicates are deleted.
+ * Everything happens in one transaction with set-based statements over a temporary old-to-new id table.
+ * <p>
+ * Servers cache ingredient ids by name and must be restarted after a merge.
+ */
+public class IngredientMerger {
+
+    private static final String CREATE_MERGE_TABLE = """
+            create temporary table ingredient_merge (
+                old_id integer primary key,
+                new_id integer not null) on commit drop""";
+
+    private static final String MOVE_RECIPE_LINES = """
+            insert into recipe_ingredients (recipe_id, ingredient_id, quantity, unit)
+            select distinct on (ri.recipe_id, m.new_id) ri.recipe_id, m.new_id, ri.quantity, ri.unit
+            from recipe_ingredients ri join ingredient_merge m on m.old_id = ri.ingredient_id
+            order by ri.recipe_id, m.new_id, ri.ingredient_id
+            on conflict do nothing""";
+
+    private static final String MOVE_PANTRY_LINES = """
+            insert into user_ingredients (user_id, ingredient_id, quantity, unit)
+            select distinct on (ui.user_id, m.new_id) ui.user_id, m.new_id, ui.quantity, ui.unit
+            from user_ingredients ui join ingredient_merge m on m.old_id = ui.ingredient_id
+            order by ui.user_id, m.new_id, ui.ingredient_id
+            on conflict do nothing""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final IngredientNormalizer normalizer;
+
+    public IngredientMerger(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                            IngredientNormalizer normalizer) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.normalizer = normalizer;
+    }
+
+    /**
+     * Merges every group of ingredients that share a canonical name.
+     *
+     * @return  the merge's report
+     */
+    public Report merge() {
+        long start = System.nanoTime();
+        Map<String, List<Ingredient>> groups = new LinkedHashMap<>();
+        jdbcTemplate.query("select ingredient_id, name from ingredient_details order by ingredient_id", rs -> {
+            Ingredient ingredient = new Ingredient(rs.getString(2));
+            ingredient.setIngredientId(rs.getInt(1));
+            groups.computeIfAbsent(normalizer.normalize(ingredient.getName()), name -> new ArrayList<>())
+                    .add(ingredient);
+        });
+
+        List<Object[]> merged = new ArrayList<>();
+        List<Object[]> renamed = new ArrayList<>();
+        int ingredients = 0;
+        for (Map.Entry<String, List<Ingredient>> group : groups.entrySet()) {
+            String canonical = group.getKey();
+            List<Ingredient> members = group.getValue();
+            ingredients += members.size();
+            Ingredient survivor = members.stream()
+                    .filter(member -> member.getName().equals(canonical))
+                    .findFirst()
+                    .orElse(members.get(0));
+            for (Ingredient member : members) {
+                if (member != survivor) {
+                    merged.add(new Object[] {member.getIngredientId(), survivor.getIngredientId()});
+                }
+            }
+            if (!survivor.getName().equals(canonical)) {
+                renamed.add(new Object[] {canonical, survivor.getIngredientId()});
+            }
+        }
+
+        int[] moved = transactionTemplate.execute(status -> {
+            int recipeLines = 0;
+            int pantryLines = 0;
+            if (!merged.isEmpty()) {
+                jdbcTemplate.execute(CREATE_MERGE_TABLE);
+                jdbcTemplate.batchUpdate("insert into ingredient_merge (old_id, new_id) values (?, ?)", merged);
+                recipeLines = jdbcTemplate.update(MOVE_RECIPE_LINES);
+                jdbcTemplate.update("delete from recipe_ingredients where ingredient_id in "
+                        + "(select old_id from ingredient_merge)");
+                pantryLines = jdbcTemplate.update(MOVE_PANTRY_LINES);
+                jdbcTemplate.update("delete from user_ingredients where ingredient_id in "
+                        + "(select old_id from ingredient_merge)");
+                jdbcTemplate.update("delete from ingredient_details where ingredient_id in "
+                        + "(select old_id from ingredient_merge)");
+            }
+            // Every other holder of a canonical name was merged into its survivor above, so renames cannot conflict
+            if (!renamed.isEmpty()) {
+                jdbcTemplate.batchUpdate("update ingredient_details set name = ? where ingredient_id = ?", renamed);
+            }
+            return new int[] {recipeLines, pantryLines};
+        });
+
+        return new Report(ingredients, merged.size(), renamed.size(), moved[0], moved[1],
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * The outcome of a merge.
+     *
+     * @param ingredientsScanned  ingredients read before the merge
+     * @param ingredientsMerged   duplicates merged into a survivor and deleted
+     * @param ingredientsRenamed  survivors renamed to their canonical name
+     * @param recipeLinesMoved    recipe lines re-pointed at a survivor, lines the recipe already held are dropped
+     * @param pantryLinesMoved    pantry lines re-pointed at a survivor, lines the pantry already held are dropped
+     * @param elapsedMillis       how long the merge took
+     */
+    public record Report(int ingredientsScanned, int ingredientsMerged, int ingredientsRenamed, int recipeLinesMoved,
+                         int pantryLinesMoved, long elapsedMillis) {
+    }
+}
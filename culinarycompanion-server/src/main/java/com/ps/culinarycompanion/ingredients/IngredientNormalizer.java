@@ -0,0 +1,333 @@
+package com.ps.culinarycompanion.ingredients;
+
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Maps the many ways an ingredient is written to one canonical name, so "Tomatoes", "ripe tomato" and
+ * "tomato (diced)" all resolve to the ingredient "tomato".
+ * <p>
+ * A name is case folded, cut at the first comma, stripped of parenthesised text, punctuation and qualifier words
+ * such as "fresh" or "chopped", and its last word is reduced to the singular. The result is then looked up in a
+ * synonym table. Normalizing a canonical name returns it unchanged.
+ * <p>
+ * The word tables are read once from {@code ingredients/*.txt} on the classpath into open-addressing tables probed
+ * with char slices, and each thread folds names into its own reused buffers, so a name that is already canonical is
+ * normalized without allocating. Thread-safe.
+ */
+@Component
+public class IngredientNormalizer {
+
+    private final SliceTable qualifiers;
+
+    private final SliceTable singulars;
+
+    private final SliceTable synonyms;
+
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    public IngredientNormalizer() {
+        this(read("ingredients/qualifiers.txt"), read("ingredients/singulars.txt"),
+                read("ingredients/synonyms.txt"));
+    }
+
+    /**
+     * Creates a normalizer from explicit word tables.
+     *
+     * @param  qualifiers  the qualifier words, as keys
+     * @param  singulars   irregular plurals and words that only look plural, mapped to their singular
+     * @param  synonyms    alternative names mapped to the canonical name; both sides are normalized first
+     */
+    IngredientNormalizer(Map<String, String> qualifiers, Map<String, String> singulars,
+                         Map<String, String> synonyms) {
+        this.qualifiers = new SliceTable(qualifiers);
+        this.singulars = new SliceTable(singulars);
+        Map<String, String> normalized = new LinkedHashMap<>();
+        this.synonyms = new SliceTable(normalized);
+        synonyms.forEach((name, canonical) -> normalized.put(normalize(name), normalize(canonical)));
+        this.synonyms.putAll(normalized);
+    }
+
+    /**
+     * Returns the canonical form of an ingredient name.
+     *
+     * @param  name  the name as entered
+     * @return       the canonical name, or the trimmed name if nothing of it survives normalization
+     */
+    public String normalize(String name) {
+        Scratch s = scratch.get();
+        int length = fold(name, s);
+        int words = split(s, length);
+
+        int kept = 0;
+        for (int w = 0; w < words; w++) {
+            s.kept[w] = qualifiers.get(s.folded, s.starts[w], s.ends[w] - s.starts[w]) == null;
+            if (s.kept[w]) {
+                kept++;
+            }
+        }
+        if (kept == 0) {
+            Arrays.fill(s.kept, 0, words, true);
+            kept = words;
+        }
+
+        int out = 0;
+        for (int w = 0; w < words; w++) {
+            if (!s.kept[w]) {
+                continue;
+            }
+            if (out > 0) {
+                s.out[out++] = ' ';
+            }
+            if (--kept == 0) {
+                out = singular(s, s.starts[w], s.ends[w], out);
+            } else {
+                System.arraycopy(s.folded, s.starts[w], s.out, out, s.ends[w] - s.starts[w]);
+                out += s.ends[w] - s.starts[w];
+            }
+        }
+        if (out == 0) {
+            return name.trim();
+        }
+
+        String synonym = synonyms.get(s.out, 0, out);
+        if (synonym != null) {
+            return synonym;
+        }
+        return SliceTable.matches(name, s.out, 0, out) ? name : new String(s.out, 0, out);
+    }
+
+    /**
+     * Lower-cases the name into the scratch buffer, dropping apostrophes and parenthesised text, ending it at the
+     * first comma and collapsing every other run of non-alphanumeric characters into one space.
+     */
+    private static int fold(String name, Scratch s) {
+        s.ensureCapacity(name.length());
+        int length = 0;
+        int depth = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth = Math.max(0, depth - 1);
+            } else if (depth > 0 || c == '\'' || c == '’') {
+                continue;
+            } else if (Character.isLetterOrDigit(c)) {
+                s.folded[length++] = Character.toLowerCase(c);
+            } else if (c == ',' && length > 0) {
+                break;
+            } else if (length > 0 && s.folded[length - 1] != ' ') {
+                s.folded[length++] = ' ';
+            }
+        }
+        return length > 0 && s.folded[length - 1] == ' ' ? length - 1 : length;
+    }
+
+    private static int split(Scratch s, int length) {
+        int words = 0;
+        int start = 0;
+        for (int i = 0; i <= length; i++) {
+            if (i == length || s.folded[i] == ' ') {
+                if (i > start) {
+                    s.starts[words] = start;
+                    s.ends[words] = i;
+                    words++;
+                }
+                start = i + 1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Appends the singular of a word: from the irregular table if listed, otherwise by stripping the plural suffix.
+     */
+    private int singular(Scratch s, int start, int end, int at) {
+        char[] word = s.folded;
+        int length = end - start;
+        String irregular = singulars.get(word, start, length);
+        if (irregular != null) {
+            s.ensureOutCapacity(at + irregular.length());
+            irregular.getChars(0, irregular.length(), s.out, at);
+            return at + irregular.length();
+        }
+
+        int keep = length;
+        boolean y = false;
+        if (length > 4 && endsWith(word, end, "ies")) {
+            keep = length - 3;
+            y = true;
+        } else if (length > 3 && endsWith(word, end, "oes")) {
+            keep = length - 2;
+        } else if (length > 4 && (endsWith(word, end, "ches") || endsWith(word, end, "shes")
+                || endsWith(word, end, "sses") || endsWith(word, end, "xes") || endsWith(word, end, "zes"))) {
+            keep = length - 2;
+        } else if (length > 3 && word[end - 1] == 's' && word[end - 2] != 's' && word[end - 2] != 'u'
+                && word[end - 2] != 'i') {
+            keep = length - 1;
+        }
+        System.arraycopy(word, start, s.out, at, keep);
+        at += keep;
+        if (y) {
+            s.out[at++] = 'y';
+        }
+        return at;
+    }
+
+    private static boolean endsWith(char[] word, int end, String suffix) {
+        int from = end - suffix.length();
+        for (int i = 0; i < suffix.length(); i++) {
+            if (word[from + i] != suffix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads a word table: one entry per line, either {@code key=value} or a bare key mapped to itself. Blank lines
+     * and lines starting with # are skipped.
+     */
+    private static Map<String, String> read(String resource) {
+        Map<String, String> table = new LinkedHashMap<>();
+        try (InputStream in = IngredientNormalizer.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing " + resource);
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                int separator = line.indexOf('=');
+                String key = separator < 0 ? line : line.substring(0, separator).trim();
+                table.put(key, separator < 0 ? key : line.substring(separator + 1).trim());
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return table;
+    }
+
+    /**
+     * Per-thread buffers a name is folded and rebuilt in.
+     */
+    private static final class Scratch {
+
+        char[] folded = new char[64];
+
+        char[] out = new char[64];
+
+        int[] starts = new int[16];
+
+        int[] ends = new int[16];
+
+        boolean[] kept = new boolean[16];
+
+        void ensureCapacity(int length) {
+            if (folded.length < length) {
+                folded = new char[length];
+            }
+            ensureOutCapacity(length);
+            int words = length / 2 + 1;
+            if (starts.length < words) {
+                starts = new int[words];
+                ends = new int[words];
+                kept = new boolean[words];
+            }
+        }
+
+        void ensureOutCapacity(int length) {
+            if (out.length < length) {
+                out = Arrays.copyOf(out, Math.max(length, out.length * 2));
+            }
+        }
+    }
+
+    /**
+     * Open-addressing map from strings to strings that is probed with a char slice, so lookups never allocate.
+     */
+    private static final class SliceTable {
+
+        private String[] keys = new String[16];
+
+        private String[] values = new String[16];
+
+        private int size;
+
+        SliceTable(Map<String, String> entries) {
+            putAll(entries);
+        }
+
+        void putAll(Map<String, String> entries) {
+            entries.forEach(this::put);
+        }
+
+        String get(char[] chars, int offset, int length) {
+            int mask = keys.length - 1;
+            for (int slot = hash(chars, offset, length) & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+                if (matches(keys[slot], chars, offset, length)) {
+                    return values[slot];
+                }
+            }
+            return null;
+        }
+
+        private void put(String key, String value) {
+            if ((size + 1) * 2 > keys.length) {
+                String[] oldKeys = keys;
+                String[] oldValues = values;
+                keys = new String[oldKeys.length * 2];
+                values = new String[oldKeys.length * 2];
+                size = 0;
+                for (int i = 0; i < oldKeys.length; i++) {
+                    if (oldKeys[i] != null) {
+                        put(oldKeys[i], oldValues[i]);
+                    }
+                }
+            }
+            int mask = keys.length - 1;
+            int slot = hash(key.toCharArray(), 0, key.length()) & mask;
+            while (keys[slot] != null && !keys[slot].equals(key)) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == null) {
+                size++;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+        }
+
+        private static int hash(char[] chars, int offset, int length) {
+            int hash = 0;
+            for (int i = offset; i < offset + length; i++) {
+                hash = 31 * hash + chars[i];
+            }
+            return hash ^ (hash >>> 16);
+        }
+
+        static boolean matches(String key, char[] chars, int offset, int length) {
+            if (key.length() != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (key.charAt(i) != chars[offset + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
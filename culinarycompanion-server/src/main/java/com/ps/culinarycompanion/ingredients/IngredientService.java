@@ -1,19 +1,58 @@
 package com.ps.culinarycompanion.ingredients;
 
 import com.ps.culinarycompanion.dao.IngredientRepository;
+import com.ps.culinarycompanion.dao.IngredientRepositoryCustom.InsertedIngredients;
 import com.ps.culinarycompanion.exception.NotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class IngredientService {
 
+    private static final Logger log = LoggerFactory.getLogger(IngredientService.class);
+
     private final IngredientRepository ingredientRepository;
 
-    public IngredientService(IngredientRepository recipeRepository) {
+    private final IngredientNormalizer normalizer;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Ids of ingredients known to be committed, keyed by name. Ingredients are only renamed by the offline
+     * {@link IngredientMergeTool}, so an entry only goes stale when the ingredient is deleted.
+     */
+    private final Map<String, Integer> idsByName = new ConcurrentHashMap<>();
+
+    public IngredientService(IngredientRepository recipeRepository, IngredientNormalizer normalizer,
+                             ApplicationEventPublisher eventPublisher) {
         this.ingredientRepository = recipeRepository;
+        this.normalizer = normalizer;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Loads the id of every ingredient once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmCache() {
+        for (Ingredient ingredient : ingredientRepository.findAll()) {
+            idsByName.put(ingredient.getName(), ingredient.getIngredientId());
+        }
+        log.info("Cached the ids of {} ingredients", idsByName.size());
     }
 
     /**
@@ -44,12 +83,12 @@ public class IngredientService {
     /**
      * Retrieves an Ingredient object by its name from the ingredient repository.
      *
-     * @param  name  the name of the ingredient to retrieve
+     * @param  name  the name of the ingredient to retrieve, in any form {@link IngredientNormalizer} accepts
      * @return       the Ingredient object with the specified name
      * @throws NotFoundException if no ingredient with the specified name is found
      */
     public Ingredient getIngredientByName(String name) {
-        Optional<Ingredient> ingredient = ingredientRepository.findByName(name);
+        Optional<Ingredient> ingredient = ingredientRepository.findByName(normalizer.normalize(name));
 
         if (ingredient.isEmpty()) {
             throw new NotFoundException("Ingredient not found: "+name);
@@ -59,13 +98,95 @@ public class IngredientService {
     }
 
     /**
-     * Creates an ingredient by saving it to the ingredient repository.
+     * Creates an ingredient by saving it to the ingredient repository. The name is stored in its canonical form.
      *
      * @param  ingredient  the ingredient to be saved
      * @return             the saved ingredient
      */
     public Ingredient createIngredient(Ingredient ingredient) {
-        return ingredientRepository.save(ingredient);
+        ingredient.setName(normalizer.normalize(ingredient.getName()));
+        Ingredient saved = ingredientRepository.save(ingredient);
+        eventPublisher.publishEvent(new IngredientsCreatedEvent(Map.of(saved.getName(), saved.getIngredientId())));
+        return saved;
+    }
+
+    /**
+     * Resolves ingredient names to ids, creating the ingredients that do not exist yet. Names are reduced to their
+     * canonical form by {@link IngredientNormalizer}, so "Tomatoes" and "ripe tomato" resolve to the same
+     * ingredient. Canonical names are looked up in an in-memory map first; the misses go to the database as one
+     * insert that skips names another transaction has created meanwhile, so concurrent callers never fail on the
+     * unique constraint. Resolved ids are added to the map once the current transaction, if any, commits.
+     *
+     * @param  names  the names of the ingredients as entered, may contain repeats
+     * @return        the ingredient ids keyed by the names as entered
+     */
+    public Map<String, Integer> resolveOrCreate(Collection<String> names) {
+        Map<String, Integer> ids = new HashMap<>();
+        Map<String, String> missing = new HashMap<>();
+        for (String name : new LinkedHashSet<>(names)) {
+            if (name == null) {
+                continue;
+            }
+            String canonical = normalizer.normalize(name);
+            Integer id = idsByName.get(canonical);
+            if (id != null) {
+                ids.put(name, id);
+            } else {
+                missing.put(name, canonical);
+            }
+        }
+        if (missing.isEmpty()) {
+            return ids;
+        }
+
+        InsertedIngredients inserted = ingredientRepository.insertIfAbsent(new LinkedHashSet<>(missing.values()));
+        missing.forEach((name, canonical) -> ids.put(name, inserted.ids().get(canonical)));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Caching an id whose insert is later rolled back would hand out a dangling foreign key
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    idsByName.putAll(inserted.ids());
+                }
+            });
+        } else {
+            idsByName.putAll(inserted.ids());
+        }
+        if (!inserted.created().isEmpty()) {
+            eventPublisher.publishEvent(new IngredientsCreatedEvent(Map.copyOf(inserted.created())));
+        }
+        return ids;
+    }
+
+    /**
+     * Resolves ingredients by name, creating the ones that do not exist yet, and loads them with a single query.
+     *
+     * @param  names  the names of the ingredients as entered, may contain repeats
+     * @return        the ingredients keyed by the names as entered
+     */
+    public Map<String, Ingredient> getOrCreateIngredients(Collection<String> names) {
+        Map<String, Ingredient> ingredients = new HashMap<>();
+        Map<String, Integer> ids = resolveOrCreate(names);
+        if (ids.isEmpty()) {
+            return ingredients;
+        }
+
+        Map<Integer, Ingredient> byId = new HashMap<>();
+        for (Ingredient ingredient : ingredientRepository.findAllById(new LinkedHashSet<>(ids.values()))) {
+            byId.put(ingredient.getIngredientId(), ingredient);
+        }
+        ids.forEach((name, id) -> ingredients.put(name, byId.get(id)));
+        return ingredients;
+    }
+
+    /**
+     * Resolves an ingredient by name, creating it if it does not exist yet.
+     *
+     * @param  name  the name of the ingredient
+     * @return       the ingredient
+     */
+    public Ingredient getOrCreateIngredient(String name) {
+        return getOrCreateIngredients(List.of(name)).get(name);
     }
 
     /**
@@ -75,6 +196,7 @@ public class IngredientService {
      */
     public void deleteIngredient(int id) {
         ingredientRepository.deleteById(id);
+        idsByName.values().remove(id);
     }
 
 }
@@ -0,0 +1,10 @@
+package com.ps.culinarycompanion.ingredients;
+
+/**
+ * An ingredient offered while a name is being typed.
+ *
+ * @param ingredientId  the ingredient id
+ * @param name          the ingredient name
+ */
+public record IngredientSuggestion(int ingredientId, String name) {
+}
@@ -0,0 +1,193 @@
+package com.ps.culinarycompanion.ingredients;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Prefix trie over ingredient names in which every node keeps the {@link #TOP_K} most used ingredients below it,
+ * so completing a prefix is a walk down its characters followed by a copy of at most {@code TOP_K} entries,
+ * independent of how many names share the prefix.
+ * <p>
+ * Nodes live in parallel primitive arrays (label, first child, next sibling, top-k ordinals) rather than as objects.
+ * Names are matched case-insensitively and from the start of every word, so "pep" finds "black pepper". Not
+ * thread-safe.
+ */
+final class IngredientTrie {
+
+    static final int TOP_K = 10;
+
+    private static final int ROOT = 0;
+
+    private static final int NONE = -1;
+
+    private char[] labels = new char[1024];
+
+    private int[] firstChild = new int[1024];
+
+    private int[] nextSibling = new int[1024];
+
+    /**
+     * The ordinals of each node's most used ingredients, {@link #TOP_K} slots per node, best first and padded with
+     * {@link #NONE}.
+     */
+    private int[] top = new int[1024 * TOP_K];
+
+    private int nodeCount;
+
+    private int[] ingredientIds = new int[256];
+
+    private String[] names = new String[256];
+
+    private long[] uses = new long[256];
+
+    private int ingredientCount;
+
+    private final Map<Integer, Integer> ordinals = new HashMap<>();
+
+    IngredientTrie() {
+        newNode('\0');
+    }
+
+    /**
+     * Adds an ingredient. Ingredients are never renamed, so adding one that is already present does nothing.
+     *
+     * @param  ingredientId  the ingredient id
+     * @param  name          the ingredient name
+     * @param  useCount      how many recipes and pantries use the ingredient
+     */
+    void add(int ingredientId, String name, long useCount) {
+        if (ordinals.containsKey(ingredientId)) {
+            return;
+        }
+        if (ingredientCount == ingredientIds.length) {
+            int capacity = ingredientCount * 2;
+            ingredientIds = Arrays.copyOf(ingredientIds, capacity);
+            names = Arrays.copyOf(names, capacity);
+            uses = Arrays.copyOf(uses, capacity);
+        }
+        int ordinal = ingredientCount++;
+        ingredientIds[ordinal] = ingredientId;
+        names[ordinal] = name;
+        uses[ordinal] = useCount;
+        ordinals.put(ingredientId, ordinal);
+
+        String key = name.toLowerCase(Locale.ROOT);
+        offer(ROOT, ordinal);
+        for (int start = 0; start < key.length(); start++) {
+            boolean wordStart = Character.isLetterOrDigit(key.charAt(start))
+                    && (start == 0 || !Character.isLetterOrDigit(key.charAt(start - 1)));
+            if (wordStart) {
+                int node = ROOT;
+                for (int i = start; i < key.length(); i++) {
+                    node = child(node, key.charAt(i), true);
+                    offer(node, ordinal);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the most used ingredients with a word starting with the given prefix.
+     *
+     * @param  prefix  the typed prefix, matched case-insensitively
+     * @param  limit   the maximum number of ingredients, at most {@link #TOP_K}
+     * @return         the ingredients, most used first
+     */
+    List<IngredientSuggestion> complete(String prefix, int limit) {
+        String key = prefix.toLowerCase(Locale.ROOT);
+        int node = ROOT;
+        for (int i = 0; i < key.length() && node != NONE; i++) {
+            node = child(node, key.charAt(i), false);
+        }
+        if (node == NONE) {
+            return List.of();
+        }
+
+        List<IngredientSuggestion> suggestions = new ArrayList<>(Math.min(limit, TOP_K));
+        int base = node * TOP_K;
+        for (int i = 0; i < Math.min(limit, TOP_K) && top[base + i] != NONE; i++) {
+            int ordinal = top[base + i];
+            suggestions.add(new IngredientSuggestion(ingredientIds[ordinal], names[ordinal]));
+        }
+        return suggestions;
+    }
+
+    int size() {
+        return ingredientCount;
+    }
+
+    int nodes() {
+        return nodeCount;
+    }
+
+    private int child(int node, char label, boolean create) {
+        int previous = NONE;
+        for (int c = firstChild[node]; c != NONE; c = nextSibling[c]) {
+            if (labels[c] == label) {
+                return c;
+            }
+            previous = c;
+        }
+        if (!create) {
+            return NONE;
+        }
+
+        int created = newNode(label);
+        if (previous == NONE) {
+            firstChild[node] = created;
+        } else {
+            nextSibling[previous] = created;
+        }
+        return created;
+    }
+
+    private int newNode(char label) {
+        if (nodeCount == labels.length) {
+            int capacity = nodeCount * 2;
+            labels = Arrays.copyOf(labels, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            nextSibling = Arrays.copyOf(nextSibling, capacity);
+            top = Arrays.copyOf(top, capacity * TOP_K);
+        }
+        int node = nodeCount++;
+        labels[node] = label;
+        firstChild[node] = NONE;
+        nextSibling[node] = NONE;
+        Arrays.fill(top, node * TOP_K, (node + 1) * TOP_K, NONE);
+        return node;
+    }
+
+    /**
+     * Inserts an ingredient into a node's top-k if it ranks high enough. A name with a repeated word reaches some
+     * nodes twice, so an ingredient already in the list is left in place.
+     */
+    private void offer(int node, int ordinal) {
+        int base = node * TOP_K;
+        int position = NONE;
+        for (int i = 0; i < TOP_K; i++) {
+            int current = top[base + i];
+            if (current == ordinal) {
+                return;
+            }
+            if (position == NONE && (current == NONE || ranksBefore(ordinal, current))) {
+                position = i;
+            }
+        }
+        if (position == NONE) {
+            return;
+        }
+        System.arraycopy(top, base + position, top, base + position + 1, TOP_K - position - 1);
+        top[base + position] = ordinal;
+    }
+
+    private boolean ranksBefore(int a, int b) {
+        if (uses[a] != uses[b]) {
+            return uses[a] > uses[b];
+        }
+        return names[a].compareTo(names[b]) < 0;
+    }
+}
@@ -0,0 +1,12 @@
+package com.ps.culinarycompanion.ingredients;
+
+import java.util.Map;
+
+/**
+ * Published by {@link IngredientService} when it has created ingredients. Only the ingredients its own insert
+ * created are included, not those another writer created first.
+ *
+ * @param idsByName  the ids of the ingredients, keyed by name
+ */
+public record IngredientsCreatedEvent(Map<String, Integer> idsByName) {
+}
@@ -0,0 +1,11 @@
+package com.ps.culinarycompanion.pantry;
+
+/**
+ * A recipe that can be cooked from a pantry, possibly after buying a few ingredients.
+ *
+ * @param recipeId            the recipe id
+ * @param title               the recipe title
+ * @param missingIngredients  how many of the recipe's ingredients are not in the pantry
+ */
+public record CookableRecipe(int recipeId, String title, int missingIngredients) {
+}
@@ -0,0 +1,46 @@
+package com.ps.culinarycompanion.pantry;
+
+import com.ps.culinarycompanion.useringredients.UserIngredientService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+public class PantryMatchController {
+
+    private static final int MAX_LIMIT = 200;
+
+    private final PantryMatchIndex pantryMatchIndex;
+
+    private final UserIngredientService userIngredientService;
+
+    public PantryMatchController(PantryMatchIndex pantryMatchIndex, UserIngredientService userIngredientService) {
+        this.pantryMatchIndex = pantryMatchIndex;
+        this.userIngredientService = userIngredientService;
+    }
+
+    /**
+     * Retrieves the recipes the user can cook with the ingredients in their pantry.
+     *
+     * @param  userEmail   the email of the user
+     * @param  maxMissing  how many ingredients a recipe may need beyond the pantry, 0 for fully coverable recipes
+     * @param  limit       the maximum number of recipes to return, at most 200
+     * @return             a ResponseEntity containing the cookable recipes, fewest missing ingredients first
+     */
+    @GetMapping("/api/myingredients/{userEmail}/cookable")
+    public ResponseEntity<List<CookableRecipe>> getCookableRecipes(@PathVariable String userEmail,
+                                                                   @RequestParam(defaultValue = "0") int maxMissing,
+                                                                   @RequestParam(defaultValue = "50") int limit) {
+        List<Integer> pantry = userIngredientService.getAllIngredients(userEmail).stream()
+                .map(userIngredient -> userIngredient.ingredient().ingredientId())
+                .toList();
+        return new ResponseEntity<>(pantryMatchIndex.findCookable(pantry, Math.max(maxMissing, 0),
+                Math.min(Math.max(limit, 0), MAX_LIMIT)), HttpStatus.OK);
+    }
+
+}
@@ -0,0 +1,273 @@
+package com.ps.culinarycompanion.pantry;
+
+import com.ps.culinarycompanion.recipes.RecipeChangedEvent;
+import com.ps.culinarycompanion.recipes.RecipesImportedEvent;
+import com.ps.culinarycompanion.recipes.StoredRecipeReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index from ingredient id to the set of recipes using it, used to find the recipes a pantry can
+ * cover.
+ * <p>
+ * Recipes are numbered with dense ordinals so each ingredient's recipe set is a compact {@link BitSet}. A query adds
+ * the bitmaps of the pantry's ingredients into a bit-sliced counter (one bitmap per binary digit of the count), so
+ * how many of each recipe's ingredients are covered is computed with word-wide AND/XOR operations rather than
+ * a per-recipe scan. Only recipes sharing at least one ingredient with the pantry are returned.
+ */
+@Component
+public class PantryMatchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(PantryMatchIndex.class);
+
+    private final StoredRecipeReader storedRecipeReader;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Integer, Integer> ordinals = new HashMap<>();
+
+    private final Map<Integer, BitSet> recipesByIngredient = new HashMap<>();
+
+    private int[] recipeIds = new int[1024];
+
+    private String[] titles = new String[1024];
+
+    private int[][] recipeIngredients = new int[1024][];
+
+    private int recipeCount;
+
+    /**
+     * Writes applied while the index is being loaded, replayed once the load is done so that a recipe read by the
+     * load before a write committed cannot overwrite it. Null when no load is running. Guarded by {@link #lock}.
+     */
+    private List<Runnable> writesDuringLoad;
+
+    public PantryMatchIndex(StoredRecipeReader storedRecipeReader) {
+        this.storedRecipeReader = storedRecipeReader;
+    }
+
+    /**
+     * Loads every recipe once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        lock.writeLock().lock();
+        try {
+            writesDuringLoad = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            storedRecipeReader.forEach(recipe -> {
+                int[] ingredients = distinctIds(recipe.ingredientIds());
+                lock.writeLock().lock();
+                try {
+                    put(recipe.recipeId(), recipe.title(), ingredients);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            });
+        } finally {
+            lock.writeLock().lock();
+            try {
+                writesDuringLoad.forEach(Runnable::run);
+                writesDuringLoad = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info("Indexed ingredients of {} recipes for pantry matching", ordinals.size());
+    }
+
+    /**
+     * Keeps the index in step with recipe writes once they are committed.
+     *
+     * @param  event  the recipe change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        if (event.deleted()) {
+            remove(event.recipeId());
+        } else {
+            update(event.recipeId(), event.title(), event.ingredientIds());
+        }
+    }
+
+    /**
+     * Reloads every recipe in the background after a bulk import, whose recipes were written without per-recipe
+     * change events.
+     *
+     * @param  event  the import
+     */
+    @Async
+    @EventListener
+    public void onRecipesImported(RecipesImportedEvent event) {
+        load();
+    }
+
+    /**
+     * Adds a recipe or replaces its ingredient set.
+     *
+     * @param  recipeId       the recipe id
+     * @param  title          the recipe title
+     * @param  ingredientIds  the ids of the recipe's ingredients
+     */
+    public void update(int recipeId, String title, Collection<Integer> ingredientIds) {
+        int[] ingredients = distinctIds(ingredientIds);
+
+        lock.writeLock().lock();
+        try {
+            put(recipeId, title, ingredients);
+            if (writesDuringLoad != null) {
+                writesDuringLoad.add(() -> put(recipeId, title, ingredients));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a recipe from the index.
+     *
+     * @param  recipeId  the recipe id
+     */
+    public void remove(int recipeId) {
+        lock.writeLock().lock();
+        try {
+            delete(recipeId);
+            if (writesDuringLoad != null) {
+                writesDuringLoad.add(() -> delete(recipeId));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the recipes that are missing at most {@code maxMissing} ingredients from the given pantry.
+     *
+     * @param  pantry      the ids of the ingredients in the pantry
+     * @param  maxMissing  the number of ingredients a recipe may need beyond the pantry
+     * @param  limit       the maximum number of recipes to return
+     * @return             the matching recipes, fewest missing ingredients first
+     */
+    public List<CookableRecipe> findCookable(Collection<Integer> pantry, int maxMissing, int limit) {
+        List<CookableRecipe> cookable = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            List<BitSet> counter = new ArrayList<>();
+            BitSet candidates = new BitSet();
+            for (Integer ingredient : pantry.stream().distinct().toList()) {
+                BitSet recipes = recipesByIngredient.get(ingredient);
+                if (recipes != null) {
+                    candidates.or(recipes);
+                    increment(counter, recipes);
+                }
+            }
+
+            for (int ordinal = candidates.nextSetBit(0); ordinal >= 0; ordinal = candidates.nextSetBit(ordinal + 1)) {
+                int covered = 0;
+                for (int digit = 0; digit < counter.size(); digit++) {
+                    if (counter.get(digit).get(ordinal)) {
+                        covered |= 1 << digit;
+                    }
+                }
+                int missing = recipeIngredients[ordinal].length - covered;
+                if (missing <= maxMissing) {
+                    cookable.add(new CookableRecipe(recipeIds[ordinal], titles[ordinal], missing));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return cookable.stream()
+                .sorted(Comparator.comparingInt(CookableRecipe::missingIngredients)
+                        .thenComparing(CookableRecipe::title, Comparator.nullsLast(Comparator.naturalOrder())))
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Adds one to the bit-sliced counter for every recipe in {@code recipes}, rippling carries through the digits.
+     */
+    private static void increment(List<BitSet> counter, BitSet recipes) {
+        BitSet carry = (BitSet) recipes.clone();
+        for (BitSet digit : counter) {
+            BitSet next = (BitSet) digit.clone();
+            next.and(carry);
+            digit.xor(carry);
+            carry = next;
+            if (carry.isEmpty()) {
+                return;
+            }
+        }
+        counter.add(carry);
+    }
+
+    private static int[] distinctIds(Collection<Integer> ingredientIds) {
+        return ingredientIds.stream()
+                .filter(Objects::nonNull)
+                .mapToInt(Integer::intValue)
+                .distinct()
+                .toArray();
+    }
+
+    private void put(int recipeId, String title, int[] ingredients) {
+        Integer ordinal = ordinals.get(recipeId);
+        if (ordinal == null) {
+            ordinal = recipeCount++;
+            if (ordinal == recipeIds.length) {
+                recipeIds = Arrays.copyOf(recipeIds, ordinal * 2);
+                titles = Arrays.copyOf(titles, ordinal * 2);
+                recipeIngredients = Arrays.copyOf(recipeIngredients, ordinal * 2);
+            }
+            ordinals.put(recipeId, ordinal);
+            recipeIds[ordinal] = recipeId;
+        } else {
+            clearBits(ordinal);
+        }
+
+        titles[ordinal] = title;
+        recipeIngredients[ordinal] = ingredients;
+        for (int ingredient : ingredients) {
+            recipesByIngredient.computeIfAbsent(ingredient, id -> new BitSet()).set(ordinal);
+        }
+    }
+
+    private void delete(int recipeId) {
+        Integer ordinal = ordinals.get(recipeId);
+        if (ordinal != null) {
+            clearBits(ordinal);
+            recipeIngredients[ordinal] = new int[0];
+        }
+    }
+
+    private void clearBits(int ordinal) {
+        for (int ingredient : recipeIngredients[ordinal]) {
+            BitSet recipes = recipesByIngredient.get(ingredient);
+            if (recipes != null) {
+                recipes.clear(ordinal);
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.ps.culinarycompanion.recipes;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming RFC 4180 CSV reader. Records are read one at a time so large datasets such as the food.com
+ * recipes.csv never have to be held in memory. Quoted fields may contain commas, escaped quotes and newlines.
+ */
+public class CsvReader implements Closeable {
+
+    private final Reader reader;
+
+    private final Map<String, Integer> header = new HashMap<>();
+
+    private final StringBuilder field = new StringBuilder();
+
+    private int peeked = -2;
+
+    /**
+     * Creates a reader and consumes the header record.
+     *
+     * @param  reader  the source to read from, should be buffered
+     * @throws IOException if the header cannot be read
+     */
+    public CsvReader(Reader reader) throws IOException {
+        this.reader = reader;
+        String[] columns = next();
+        if (columns != null) {
+            for (int i = 0; i < columns.length; i++) {
+                header.put(columns[i].trim(), i);
+            }
+        }
+    }
+
+    /**
+     * Returns the position of the named column in each record.
+     *
+     * @param  name  the column name from the header
+     * @return       the column index, or -1 if the header has no such column
+     */
+    public int column(String name) {
+        return header.getOrDefault(name, -1);
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return  the fields of the next record, or null at the end of the input
+     * @throws IOException if the input cannot be read
+     */
+    public String[] next() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>();
+        boolean quoted = false;
+        field.setLength(0);
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    break;
+                } else if (c == '"') {
+                    if (peek() == '"') {
+                        read();
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == -1) {
+                break;
+            } else if (c == '\r') {
+                if (peek() == '\n') {
+                    read();
+                }
+                break;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    /**
+     * Returns the named field of a record, or an empty string if the record or header lacks it.
+     *
+     * @param  record  a record returned by {@link #next()}
+     * @param  name    the column name
+     * @return         the field value
+     */
+    public String get(String[] record, String name) {
+        int column = column(name);
+        return column >= 0 && column < record.length ? record[column] : "";
+    }
+
+    private int read() throws IOException {
+        if (peeked != -2) {
+            int c = peeked;
+            peeked = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private int peek() throws IOException {
+        if (peeked == -2) {
+            peeked = reader.read();
+        }
+        return peeked;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
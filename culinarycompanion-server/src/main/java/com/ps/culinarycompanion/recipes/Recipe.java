@@ -6,14 +6,22 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import org.hibernate.annotations.CurrentTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
 
 @Entity(name = "recipe_details")
+@Table(indexes = {
+        @Index(name = "idx_recipe_last_modified", columnList = "last_modified_date, recipe_id"),
+        @Index(name = "idx_recipe_user_email", columnList = "user_email, recipe_id")
+})
 public class Recipe {
 
     @GeneratedValue
@@ -28,6 +36,7 @@ public class Recipe {
 
     private String instructions;
 
+    @Column(name = "user_email")
     private String userEmail;
 
     @OneToMany(mappedBy = "recipe", cascade = CascadeType.ALL, orphanRemoval = true)
@@ -36,9 +45,19 @@ public class Recipe {
     @CurrentTimestamp
     private LocalDate createdDate;
 
+    // Keyset pages by last modified date cannot step past a null, so every row carries one
     @UpdateTimestamp
+    @Column(name = "last_modified_date", nullable = false)
     private LocalDate lastModifiedDate;
 
+    @UpdateTimestamp
+    private Instant lastModifiedAt;
+
+    // Defaulted so that rows written before the column existed start at version 0
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
     public Recipe() {
 
     }
@@ -115,6 +134,18 @@ public class Recipe {
         this.lastModifiedDate = lastModifiedDate;
     }
 
+    public Instant getLastModifiedAt() {
+        return lastModifiedAt;
+    }
+
+    public void setLastModifiedAt(Instant lastModifiedAt) {
+        this.lastModifiedAt = lastModifiedAt;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
     @Override
     public String toString() {
         return "Recipe{" +
@@ -126,6 +157,8 @@ public class Recipe {
                 ", ingredients=" + ingredients +
                 ", createdDate=" + createdDate +
                 ", lastModifiedDate=" + lastModifiedDate +
+                ", lastModifiedAt=" + lastModifiedAt +
+                ", version=" + version +
                 '}';
     }
 }
@@ -0,0 +1,49 @@
+package com.ps.culinarycompanion.recipes;
+
+import com.ps.culinarycompanion.ingredients.Ingredient;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Published by {@link RecipeService} whenever a recipe or its ingredient list is written. Carries a detached
+ * snapshot of the recipe so listeners running after commit never touch lazy associations.
+ *
+ * @param recipeId         the id of the changed recipe
+ * @param deleted          true if the recipe was deleted, in which case the remaining fields are empty
+ * @param title            the recipe title
+ * @param description      the recipe description
+ * @param instructions     the recipe instructions
+ * @param ingredientIds    the ids of the recipe's ingredients
+ * @param ingredientNames  the names of the recipe's ingredients, parallel to {@code ingredientIds}
+ */
+public record RecipeChangedEvent(int recipeId, boolean deleted, String title, String description, String instructions,
+                                 List<Integer> ingredientIds, List<String> ingredientNames) {
+
+    /**
+     * Creates an event describing the current state of a saved recipe.
+     *
+     * @param  recipe  the saved recipe, with its ingredients loaded
+     * @return         the event
+     */
+    public static RecipeChangedEvent saved(Recipe recipe) {
+        List<Ingredient> ingredients = recipe.getIngredients() == null ? List.of() : recipe.getIngredients().stream()
+                .map(RecipeIngredient::getIngredient)
+                .filter(Objects::nonNull)
+                .toList();
+        return new RecipeChangedEvent(recipe.getRecipeId(), false, recipe.getTitle(),
+                Objects.toString(recipe.getDescription(), ""), Objects.toString(recipe.getInstructions(), ""),
+                ingredients.stream().map(Ingredient::getIngredientId).toList(),
+                ingredients.stream().map(Ingredient::getName).toList());
+    }
+
+    /**
+     * Creates an event describing a deleted recipe.
+     *
+     * @param  recipeId  the id of the deleted recipe
+     * @return           the event
+     */
+    public static RecipeChangedEvent deleted(int recipeId) {
+        return new RecipeChangedEvent(recipeId, true, "", "", "", List.of(), List.of());
+    }
+}
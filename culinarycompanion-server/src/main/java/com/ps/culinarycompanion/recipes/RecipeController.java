@@ -1,17 +1,24 @@
 package com.ps.culinarycompanion.recipes;
 
 import jakarta.validation.Valid;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Objects;
 
 @RestController
 public class RecipeController {
@@ -23,46 +30,96 @@ public class RecipeController {
     }
 
     /**
-     * Retrieves all recipes from the API.
+     * Retrieves one page of recipes from the API.
      *
-     * @return         	A ResponseEntity containing a list of Recipe objects and the HTTP status code OK.
+     * @param  sort       the column to order by, "id" or "lastModified"
+     * @param  direction  the direction to order in, "asc" or "desc"
+     * @param  size       the number of recipes per page, at most 100
+     * @param  cursor     the nextCursor of the previous page, omitted for the first page
+     * @param  request    the current request, used to answer If-None-Match
+     * @return            a ResponseEntity containing the page of recipes and the cursor of the next page, which is
+     *                    null on the last page, and the HTTP status code OK, or no body and the HTTP status code
+     *                    NOT_MODIFIED if the client's copy of the page is current
      */
     @GetMapping("/api/recipes")
-    public ResponseEntity<List<Recipe>> getAllRecipes() {
-        return new ResponseEntity<>(recipeService.getAllRecipes(), HttpStatus.OK);
+    public ResponseEntity<RecipePage> getAllRecipes(@RequestParam(defaultValue = "id") String sort,
+                                                    @RequestParam(defaultValue = "asc") String direction,
+                                                    @RequestParam(defaultValue = "20") int size,
+                                                    @RequestParam(required = false) String cursor,
+                                                    WebRequest request) {
+        RecipePage page = recipeService.getRecipePage(RecipeSort.of(sort, direction), size, cursor);
+        if (request.checkNotModified(etag(page))) {
+            return null;
+        }
+        return new ResponseEntity<>(page, HttpStatus.OK);
     }
 
     /**
      * Retrieves a specific recipe from the API based on the provided ID.
      *
      * @param  id    the unique identifier of the recipe to retrieve
-     * @return       a ResponseEntity containing the requested Recipe object and the HTTP status code OK
+     * @param  request  the current request, used to answer If-None-Match and If-Modified-Since
+     * @return       a ResponseEntity containing the requested recipe and its ingredients and the HTTP status code OK,
+     *               or no body and the HTTP status code NOT_MODIFIED if the client's copy is current
      */
     @GetMapping("/api/recipes/{id}")
-    public ResponseEntity<Recipe> getRecipe(@PathVariable int id) {
-        return new ResponseEntity<>(recipeService.getRecipe(id), HttpStatus.OK);
+    public ResponseEntity<RecipeView> getRecipe(@PathVariable int id, WebRequest request) {
+        RecipeView recipe = recipeService.getRecipeView(id);
+        if (request.checkNotModified(etag(recipe), lastModified(recipe.lastModifiedAt()))) {
+            return null;
+        }
+        return new ResponseEntity<>(recipe, HttpStatus.OK);
     }
 
     /**
-     * Retrieves recipes created by a specific user based on the provided email.
+     * Retrieves one page of the recipes created by a specific user based on the provided email.
      *
      * @param  email    the email of the user to retrieve recipes for
-     * @return          a ResponseEntity containing a list of Recipe objects created by the user and the HTTP status code OK
+     * @param  size     the number of recipes per page, at most 100
+     * @param  cursor   the nextCursor of the previous page, omitted for the first page
+     * @param  request  the current request, used to answer If-None-Match
+     * @return          a ResponseEntity containing the page of the user's recipes and the cursor of the next page,
+     *                  which is null on the last page, and the HTTP status code OK, or no body and the HTTP status
+     *                  code NOT_MODIFIED if the client's copy of the page is current
      */
     @GetMapping("/api/recipes/user/{email}")
-    public ResponseEntity<List<Recipe>> getUsersRecipes(@PathVariable String email) {
-        return new ResponseEntity<>(recipeService.getAllUserCreatedRecipes(email), HttpStatus.OK);
+    public ResponseEntity<RecipePage> getUsersRecipes(@PathVariable String email,
+                                                      @RequestParam(defaultValue = "20") int size,
+                                                      @RequestParam(required = false) String cursor,
+                                                      WebRequest request) {
+        RecipePage page = recipeService.getUserCreatedRecipes(email, size, cursor);
+        if (request.checkNotModified(etag(page))) {
+            return null;
+        }
+        return new ResponseEntity<>(page, HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves the number of recipes created by a specific user based on the provided email.
+     *
+     * @param  email    the email of the user to count recipes for
+     * @return          a ResponseEntity containing the number of recipes created by the user and the HTTP status code OK
+     */
+    @GetMapping("/api/recipes/user/{email}/count")
+    public ResponseEntity<Long> countUsersRecipes(@PathVariable String email) {
+        return new ResponseEntity<>(recipeService.countUserCreatedRecipes(email), HttpStatus.OK);
     }
 
     /**
      * Retrieves the list of ingredients for a specific recipe based on the provided ID.
      *
      * @param  id    the unique identifier of the recipe
-     * @return       a ResponseEntity containing the list of RecipeIngredient objects and the HTTP status code OK
+     * @param  request  the current request, used to answer If-None-Match and If-Modified-Since
+     * @return       a ResponseEntity containing the list of the recipe's ingredients and the HTTP status code OK, or
+     *               no body and the HTTP status code NOT_MODIFIED if the client's copy is current
      */
     @GetMapping("/api/recipes/{id}/ingredients")
-    public ResponseEntity<List<RecipeIngredient>> getIngredients(@PathVariable int id) {
-        return new ResponseEntity<>(recipeService.getRecipeIngredients(id), HttpStatus.OK);
+    public ResponseEntity<List<RecipeIngredientView>> getIngredients(@PathVariable int id, WebRequest request) {
+        RecipeView recipe = recipeService.getRecipeView(id);
+        if (request.checkNotModified(etag(recipe), lastModified(recipe.lastModifiedAt()))) {
+            return null;
+        }
+        return new ResponseEntity<>(recipe.ingredients(), HttpStatus.OK);
     }
 
     /**
@@ -95,13 +152,13 @@ public class RecipeController {
      *
      * @param  ingredients  the list of recipe ingredients to update
      * @param  id           the ID of the recipe to update
-     * @return              a ResponseEntity with no content and the HTTP status code OK
+     * @return              a ResponseEntity containing the resulting ingredients of the recipe and the HTTP status
+     *                      code OK
      */
     @PutMapping("/api/recipes/{id}/ingredients")
-    public ResponseEntity<?> updateIngredients(@Valid @RequestBody List<RecipeIngredient> ingredients,
-                                               @PathVariable Integer id) {
-        recipeService.updateIngredients(ingredients, id);
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<List<RecipeIngredientView>> updateIngredients(
+            @Valid @RequestBody List<RecipeIngredient> ingredients, @PathVariable Integer id) {
+        return new ResponseEntity<>(recipeService.updateIngredients(ingredients, id), HttpStatus.OK);
     }
 
     /**
@@ -139,4 +196,40 @@ public class RecipeController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Answers a write that lost a race with a concurrent write to the same recipe, detected through the recipe's
+     * version, so the client can re-read the recipe and retry rather than seeing a server error.
+     *
+     * @return  a ResponseEntity with the HTTP status code CONFLICT
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ProblemDetail> concurrentWrite() {
+        return ResponseEntity.of(ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT,
+                "The recipe was changed by another request, reload it and try again")).build();
+    }
+
+    /**
+     * Weak entity tag of a recipe, derived from its version so that any write to the recipe or its ingredients
+     * changes it. Weak because the order of the ingredient lines in the body is not fixed.
+     */
+    private static String etag(RecipeView recipe) {
+        return "W/\"" + recipe.recipeId() + "-" + recipe.version() + "\"";
+    }
+
+    /**
+     * Weak entity tag of a page, aggregating the id and version of every recipe on it along with the next cursor,
+     * so that it changes when any of its recipes is written or when recipes enter or leave the page. Pages carry
+     * no Last-Modified, since a recipe leaving the page does not make the page any newer.
+     */
+    private static String etag(RecipePage page) {
+        long hash = Objects.hashCode(page.nextCursor());
+        for (RecipeView recipe : page.items()) {
+            hash = 31 * (31 * hash + recipe.recipeId()) + recipe.version();
+        }
+        return "W/\"" + page.items().size() + "-" + Long.toHexString(hash) + "\"";
+    }
+
+    private static long lastModified(Instant lastModifiedAt) {
+        return lastModifiedAt == null ? -1 : lastModifiedAt.toEpochMilli();
+    }
 }
@@ -0,0 +1,62 @@
+package com.ps.culinarycompanion.recipes;
+
+import com.ps.culinarycompanion.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+/**
+ * Position of the last recipe of a page in a {@link RecipeSort} order. Clients receive it as an opaque URL-safe
+ * string and pass it back to get the following page, which is found with an index range scan rather than an offset.
+ *
+ * @param sort              the order the cursor belongs to
+ * @param lastModifiedDate  the last modified date of the last recipe, null for the id orders
+ * @param recipeId          the id of the last recipe
+ */
+public record RecipeCursor(RecipeSort sort, LocalDate lastModifiedDate, int recipeId) {
+
+    /**
+     * Creates the cursor pointing after the given recipe.
+     *
+     * @param  sort    the order of the listing
+     * @param  recipe  the last recipe of the page
+     * @return         the cursor
+     */
+    public static RecipeCursor after(RecipeSort sort, Recipe recipe) {
+        boolean byDate = sort == RecipeSort.LAST_MODIFIED_ASC || sort == RecipeSort.LAST_MODIFIED_DESC;
+        return new RecipeCursor(sort, byDate ? recipe.getLastModifiedDate() : null, recipe.getRecipeId());
+    }
+
+    /**
+     * Decodes a cursor received from a client.
+     *
+     * @param  encoded  the cursor string
+     * @param  sort     the order requested with it
+     * @return          the cursor
+     * @throws BadRequestException if the string is not a cursor or belongs to another order
+     */
+    public static RecipeCursor decode(String encoded, RecipeSort sort) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8).split(":", -1);
+            if (parts.length == 3 && RecipeSort.valueOf(parts[0]) == sort) {
+                return new RecipeCursor(sort, parts[1].isEmpty() ? null : LocalDate.parse(parts[1]),
+                        Integer.parseInt(parts[2]));
+            }
+        } catch (RuntimeException ex) {
+            // Fall through to the same error as a cursor of another order
+        }
+        throw new BadRequestException("Invalid cursor for this sort order");
+    }
+
+    /**
+     * Encodes the cursor for a client.
+     *
+     * @return  the opaque cursor string
+     */
+    public String encode() {
+        String value = sort + ":" + (lastModifiedDate == null ? "" : lastModifiedDate) + ":" + recipeId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
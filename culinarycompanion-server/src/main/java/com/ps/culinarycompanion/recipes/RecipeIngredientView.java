@@ -0,0 +1,41 @@
+package com.ps.culinarycompanion.recipes;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Read-only projection of one ingredient line of a recipe, selected directly as columns so no ingredient
+ * or {@link RecipeIngredient} entity is loaded or tracked. It serializes with the same nested
+ * {@code ingredient.name} shape as the entity.
+ *
+ * @param recipeId    the recipe the line belongs to, used to group lines and not serialized
+ * @param ingredient  the ingredient id and name
+ * @param quantity    the quantity of the ingredient
+ * @param unit        the unit of the quantity
+ */
+public record RecipeIngredientView(@JsonIgnore Integer recipeId, IngredientName ingredient, Long quantity,
+                                   CookingUnit unit) {
+
+    /**
+     * Flat constructor used by the JPQL constructor expression.
+     */
+    public RecipeIngredientView(Integer recipeId, Integer ingredientId, String name, Long quantity,
+                                CookingUnit unit) {
+        this(recipeId, new IngredientName(ingredientId, name), quantity, unit);
+    }
+
+    static RecipeIngredientView of(RecipeIngredient recipeIngredient) {
+        return new RecipeIngredientView(recipeIngredient.getRecipeIngredientId().getRecipeId(),
+                recipeIngredient.getIngredient().getIngredientId(), recipeIngredient.getIngredient().getName(),
+                recipeIngredient.getQuantity(), recipeIngredient.getUnit());
+    }
+
+    /**
+     * The ingredient of a line.
+     *
+     * @param ingredientId  the ingredient id
+     * @param name          the ingredient name
+     */
+    public record IngredientName(Integer ingredientId, String name) {
+
+    }
+}
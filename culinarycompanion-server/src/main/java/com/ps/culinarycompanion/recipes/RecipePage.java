@@ -0,0 +1,12 @@
+package com.ps.culinarycompanion.recipes;
+
+import java.util.List;
+
+/**
+ * One page of a recipe listing.
+ *
+ * @param items       the recipes of the page
+ * @param nextCursor  the cursor of the following page, or null if this is the last page
+ */
+public record RecipePage(List<RecipeView> items, String nextCursor) {
+}
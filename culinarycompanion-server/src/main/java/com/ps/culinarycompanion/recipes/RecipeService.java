@@ -1,48 +1,146 @@
 package com.ps.culinarycompanion.recipes;
 
+import com.ps.culinarycompanion.cache.BoundedCache;
+import com.ps.culinarycompanion.cache.CacheMetrics;
 import com.ps.culinarycompanion.dao.RecipeRepository;
 import com.ps.culinarycompanion.exception.NotFoundException;
 import com.ps.culinarycompanion.ingredients.Ingredient;
 import com.ps.culinarycompanion.ingredients.IngredientService;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 public class RecipeService {
 
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final RecipeRepository recipeRepository;
 
     private final IngredientService ingredientService;
 
-    public RecipeService(RecipeRepository recipeRepository, IngredientService ingredientService) {
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final BoundedCache<Integer, RecipeView> recipeCache;
+
+    public RecipeService(RecipeRepository recipeRepository, IngredientService ingredientService,
+                         ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry,
+                         @Value("${recipe.cache.max-entries:10000}") int cacheMaxEntries,
+                         @Value("${recipe.cache.max-weight:64MB}") DataSize cacheMaxWeight,
+                         @Value("${recipe.cache.ttl:10m}") Duration cacheTtl) {
         this.recipeRepository = recipeRepository;
         this.ingredientService = ingredientService;
+        this.eventPublisher = eventPublisher;
+        this.recipeCache = new BoundedCache<>(cacheMaxEntries, cacheMaxWeight.toBytes(), cacheTtl,
+                RecipeService::weigh);
+        CacheMetrics.register(meterRegistry, "recipes", recipeCache);
     }
 
     /**
-     * Retrieves all the recipes from the recipe repository.
+     * Retrieves one page of recipes in the given order. Pages are located with keyset conditions on the sort
+     * columns, so deep pages cost the same as the first one and concurrent inserts never shift a page.
      *
-     * @return  a list of Recipe objects representing all the recipes in the repository
+     * @param  sort    the order of the listing
+     * @param  size    the number of recipes per page, capped at {@link #MAX_PAGE_SIZE}
+     * @param  cursor  the cursor returned with the previous page, or null for the first page
+     * @return         the page of recipes and the cursor of the following page
      */
-    public List<Recipe> getAllRecipes() {
-        return recipeRepository.findAll();
+    public RecipePage getRecipePage(RecipeSort sort, int size, String cursor) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        // One extra row tells whether another page follows without a count query
+        Limit limit = Limit.of(pageSize + 1);
+        RecipeCursor after = cursor == null || cursor.isBlank() ? null : RecipeCursor.decode(cursor, sort);
+
+        List<Recipe> recipes = switch (sort) {
+            case ID_ASC -> after == null ? recipeRepository.findAllByOrderByRecipeIdAsc(limit)
+                    : recipeRepository.findByRecipeIdGreaterThanOrderByRecipeIdAsc(after.recipeId(), limit);
+            case ID_DESC -> after == null ? recipeRepository.findAllByOrderByRecipeIdDesc(limit)
+                    : recipeRepository.findByRecipeIdLessThanOrderByRecipeIdDesc(after.recipeId(), limit);
+            case LAST_MODIFIED_ASC -> after == null
+                    ? recipeRepository.findAllByOrderByLastModifiedDateAscRecipeIdAsc(limit)
+                    : recipeRepository.findAfterByLastModifiedAsc(after.lastModifiedDate(), after.recipeId(), limit);
+            case LAST_MODIFIED_DESC -> after == null
+                    ? recipeRepository.findAllByOrderByLastModifiedDateDescRecipeIdDesc(limit)
+                    : recipeRepository.findAfterByLastModifiedDesc(after.lastModifiedDate(), after.recipeId(), limit);
+        };
+
+        return page(sort, recipes, pageSize);
+    }
+
+    private RecipePage page(RecipeSort sort, List<Recipe> recipes, int pageSize) {
+        if (recipes.size() <= pageSize) {
+            return new RecipePage(toViews(recipes), null);
+        }
+        List<Recipe> page = recipes.subList(0, pageSize);
+        return new RecipePage(toViews(page), RecipeCursor.after(sort, page.get(pageSize - 1)).encode());
     }
 
     /**
-     * Retrieves all the recipes created by the user with the specified email.
+     * Attaches the ingredient lines to a page of recipes with a single projection query, instead of letting
+     * serialization initialize each recipe's collection and then each line's ingredient.
+     */
+    private List<RecipeView> toViews(List<Recipe> recipes) {
+        if (recipes.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, List<RecipeIngredientView>> lines = new HashMap<>();
+        for (Recipe recipe : recipes) {
+            lines.put(recipe.getRecipeId(), new ArrayList<>());
+        }
+        for (RecipeIngredientView line : recipeRepository.findIngredientViews(lines.keySet())) {
+            lines.get(line.recipeId()).add(line);
+        }
+        List<RecipeView> views = new ArrayList<>(recipes.size());
+        for (Recipe recipe : recipes) {
+            views.add(RecipeView.of(recipe, lines.get(recipe.getRecipeId())));
+        }
+        return views;
+    }
+
+    /**
+     * Retrieves one page of the recipes created by the user with the specified email, in creation order.
+     *
+     * @param  email   the email of the user
+     * @param  size    the number of recipes per page, capped at {@link #MAX_PAGE_SIZE}
+     * @param  cursor  the cursor returned with the previous page, or null for the first page
+     * @return         the page of the user's recipes and the cursor of the following page
+     */
+    public RecipePage getUserCreatedRecipes(String email, int size, String cursor) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        Limit limit = Limit.of(pageSize + 1);
+        List<Recipe> recipes = cursor == null || cursor.isBlank()
+                ? recipeRepository.findByUserEmailOrderByRecipeIdAsc(email, limit)
+                : recipeRepository.findByUserEmailAndRecipeIdGreaterThanOrderByRecipeIdAsc(email,
+                        RecipeCursor.decode(cursor, RecipeSort.ID_ASC).recipeId(), limit);
+        return page(RecipeSort.ID_ASC, recipes, pageSize);
+    }
+
+    /**
+     * Counts the recipes created by the user with the specified email.
      *
      * @param  email  the email of the user
-     * @return        a list of Recipe objects representing all the recipes created by the user
+     * @return        the number of recipes the user created
      */
-    public List<Recipe> getAllUserCreatedRecipes(String email) {
-        return recipeRepository.findAll().stream()
-                .filter(recipe -> recipe.getUserEmail().equals(email))
-                .toList();
+    public long countUserCreatedRecipes(String email) {
+        return recipeRepository.countByUserEmail(email);
     }
 
     /**
@@ -62,19 +160,30 @@ public class RecipeService {
     }
 
     /**
-     * Retrieves the ingredients of a recipe by its ID.
+     * Retrieves the read-only view of a recipe by its ID. Views are served from a read-through cache; on a miss the
+     * recipe, its ingredient lines and their ingredients are loaded in a single query.
      *
-     * @param  id  the ID of the recipe to retrieve the ingredients from
-     * @return     a list of RecipeIngredient objects representing the ingredients of the recipe
+     * @param  id  the ID of the recipe to retrieve
+     * @return     the view of the recipe and its ingredients
      */
-    public List<RecipeIngredient> getRecipeIngredients(int id) {
-        Optional<Recipe> recipe = recipeRepository.findById(id);
+    public RecipeView getRecipeView(int id) {
+        return recipeCache.get(id, recipeId -> {
+            Recipe recipe = recipeRepository.findWithIngredientsByRecipeId(recipeId)
+                    .orElseThrow(() -> new NotFoundException("Recipe id:"+recipeId));
 
-        if (recipe.isEmpty()) {
-            throw new NotFoundException("Recipe id:"+id);
-        }
+            return RecipeView.of(recipe, recipe.getIngredients().stream().map(RecipeIngredientView::of).toList());
+        });
+    }
 
-        return recipe.get().getIngredients();
+    /**
+     * Drops the cached view of a recipe once a write to it has committed. Writes also drop it as they happen, but a
+     * read between that and the commit may have cached the previous state again.
+     *
+     * @param  event  the recipe change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        recipeCache.invalidate(event.recipeId());
     }
 
     /**
@@ -86,13 +195,36 @@ public class RecipeService {
      */
     @Transactional
     public Recipe addIngredients(List<RecipeIngredient> recipeIngredients, Integer recipeId) {
-        Recipe recipe = recipeRepository.findById(recipeId)
+        Recipe recipe = recipeRepository.findWithIngredientsByRecipeId(recipeId)
                 .orElseThrow(() -> new NotFoundException("Recipe not found"));
 
-        recipeIngredients.forEach(recipeIngredient -> {
-            addIngredient(recipeIngredient, recipeId);
-        });
+        Map<String, Ingredient> ingredients = ingredientService.getOrCreateIngredients(recipeIngredients.stream()
+                .map(recipeIngredient -> recipeIngredient.getIngredient().getName())
+                .toList());
 
+        Map<Integer, RecipeIngredient> lines = new HashMap<>();
+        for (RecipeIngredient line : recipe.getIngredients()) {
+            lines.put(line.getRecipeIngredientId().getIngredientId(), line);
+        }
+        for (RecipeIngredient recipeIngredient : recipeIngredients) {
+            Ingredient ingredient = ingredients.get(recipeIngredient.getIngredient().getName());
+            RecipeIngredient line = lines.get(ingredient.getIngredientId());
+            if (line == null) {
+                line = new RecipeIngredient(new RecipeIngredientId(recipeId, ingredient.getIngredientId()), recipe,
+                        ingredient, recipeIngredient.getQuantity(), recipeIngredient.getUnit());
+                recipe.getIngredients().add(line);
+                lines.put(ingredient.getIngredientId(), line);
+            } else {
+                line.setQuantity(recipeIngredient.getQuantity());
+                line.setUnit(recipeIngredient.getUnit());
+            }
+        }
+
+        // The recipe is managed, so a single flush cascades every new line; no save() merge, which would select
+        // each line with an assigned id before inserting it
+        touch(recipe);
+        recipeRepository.flush();
+        publish(RecipeChangedEvent.saved(recipe));
         return recipe;
     }
 
@@ -110,13 +242,7 @@ public class RecipeService {
 
         String ingredientName = recipeIngredient.getIngredient().getName();
 
-        Ingredient ingredient;
-
-        try {
-            ingredient = ingredientService.getIngredientByName(ingredientName);
-        } catch (Exception ex) {
-            ingredient = ingredientService.createIngredient(new Ingredient(ingredientName));
-        }
+        Ingredient ingredient = ingredientService.getOrCreateIngredient(ingredientName);
 
         RecipeIngredient addRecipeIngredient = new RecipeIngredient();
 
@@ -129,59 +255,106 @@ public class RecipeService {
                 recipeIngredient.getIngredient().getIngredientId()));
 
         recipe.getIngredients().add(addRecipeIngredient);
-        return recipeRepository.save(recipe);
+        touch(recipe);
+        Recipe saved = recipeRepository.save(recipe);
+        publish(RecipeChangedEvent.saved(saved));
+        return saved;
     }
 
     /**
-     * Updates the ingredients of a recipe.
+     * Replaces the ingredients of a recipe with the given list. The current and requested lines are diffed by
+     * ingredient id in one pass over each: lines only in the request are added, lines in both get the requested
+     * quantity and unit, and the rest are removed. Ingredient names are resolved with a single query, and all the
+     * resulting inserts, updates and deletes go out in one flush.
      *
      * @param  ingredients  the list of RecipeIngredient objects representing the new ingredients
      * @param  recipeId     the ID of the recipe to update the ingredients for
+     * @return              the resulting ingredients of the recipe
      * @throws NotFoundException  if the recipe with the given ID is not found
      */
     @Transactional
-    public void updateIngredients(List<RecipeIngredient> ingredients, Integer recipeId) {
-        Recipe recipe = recipeRepository.findById(recipeId)
+    public List<RecipeIngredientView> updateIngredients(List<RecipeIngredient> ingredients, Integer recipeId) {
+        Recipe recipe = recipeRepository.findWithIngredientsByRecipeId(recipeId)
                 .orElseThrow(() -> new NotFoundException("Recipe not found"));
 
-        List<RecipeIngredient> currIngredients = recipe.getIngredients();
-        List<RecipeIngredient> remove = new ArrayList<>();
-
-        currIngredients.forEach(ing -> {
-            boolean found = false;
-            for (RecipeIngredient ingredient : ingredients) {
-                if (ing.getIngredient().getName().equals(ingredient.getIngredient().getName())) {
-                    found = true;
-                    ing.setQuantity(ingredient.getQuantity());
-                    ing.setUnit(ingredient.getUnit());
-                    ing.getIngredient().setName(ingredient.getIngredient().getName());
-                    break;
-                }
-            }
-            if (!found) {
-                remove.add(ing);
+        Map<String, Ingredient> byName = ingredientService.getOrCreateIngredients(ingredients.stream()
+                .map(recipeIngredient -> recipeIngredient.getIngredient().getName())
+                .toList());
+        // A name repeated in the request keeps its last quantity and unit
+        Map<Integer, RecipeIngredient> requested = new LinkedHashMap<>();
+        for (RecipeIngredient recipeIngredient : ingredients) {
+            requested.put(byName.get(recipeIngredient.getIngredient().getName()).getIngredientId(), recipeIngredient);
+        }
+
+        Iterator<RecipeIngredient> current = recipe.getIngredients().iterator();
+        while (current.hasNext()) {
+            RecipeIngredient line = current.next();
+            RecipeIngredient update = requested.remove(line.getRecipeIngredientId().getIngredientId());
+            if (update == null) {
+                current.remove();
+            } else {
+                // Dirty checking only issues an UPDATE for lines whose values actually changed
+                line.setQuantity(update.getQuantity());
+                line.setUnit(update.getUnit());
             }
-        });
+        }
+        for (Map.Entry<Integer, RecipeIngredient> added : requested.entrySet()) {
+            RecipeIngredient recipeIngredient = added.getValue();
+            recipe.getIngredients().add(new RecipeIngredient(new RecipeIngredientId(recipeId, added.getKey()), recipe,
+                    byName.get(recipeIngredient.getIngredient().getName()), recipeIngredient.getQuantity(),
+                    recipeIngredient.getUnit()));
+        }
+
+        touch(recipe);
+        recipeRepository.flush();
+        publish(RecipeChangedEvent.saved(recipe));
+        return recipe.getIngredients().stream().map(RecipeIngredientView::of).toList();
+    }
+
+    /**
+     * Drops the cached view of the written recipe, then publishes the change for the listeners that run after
+     * commit.
+     */
+    private void publish(RecipeChangedEvent event) {
+        recipeCache.invalidate(event.recipeId());
+        eventPublisher.publishEvent(event);
+    }
 
-        if (!remove.isEmpty()) {
-            remove.forEach(currIngredients::remove);
+    /**
+     * Approximate heap footprint of a cached view in bytes, counting two bytes per character and a fixed overhead
+     * per object.
+     */
+    private static long weigh(RecipeView recipe) {
+        long weight = 256 + 2L * (length(recipe.title()) + length(recipe.description())
+                + length(recipe.instructions()) + length(recipe.userEmail()));
+        for (RecipeIngredientView line : recipe.ingredients()) {
+            weight += 96 + 2L * length(line.ingredient().name());
         }
+        return weight;
+    }
 
-        recipe.setIngredients(currIngredients);
-        recipeRepository.save(recipe);
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
 
-        ingredients.forEach(ing -> {
-            boolean found = false;
-            for (RecipeIngredient recipeIngredient: currIngredients) {
-                if (recipeIngredient.getIngredient().getName().equals(ing.getIngredient().getName())) {
-                    found = true;
-                    break;
-                }
-            }
-            if (!found) {
-                addIngredient(ing, recipeId);
-            }
-        });
+    /**
+     * Marks a recipe as modified by a write to its ingredients. The lines are the inverse side of the association,
+     * so otherwise the recipe row stays clean and neither its version nor its timestamps change.
+     */
+    private static void touch(Recipe recipe) {
+        recipe.setLastModifiedAt(Instant.now());
+    }
+
+    /**
+     * Gives every recipe without a last modified date its creation date, so that keyset pages in the last modified
+     * orders never meet a null, which no cursor condition can step past.
+     *
+     * @return  the number of recipes backfilled
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public int backfillLastModifiedDates() {
+        return recipeRepository.backfillLastModifiedDates();
     }
 
     /**
@@ -191,7 +364,10 @@ public class RecipeService {
      * @return         the created recipe
      */
     public Recipe createRecipe(Recipe recipe) {
-        return recipeRepository.save(recipe);
+        recipe.setLastModifiedDate(LocalDate.now());
+        Recipe saved = recipeRepository.save(recipe);
+        publish(RecipeChangedEvent.saved(saved));
+        return saved;
     }
 
     /**
@@ -212,6 +388,7 @@ public class RecipeService {
         existingRecipe.setTitle(recipe.getTitle());
 
         recipeRepository.save(existingRecipe);
+        publish(RecipeChangedEvent.saved(existingRecipe));
         return existingRecipe;
     }
 
@@ -223,6 +400,7 @@ public class RecipeService {
      */
     public void deleteRecipe(int id) {
         recipeRepository.deleteById(id);
+        publish(RecipeChangedEvent.deleted(id));
     }
 
 }
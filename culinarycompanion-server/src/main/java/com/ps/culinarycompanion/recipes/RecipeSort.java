@@ -0,0 +1,35 @@
+package com.ps.culinarycompanion.recipes;
+
+import com.ps.culinarycompanion.exception.BadRequestException;
+
+import java.util.Locale;
+
+/**
+ * The orders recipes can be listed in. Every order ends with recipe_id so the position of a recipe in the listing,
+ * and therefore a keyset cursor, is unambiguous.
+ */
+public enum RecipeSort {
+
+    ID_ASC, ID_DESC, LAST_MODIFIED_ASC, LAST_MODIFIED_DESC;
+
+    /**
+     * Parses the sort and direction request parameters.
+     *
+     * @param  sort       "id" or "lastModified"
+     * @param  direction  "asc" or "desc"
+     * @return            the order
+     * @throws BadRequestException if either parameter is not recognised
+     */
+    public static RecipeSort of(String sort, String direction) {
+        boolean descending = switch (direction.toLowerCase(Locale.ROOT)) {
+            case "asc" -> false;
+            case "desc" -> true;
+            default -> throw new BadRequestException("Unknown direction: " + direction);
+        };
+        return switch (sort) {
+            case "id" -> descending ? ID_DESC : ID_ASC;
+            case "lastModified" -> descending ? LAST_MODIFIED_DESC : LAST_MODIFIED_ASC;
+            default -> throw new BadRequestException("Unknown sort: " + sort);
+        };
+    }
+}
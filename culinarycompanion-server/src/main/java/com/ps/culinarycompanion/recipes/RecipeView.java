@@ -0,0 +1,38 @@
+package com.ps.culinarycompanion.recipes;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Read-only projection of a recipe and its ingredient lines returned by the read endpoints. It is assembled from
+ * already loaded rows, so serializing it never triggers lazy loading.
+ *
+ * @param recipeId          the recipe id
+ * @param title             the title
+ * @param description       the description
+ * @param instructions      the instructions
+ * @param userEmail         the email of the user who created the recipe
+ * @param ingredients       the ingredient lines
+ * @param createdDate       the creation date
+ * @param lastModifiedDate  the date of the last modification
+ * @param lastModifiedAt    the instant of the last modification, null for recipes not written since it was added
+ * @param version           the version of the recipe, incremented by every write to it or its ingredients
+ */
+public record RecipeView(Integer recipeId, String title, String description, String instructions, String userEmail,
+                         List<RecipeIngredientView> ingredients, LocalDate createdDate, LocalDate lastModifiedDate,
+                         Instant lastModifiedAt, long version) {
+
+    /**
+     * Creates the view of a recipe from its scalar columns and separately loaded ingredient lines.
+     *
+     * @param  recipe       the recipe, whose ingredients collection is not touched
+     * @param  ingredients  the ingredient lines of the recipe
+     * @return              the view
+     */
+    static RecipeView of(Recipe recipe, List<RecipeIngredientView> ingredients) {
+        return new RecipeView(recipe.getRecipeId(), recipe.getTitle(), recipe.getDescription(),
+                recipe.getInstructions(), recipe.getUserEmail(), ingredients, recipe.getCreatedDate(),
+                recipe.getLastModifiedDate(), recipe.getLastModifiedAt(), recipe.getVersion());
+    }
+}
@@ -0,0 +1,11 @@
+package com.ps.culinarycompanion.recipes;
+
+/**
+ * Published after a bulk import has committed recipes directly over JDBC. No {@link RecipeChangedEvent} is
+ * published for imported recipes, so listeners holding recipe state should reload it.
+ *
+ * @param source   the name of the imported source
+ * @param recipes  the number of recipes imported
+ */
+public record RecipesImportedEvent(String source, long recipes) {
+}
@@ -0,0 +1,17 @@
+package com.ps.culinarycompanion.recipes;
+
+import java.util.List;
+
+/**
+ * A recipe as read straight from the database by {@link StoredRecipeReader}, without entities.
+ *
+ * @param recipeId         the recipe id
+ * @param title            the recipe title
+ * @param description      the recipe description
+ * @param instructions     the recipe instructions
+ * @param ingredientIds    the ids of the recipe's ingredients
+ * @param ingredientNames  the names of the recipe's ingredients, parallel to {@code ingredientIds}
+ */
+public record StoredRecipe(int recipeId, String title, String description, String instructions,
+                           List<Integer> ingredientIds, List<String> ingredientNames) {
+}
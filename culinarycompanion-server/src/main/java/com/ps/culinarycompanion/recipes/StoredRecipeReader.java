@@ -0,0 +1,156 @@
+package com.ps.culinarycompanion.recipes;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Streams every stored recipe with its ingredients over JDBC, for the in-memory indexes that are loaded from the
+ * whole corpus. Rows are fetched through a cursor in a read-only transaction and handed over one recipe at a time,
+ * so a load never holds the corpus as entities or as one result set.
+ */
+@Component
+public class StoredRecipeReader {
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String RECIPES_WITH_INGREDIENTS = """
+            select r.recipe_id, r.title, r.description, r.instructions, i.ingredient_id, i.name
+            from recipe_details r
+            left join recipe_ingredients ri on ri.recipe_id = r.recipe_id
+            left join ingredient_details i on i.ingredient_id = ri.ingredient_id
+            """;
+
+    private static final String ALL_RECIPES = RECIPES_WITH_INGREDIENTS + "order by r.recipe_id";
+
+    private static final String RECIPES_MODIFIED_SINCE = RECIPES_WITH_INGREDIENTS
+            + "where r.last_modified_at > ? order by r.recipe_id";
+
+    private static final String RECIPE_IDS = "select recipe_id from recipe_details";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public StoredRecipeReader(DataSource dataSource, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        // PostgreSQL only honours the fetch size, rather than buffering the whole result, inside a transaction
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Hands every stored recipe to a consumer, in recipe id order.
+     *
+     * @param  consumer  receives each recipe
+     * @return           the number of recipes read
+     */
+    public int forEach(Consumer<StoredRecipe> consumer) {
+        return read(consumer, ALL_RECIPES);
+    }
+
+    /**
+     * Hands every stored recipe last modified after the given instant to a consumer, in recipe id order. Recipes
+     * without a last modified instant, last written before it was recorded, are not read.
+     *
+     * @param  since     the instant the recipes were modified after
+     * @param  consumer  receives each recipe
+     * @return           the number of recipes read
+     */
+    public int forEachModifiedSince(Instant since, Consumer<StoredRecipe> consumer) {
+        return read(consumer, RECIPES_MODIFIED_SINCE, Timestamp.from(since));
+    }
+
+    /**
+     * Reads the id of every stored recipe.
+     *
+     * @return  the recipe ids
+     */
+    public Set<Integer> recipeIds() {
+        return transactionTemplate.execute(status -> {
+            Set<Integer> ids = new HashSet<>();
+            jdbcTemplate.query(RECIPE_IDS, rs -> {
+                ids.add(rs.getInt(1));
+            });
+            return ids;
+        });
+    }
+
+    private int read(Consumer<StoredRecipe> consumer, String sql, Object... args) {
+        return transactionTemplate.execute(status -> {
+            Group group = new Group(consumer);
+            jdbcTemplate.query(sql, rs -> {
+                int recipeId = rs.getInt(1);
+                if (group.recipes == 0 || recipeId != group.recipeId) {
+                    group.emit();
+                    group.start(recipeId, rs.getString(2), rs.getString(3), rs.getString(4));
+                }
+                String name = rs.getString(6);
+                if (name != null) {
+                    group.ingredientIds.add(rs.getInt(5));
+                    group.ingredientNames.add(name);
+                }
+            }, args);
+            group.emit();
+            return group.recipes;
+        });
+    }
+
+    /**
+     * The recipe whose rows are being read.
+     */
+    private static final class Group {
+
+        private final Consumer<StoredRecipe> consumer;
+
+        private int recipes;
+
+        private boolean pending;
+
+        private int recipeId;
+
+        private String title;
+
+        private String description;
+
+        private String instructions;
+
+        private List<Integer> ingredientIds;
+
+        private List<String> ingredientNames;
+
+        Group(Consumer<StoredRecipe> consumer) {
+            this.consumer = consumer;
+        }
+
+        void start(int recipeId, String title, String description, String instructions) {
+            this.recipeId = recipeId;
+            this.title = title;
+            this.description = description;
+            this.instructions = instructions;
+            this.ingredientIds = new ArrayList<>();
+            this.ingredientNames = new ArrayList<>();
+            pending = true;
+            recipes++;
+        }
+
+        void emit() {
+            if (pending) {
+                consumer.accept(new StoredRecipe(recipeId, title, description, instructions,
+                        List.copyOf(ingredientIds), List.copyOf(ingredientNames)));
+                pending = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.ps.culinarycompanion.recommendation;
+
+import java.util.List;
+
+/**
+ * One pantry of a batch recommendation request.
+ *
+ * @param userId       an id chosen by the caller, echoed back with the pantry's recommendations
+ * @param ingredients  the ingredients to use for recommendations
+ */
+public record BatchRecommendationRequest(String userId, List<String> ingredients) {
+
+}
@@ -0,0 +1,17 @@
+package com.ps.culinarycompanion.recommendation;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * The recommendations for one pantry of a batch request, streamed as one NDJSON line.
+ *
+ * @param userId           the id given in the request
+ * @param recommendations  the recommended recipes, most similar first, or null if they could not be computed
+ * @param error            why the recommendations could not be computed, or null
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchRecommendationResult(String userId, List<RecipeRecommendation> recommendations, String error) {
+
+}
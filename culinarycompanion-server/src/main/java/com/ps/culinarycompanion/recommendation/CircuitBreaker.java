@@ -0,0 +1,136 @@
+package com.ps.culinarycompanion.recommendation;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker guarding calls to an upstream service.
+ * <p>
+ * The outcomes of the last {@code windowSize} calls are kept in a ring buffer. Once at least {@code minimumCalls}
+ * have been recorded and the failure rate reaches the threshold, the breaker opens and rejects calls immediately.
+ * After {@code openDuration} it lets a single probe call through: success closes the breaker with an empty window,
+ * failure opens it again.
+ */
+final class CircuitBreaker {
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int minimumCalls;
+
+    private final double failureRateThreshold;
+
+    private final long openNanos;
+
+    private final LongSupplier nanoTime;
+
+    private final boolean[] failed;
+
+    private int recorded;
+
+    private int next;
+
+    private int failures;
+
+    private State state = State.CLOSED;
+
+    private long openedAt;
+
+    private boolean probeInFlight;
+
+    CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, Duration openDuration) {
+        this(windowSize, minimumCalls, failureRateThreshold, openDuration, System::nanoTime);
+    }
+
+    CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, Duration openDuration,
+                   LongSupplier nanoTime) {
+        this.failed = new boolean[Math.max(windowSize, 1)];
+        this.minimumCalls = Math.min(Math.max(minimumCalls, 1), failed.length);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Asks for permission to call the upstream. Every permitted call must be followed by
+     * {@link #onSuccess()} or {@link #onFailure()}.
+     *
+     * @return  true if the call may proceed, false if the breaker is open
+     */
+    synchronized boolean tryAcquire() {
+        switch (state()) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                if (probeInFlight) {
+                    return false;
+                }
+                probeInFlight = true;
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            close();
+        } else {
+            record(false);
+        }
+    }
+
+    synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+        } else {
+            record(true);
+        }
+    }
+
+    /**
+     * Returns the current state, moving from open to half-open once the open duration has elapsed.
+     *
+     * @return  the breaker state
+     */
+    synchronized State state() {
+        if (state == State.OPEN && nanoTime.getAsLong() - openedAt >= openNanos) {
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (state != State.CLOSED) {
+            return;
+        }
+        if (recorded == failed.length) {
+            failures -= failed[next] ? 1 : 0;
+        } else {
+            recorded++;
+        }
+        failed[next] = failure;
+        failures += failure ? 1 : 0;
+        next = (next + 1) % failed.length;
+
+        if (recorded >= minimumCalls && failures >= failureRateThreshold * recorded) {
+            open();
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = nanoTime.getAsLong();
+        probeInFlight = false;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        probeInFlight = false;
+        recorded = 0;
+        next = 0;
+        failures = 0;
+    }
+}
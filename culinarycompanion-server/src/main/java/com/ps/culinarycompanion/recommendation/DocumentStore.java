@@ -0,0 +1,38 @@
+package com.ps.culinarycompanion.recommendation;
+
+import java.util.List;
+
+/**
+ * The documents of an index, addressed by document id. Only the documents actually returned by a query need to be
+ * materialized, so a mapped snapshot can decode them lazily.
+ */
+interface DocumentStore {
+
+    int size();
+
+    RecipeDocument get(int doc);
+
+    default int recipeId(int doc) {
+        return get(doc).recipeId();
+    }
+
+    /**
+     * Creates a store over documents held on the heap.
+     *
+     * @param  documents  the documents, in document id order
+     * @return            the store
+     */
+    static DocumentStore of(List<RecipeDocument> documents) {
+        return new DocumentStore() {
+            @Override
+            public int size() {
+                return documents.size();
+            }
+
+            @Override
+            public RecipeDocument get(int doc) {
+                return documents.get(doc);
+            }
+        };
+    }
+}
@@ -0,0 +1,355 @@
+package com.ps.culinarycompanion.recommendation;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client for the Flask recommender (culinarycompanion-recmodel).
+ * <p>
+ * Every call is bounded by a connect and a read deadline, and each upstream sits behind a {@link CircuitBreaker}
+ * so an unhealthy service is failed fast instead of holding requests until the deadline. When a second upstream is
+ * configured, a request still unanswered after the primary's recent p95 latency is hedged to it and the first
+ * successful answer wins.
+ */
+@Component
+public class FlaskRecommendationClient {
+
+    private static final TypeReference<List<RecipeRecommendation>> RECOMMENDATIONS = new TypeReference<>() {
+    };
+
+    private static final int LATENCY_SAMPLES = 256;
+
+    private final ObjectMapper objectMapper;
+
+    private final String url;
+
+    private final Duration readTimeout;
+
+    private final Duration hedgeMinDelay;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // One client for the lifetime of the application so keep-alive connections to Flask are reused.
+    private final HttpClient httpClient;
+
+    private final Upstream primary;
+
+    private final Upstream hedge;
+
+    private final Counter hedgesSent;
+
+    private final Counter hedgesWon;
+
+    private final Map<String, CompletableFuture<List<RecipeRecommendation>>> inFlight = new ConcurrentHashMap<>();
+
+    public FlaskRecommendationClient(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                     @Value("${recommendation.flask-url:}") String url,
+                                     @Value("${recommendation.flask-hedge-url:}") String hedgeUrl,
+                                     @Value("${recommendation.upstream.connect-timeout:2s}") Duration connectTimeout,
+                                     @Value("${recommendation.upstream.read-timeout:5s}") Duration readTimeout,
+                                     @Value("${recommendation.upstream.breaker.window:20}") int breakerWindow,
+                                     @Value("${recommendation.upstream.breaker.minimum-calls:10}")
+                                     int breakerMinimumCalls,
+                                     @Value("${recommendation.upstream.breaker.failure-rate:0.5}")
+                                     double breakerFailureRate,
+                                     @Value("${recommendation.upstream.breaker.open-duration:30s}")
+                                     Duration breakerOpenDuration,
+                                     @Value("${recommendation.upstream.hedge.min-delay:50ms}") Duration hedgeMinDelay) {
+        this.objectMapper = objectMapper;
+        this.url = url;
+        this.readTimeout = readTimeout;
+        this.hedgeMinDelay = hedgeMinDelay;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .executor(executor)
+                .build();
+        this.primary = new Upstream("primary", url, new CircuitBreaker(breakerWindow, breakerMinimumCalls,
+                breakerFailureRate, breakerOpenDuration), meterRegistry);
+        this.hedge = hedgeUrl.isBlank() ? null : new Upstream("hedge", hedgeUrl, new CircuitBreaker(breakerWindow,
+                breakerMinimumCalls, breakerFailureRate, breakerOpenDuration), meterRegistry);
+        this.hedgesSent = Counter.builder("recommendation.upstream.hedges")
+                .description("Requests hedged to the second upstream")
+                .tag("result", "sent")
+                .register(meterRegistry);
+        this.hedgesWon = Counter.builder("recommendation.upstream.hedges")
+                .description("Requests hedged to the second upstream")
+                .tag("result", "won")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns whether an upstream Flask recommender has been configured.
+     *
+     * @return  true if a Flask URL is set
+     */
+    public boolean isConfigured() {
+        return !url.isBlank();
+    }
+
+    /**
+     * Retrieves recipe recommendations from the Flask recommender service without blocking the caller.
+     * Concurrent calls with the same canonical ingredient list share a single upstream request.
+     *
+     * @param  ingredients  the list of ingredients to use for recommendations
+     * @return              a future completed with the recommendations returned by the service
+     */
+    public CompletableFuture<List<RecipeRecommendation>> getRecommendations(List<String> ingredients) {
+        List<String> canonical = IngredientKeys.canonicalize(ingredients);
+        String key = String.join("\n", canonical);
+
+        CompletableFuture<List<RecipeRecommendation>> created = new CompletableFuture<>();
+        CompletableFuture<List<RecipeRecommendation>> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+
+        created.whenComplete((result, ex) -> inFlight.remove(key, created));
+        try {
+            send(canonical).whenComplete((result, ex) -> {
+                if (ex != null) {
+                    created.completeExceptionally(ex);
+                } else {
+                    created.complete(result);
+                }
+            });
+        } catch (RuntimeException ex) {
+            created.completeExceptionally(ex);
+        }
+        return created;
+    }
+
+    private CompletableFuture<List<RecipeRecommendation>> send(List<String> ingredients) {
+        String body = toJson(ingredients);
+        if (hedge == null) {
+            return call(primary, body);
+        }
+        HedgedCall call = new HedgedCall(body);
+        call.start();
+        return call.result;
+    }
+
+    /**
+     * Sends one request to an upstream through its circuit breaker.
+     */
+    private CompletableFuture<List<RecipeRecommendation>> call(Upstream upstream, String body) {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder()
+                    .uri(upstream.uri)
+                    .timeout(readTimeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        } catch (RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+        if (!upstream.breaker.tryAcquire()) {
+            upstream.rejected.increment();
+            return CompletableFuture.failedFuture(
+                    new UpstreamException("Recommendation service " + upstream.name + " is unavailable"));
+        }
+        long start = System.nanoTime();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .handle((response, ex) -> {
+                    if (ex != null) {
+                        upstream.onFailure();
+                        throw ex instanceof CompletionException completion ? completion : new CompletionException(ex);
+                    }
+                    if (response.statusCode() >= 500) {
+                        upstream.onFailure();
+                        throw new UpstreamException("Recommendation service returned " + response.statusCode());
+                    }
+                    upstream.onSuccess(System.nanoTime() - start);
+                    if (response.statusCode() != 200) {
+                        throw new UpstreamException("Recommendation service returned " + response.statusCode());
+                    }
+                    return parse(response.body());
+                });
+    }
+
+    private String toJson(List<String> ingredients) {
+        try {
+            return objectMapper.writeValueAsString(ingredients);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private List<RecipeRecommendation> parse(String body) {
+        try {
+            return objectMapper.readValue(body, RECOMMENDATIONS);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * A request sent to the primary upstream and, if it is slow or fails, to the hedge upstream. The result completes
+     * with the first successful answer, or with the last failure once every attempt sent has failed. The losing
+     * attempt is left to finish so its outcome still counts towards its breaker and latency statistics.
+     */
+    private final class HedgedCall {
+
+        private final String body;
+
+        private final CompletableFuture<List<RecipeRecommendation>> result = new CompletableFuture<>();
+
+        private boolean hedged;
+
+        private int sent;
+
+        private int failed;
+
+        HedgedCall(String body) {
+            this.body = body;
+        }
+
+        void start() {
+            synchronized (this) {
+                sent++;
+            }
+            call(primary, body).whenComplete((recommendations, ex) -> {
+                if (ex == null) {
+                    result.complete(recommendations);
+                } else {
+                    onFailure(ex);
+                }
+            });
+            if (!result.isDone()) {
+                long delay = Math.max(hedgeMinDelay.toNanos(), primary.latencies.percentile(95, 0));
+                CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS, executor).execute(this::hedge);
+            }
+        }
+
+        private void hedge() {
+            synchronized (this) {
+                if (hedged || result.isDone()) {
+                    return;
+                }
+                hedged = true;
+                sent++;
+            }
+            hedgesSent.increment();
+            call(hedge, body).whenComplete((recommendations, ex) -> {
+                if (ex == null) {
+                    if (result.complete(recommendations)) {
+                        hedgesWon.increment();
+                    }
+                } else {
+                    onFailure(ex);
+                }
+            });
+        }
+
+        private void onFailure(Throwable ex) {
+            boolean hedgeNow;
+            synchronized (this) {
+                failed++;
+                hedgeNow = !hedged;
+                if (!hedgeNow && failed == sent) {
+                    result.completeExceptionally(ex);
+                }
+            }
+            if (hedgeNow) {
+                // The primary failed before the hedge delay elapsed, try the second upstream straight away
+                hedge();
+            }
+        }
+    }
+
+    /**
+     * An upstream URL with its circuit breaker, latency samples and call metrics.
+     */
+    private static final class Upstream {
+
+        private final String name;
+
+        private final URI uri;
+
+        private final CircuitBreaker breaker;
+
+        private final LatencyTracker latencies = new LatencyTracker(LATENCY_SAMPLES);
+
+        private final Counter succeeded;
+
+        private final Counter failed;
+
+        private final Counter rejected;
+
+        Upstream(String name, String url, CircuitBreaker breaker, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.uri = url.isBlank() ? null : URI.create(url);
+            this.breaker = breaker;
+            this.succeeded = calls(meterRegistry, name, "success");
+            this.failed = calls(meterRegistry, name, "failure");
+            this.rejected = calls(meterRegistry, name, "rejected");
+            for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+                Gauge.builder("recommendation.upstream.breaker.state", breaker,
+                                b -> b.state() == state ? 1 : 0)
+                        .description("1 for the current state of the upstream circuit breaker")
+                        .tag("upstream", name)
+                        .tag("state", state.name().toLowerCase(Locale.ROOT))
+                        .register(meterRegistry);
+            }
+        }
+
+        void onSuccess(long elapsedNanos) {
+            breaker.onSuccess();
+            latencies.record(elapsedNanos);
+            succeeded.increment();
+        }
+
+        void onFailure() {
+            breaker.onFailure();
+            failed.increment();
+        }
+
+        private static Counter calls(MeterRegistry meterRegistry, String upstream, String result) {
+            return Counter.builder("recommendation.upstream.calls")
+                    .description("Calls to the Flask recommender")
+                    .tag("upstream", upstream)
+                    .tag("result", result)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Thrown when the Flask recommender answers with a non-success status or is unavailable.
+     */
+    public static class UpstreamException extends RuntimeException {
+        public UpstreamException(String s) {
+            super(s);
+        }
+    }
+
+}
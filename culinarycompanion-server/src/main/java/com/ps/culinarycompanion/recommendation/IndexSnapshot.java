@@ -0,0 +1,334 @@
+package com.ps.culinarycompanion.recommendation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+/**
+ * Compact binary snapshot of a {@link TfIdfIndex} that is opened with {@link FileChannel#map}, so startup does not
+ * re-tokenize the corpus and every process on a host shares the same page-cache pages.
+ * <p>
+ * All values are little-endian and every section starts on a 4-byte boundary:
+ * <pre>
+ * header           int[8]    magic, version, docCount, termCount, postingCount, termBytes, docBytes, reserved
+ * builtAt          long      epoch milliseconds at which recipe_details was read for the index, 0 if it was not
+ * idf              float[termCount]
+ * postingOffsets   int[termCount + 1]      CSR row pointers, one row per term
+ * postingDocs      int[postingCount]       CSR column indices, ascending within a row
+ * postingWeights   float[postingCount]     L2-normalized tf-idf weights
+ * termOffsets      int[termCount + 1]      into termBytes, terms in sorted order
+ * docRecipeIds     int[docCount]           recipe_details id or -1
+ * docFieldOffsets  int[docCount * 4 + 1]   into docBytes: title, description, ingredients, instructions
+ * termBytes        byte[termBytes]         UTF-8
+ * docBytes         byte[docBytes]          UTF-8
+ * </pre>
+ * A single mapping is limited to 2 GB, which comfortably holds the food.com dataset. {@code builtAt} lets a server
+ * mapping the snapshot catch up with the recipes written since.
+ */
+public final class IndexSnapshot {
+
+    private static final int MAGIC = 0x43435258;
+
+    private static final int VERSION = 2;
+
+    private static final int HEADER_BYTES = 8 * Integer.BYTES + Long.BYTES;
+
+    private static final int DOC_FIELDS = 4;
+
+    private IndexSnapshot() {
+
+    }
+
+    /**
+     * A mapped snapshot.
+     *
+     * @param index    the index backed by the mapping
+     * @param builtAt  when recipe_details was read for the index, {@link Instant#EPOCH} if it was not
+     */
+    public record Mapped(TfIdfIndex index, Instant builtAt) {
+    }
+
+    /**
+     * Writes an index to the given file, replacing it atomically so running servers never map a partial file. The
+     * index is written to a temporary file of its own next to the snapshot first, so concurrent writers never write
+     * into the same file.
+     *
+     * @param  index    the index to write
+     * @param  builtAt  when recipe_details was read for the index, {@link Instant#EPOCH} if it was not
+     * @param  path     the snapshot file
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(TfIdfIndex index, Instant builtAt, Path path) throws IOException {
+        DocumentStore documents = index.documents();
+        TermDictionary terms = index.terms();
+        int docCount = documents.size();
+        int termCount = terms.size();
+        int postingCount = index.postingDocs().limit();
+
+        int[] termOffsets = new int[termCount + 1];
+        for (int t = 0; t < termCount; t++) {
+            termOffsets[t + 1] = termOffsets[t] + utf8(terms.term(t)).length;
+        }
+        int[] docFieldOffsets = new int[docCount * DOC_FIELDS + 1];
+        for (int doc = 0; doc < docCount; doc++) {
+            String[] fields = fields(documents.get(doc));
+            for (int f = 0; f < DOC_FIELDS; f++) {
+                int i = doc * DOC_FIELDS + f;
+                long end = (long) docFieldOffsets[i] + utf8(fields[f]).length;
+                if (end > Integer.MAX_VALUE) {
+                    throw new IOException("Recipe text exceeds the 2 GB snapshot limit");
+                }
+                docFieldOffsets[i + 1] = (int) end;
+            }
+        }
+
+        Path temp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName() + ".", ".tmp");
+        try {
+            writeSections(index, builtAt, termOffsets, docFieldOffsets, temp);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void writeSections(TfIdfIndex index, Instant builtAt, int[] termOffsets, int[] docFieldOffsets,
+                                      Path file) throws IOException {
+        DocumentStore documents = index.documents();
+        TermDictionary terms = index.terms();
+        int docCount = documents.size();
+        int termCount = terms.size();
+        int postingCount = index.postingDocs().limit();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE);
+             SectionWriter out = new SectionWriter(channel)) {
+            out.putInt(MAGIC);
+            out.putInt(VERSION);
+            out.putInt(docCount);
+            out.putInt(termCount);
+            out.putInt(postingCount);
+            out.putInt(termOffsets[termCount]);
+            out.putInt(docFieldOffsets[docCount * DOC_FIELDS]);
+            out.putInt(0);
+            out.putLong(builtAt.toEpochMilli());
+
+            for (int t = 0; t < termCount; t++) {
+                out.putFloat(index.idf().get(t));
+            }
+            for (int t = 0; t <= termCount; t++) {
+                out.putInt(index.postingOffsets().get(t));
+            }
+            for (int p = 0; p < postingCount; p++) {
+                out.putInt(index.postingDocs().get(p));
+            }
+            for (int p = 0; p < postingCount; p++) {
+                out.putFloat(index.postingWeights().get(p));
+            }
+            for (int offset : termOffsets) {
+                out.putInt(offset);
+            }
+            for (int doc = 0; doc < docCount; doc++) {
+                out.putInt(documents.get(doc).recipeId());
+            }
+            for (int offset : docFieldOffsets) {
+                out.putInt(offset);
+            }
+            for (int t = 0; t < termCount; t++) {
+                out.put(utf8(terms.term(t)));
+            }
+            out.align();
+            for (int doc = 0; doc < docCount; doc++) {
+                for (String field : fields(documents.get(doc))) {
+                    out.put(utf8(field));
+                }
+            }
+        }
+    }
+
+    /**
+     * Maps a snapshot file read-only and returns an index backed directly by the mapping.
+     *
+     * @param  path  the snapshot file
+     * @return       the mapped index and when it was built
+     * @throws IOException if the file cannot be mapped or is not a snapshot of this version
+     */
+    public static Mapped open(Path path) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot exceeds the 2 GB mapping limit: " + path);
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a recommendation index snapshot: " + path);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported recommendation index snapshot version " + buffer.getInt(4) + ": "
+                    + path);
+        }
+        int docCount = buffer.getInt(8);
+        int termCount = buffer.getInt(12);
+        int postingCount = buffer.getInt(16);
+        int termBytes = buffer.getInt(20);
+        int docBytes = buffer.getInt(24);
+        Instant builtAt = Instant.ofEpochMilli(buffer.getLong(32));
+
+        int position = HEADER_BYTES;
+        FloatBuffer idf = slice(buffer, position, termCount).asFloatBuffer();
+        position += termCount * Float.BYTES;
+        IntBuffer postingOffsets = slice(buffer, position, termCount + 1).asIntBuffer();
+        position += (termCount + 1) * Integer.BYTES;
+        IntBuffer postingDocs = slice(buffer, position, postingCount).asIntBuffer();
+        position += postingCount * Integer.BYTES;
+        FloatBuffer postingWeights = slice(buffer, position, postingCount).asFloatBuffer();
+        position += postingCount * Float.BYTES;
+        IntBuffer termOffsets = slice(buffer, position, termCount + 1).asIntBuffer();
+        position += (termCount + 1) * Integer.BYTES;
+        IntBuffer docRecipeIds = slice(buffer, position, docCount).asIntBuffer();
+        position += docCount * Integer.BYTES;
+        IntBuffer docFieldOffsets = slice(buffer, position, docCount * DOC_FIELDS + 1).asIntBuffer();
+        position += (docCount * DOC_FIELDS + 1) * Integer.BYTES;
+        ByteBuffer termText = buffer.slice(position, termBytes);
+        position += (termBytes + 3) & ~3;
+        ByteBuffer docText = buffer.slice(position, docBytes);
+
+        TermDictionary terms = new TermDictionary() {
+            @Override
+            public int size() {
+                return termCount;
+            }
+
+            @Override
+            public String term(int id) {
+                return decode(termText, termOffsets.get(id), termOffsets.get(id + 1));
+            }
+        };
+        DocumentStore documents = new DocumentStore() {
+            @Override
+            public int size() {
+                return docCount;
+            }
+
+            @Override
+            public RecipeDocument get(int doc) {
+                String[] fields = new String[DOC_FIELDS];
+                for (int f = 0; f < DOC_FIELDS; f++) {
+                    int i = doc * DOC_FIELDS + f;
+                    fields[f] = decode(docText, docFieldOffsets.get(i), docFieldOffsets.get(i + 1));
+                }
+                return new RecipeDocument(docRecipeIds.get(doc), fields[2],
+                        new RecipeRecommendation(fields[0], fields[1], fields[2], fields[3]));
+            }
+
+            @Override
+            public int recipeId(int doc) {
+                return docRecipeIds.get(doc);
+            }
+        };
+        return new Mapped(new TfIdfIndex(terms, idf, postingOffsets, postingDocs, postingWeights, documents), builtAt);
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int position, int values) {
+        return buffer.slice(position, values * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static String decode(ByteBuffer text, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        text.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String[] fields(RecipeDocument document) {
+        RecipeRecommendation recommendation = document.recommendation();
+        return new String[]{recommendation.title(), recommendation.description(), document.ingredientText(),
+                recommendation.instructions()};
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Buffers little-endian writes to a channel.
+     */
+    private static final class SectionWriter implements AutoCloseable {
+
+        private final FileChannel channel;
+
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+
+        private long written;
+
+        SectionWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+            written += Integer.BYTES;
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(Long.BYTES);
+            buffer.putLong(value);
+            written += Long.BYTES;
+        }
+
+        void putFloat(float value) throws IOException {
+            ensure(Float.BYTES);
+            buffer.putFloat(value);
+            written += Float.BYTES;
+        }
+
+        void put(byte[] bytes) throws IOException {
+            int offset = 0;
+            while (offset < bytes.length) {
+                ensure(1);
+                int length = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, length);
+                offset += length;
+            }
+            written += bytes.length;
+        }
+
+        void align() throws IOException {
+            while ((written & 3) != 0) {
+                ensure(1);
+                buffer.put((byte) 0);
+                written++;
+            }
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+            channel.force(false);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.ps.culinarycompanion.recommendation;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command-line tool that builds a recommendation index snapshot from the food.com CSV and/or the recipes in
+ * recipe_details, for servers started with {@code recommendation.snapshot-path}.
+ * <pre>
+ * java -cp culinarycompanion.jar \
+ *      -Dloader.main=com.ps.culinarycompanion.recommendation.IndexSnapshotBuilder \
+ *      org.springframework.boot.loader.launch.PropertiesLauncher \
+ *      --out recipes.idx [--csv recipes.csv] [--jdbc-url URL --jdbc-user USER --jdbc-password PASSWORD]
+ * </pre>
+ */
+public final class IndexSnapshotBuilder {
+
+    private IndexSnapshotBuilder() {
+
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i], args[i + 1]);
+        }
+        if (!options.containsKey("--out") || !(options.containsKey("--csv") || options.containsKey("--jdbc-url"))) {
+            System.err.println("Usage: IndexSnapshotBuilder --out FILE [--csv FILE] "
+                    + "[--jdbc-url URL --jdbc-user USER --jdbc-password PASSWORD]");
+            System.exit(2);
+        }
+
+        long start = System.nanoTime();
+        Instant builtAt = Instant.EPOCH;
+        List<RecipeDocument> documents = new ArrayList<>();
+        if (options.containsKey("--csv")) {
+            RecipeCorpus.readDataset(Path.of(options.get("--csv")), documents);
+        }
+        if (options.containsKey("--jdbc-url")) {
+            try (Connection connection = DriverManager.getConnection(options.get("--jdbc-url"),
+                    options.get("--jdbc-user"), options.get("--jdbc-password"))) {
+                builtAt = Instant.now();
+                RecipeCorpus.readDatabase(connection, documents);
+            }
+        }
+
+        TfIdfIndex index = TfIdfIndex.build(documents);
+        Path out = Path.of(options.get("--out"));
+        IndexSnapshot.write(index, builtAt, out);
+        System.out.printf("Wrote %d recipes and %d terms to %s in %d ms%n", index.size(), index.terms().size(), out,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,33 @@
+package com.ps.culinarycompanion.recommendation;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Normalizes ingredient lists so that requests differing only in order, case, whitespace or duplicates are treated
+ * as the same request.
+ */
+public final class IngredientKeys {
+
+    private IngredientKeys() {
+
+    }
+
+    /**
+     * Returns the trimmed, lower-cased, de-duplicated and sorted form of the given ingredients.
+     *
+     * @param  ingredients  the ingredients as sent by the client
+     * @return              the canonical ingredient list
+     */
+    public static List<String> canonicalize(List<String> ingredients) {
+        return ingredients.stream()
+                .filter(Objects::nonNull)
+                .map(ingredient -> ingredient.trim().toLowerCase(Locale.ROOT))
+                .filter(ingredient -> !ingredient.isEmpty())
+                .distinct()
+                .sorted()
+                .toList();
+    }
+
+}
@@ -0,0 +1,216 @@
+package com.ps.culinarycompanion.recommendation;
+
+import java.util.Arrays;
+
+/**
+ * Sparse item-item similarity matrix computed from user ratings, keeping only the best neighbors of each recipe.
+ * <p>
+ * Similarity is the cosine between the rating vectors of two recipes over the users who rated both. The build
+ * works on primitive arrays only: ratings are packed into a user-major CSR matrix and its item-major transpose, and
+ * for each recipe the dot products with every co-rated recipe are accumulated in a dense scratch array that is reset
+ * through a touched list. The cost is proportional to the sum over users of the square of the number of recipes
+ * they rated, never to the square of the catalogue.
+ * <p>
+ * Neighbors are stored as a recipe-major CSR matrix sorted by recipe id, so a lookup is a binary search followed by
+ * a copy of at most {@code maxNeighbors} entries.
+ */
+public final class ItemSimilarityIndex {
+
+    public static final ItemSimilarityIndex EMPTY = new ItemSimilarityIndex(new int[0], new int[1], new int[0],
+            new float[0]);
+
+    private final int[] recipeIds;
+
+    private final int[] neighborOffsets;
+
+    private final int[] neighborRecipeIds;
+
+    private final float[] neighborScores;
+
+    private ItemSimilarityIndex(int[] recipeIds, int[] neighborOffsets, int[] neighborRecipeIds,
+                                float[] neighborScores) {
+        this.recipeIds = recipeIds;
+        this.neighborOffsets = neighborOffsets;
+        this.neighborRecipeIds = neighborRecipeIds;
+        this.neighborScores = neighborScores;
+    }
+
+    /**
+     * Builds the matrix from parallel arrays of ratings. A user rating the same recipe more than once counts once,
+     * with the last rating.
+     *
+     * @param  userIds       the user of each rating
+     * @param  recipeIds     the recipe of each rating
+     * @param  ratings       the score of each rating
+     * @param  count         the number of ratings in the arrays
+     * @param  maxNeighbors  the number of neighbors to keep per recipe
+     * @param  minCoRatings  the number of users who must have rated both recipes for them to be neighbors
+     * @return               the similarity matrix
+     */
+    public static ItemSimilarityIndex build(int[] userIds, int[] recipeIds, float[] ratings, int count,
+                                            int maxNeighbors, int minCoRatings) {
+        if (count == 0 || maxNeighbors <= 0) {
+            return EMPTY;
+        }
+        int[] users = distinctSorted(userIds, count);
+        int[] items = distinctSorted(recipeIds, count);
+
+        // User-major CSR by counting sort, which keeps each user's ratings in their original order
+        int[] userOffsets = new int[users.length + 1];
+        int[] userOf = new int[count];
+        for (int i = 0; i < count; i++) {
+            userOf[i] = Arrays.binarySearch(users, userIds[i]);
+            userOffsets[userOf[i] + 1]++;
+        }
+        for (int u = 0; u < users.length; u++) {
+            userOffsets[u + 1] += userOffsets[u];
+        }
+        int[] fill = Arrays.copyOf(userOffsets, users.length);
+        int[] userItems = new int[count];
+        float[] userRatings = new float[count];
+        for (int i = 0; i < count; i++) {
+            int p = fill[userOf[i]]++;
+            userItems[p] = Arrays.binarySearch(items, recipeIds[i]);
+            userRatings[p] = ratings[i];
+        }
+
+        // Collapse repeated ratings of a recipe by the same user, compacting the rows in place
+        int[] slot = new int[items.length];
+        int[] seenBy = new int[items.length];
+        int entries = 0;
+        for (int u = 0; u < users.length; u++) {
+            int rowStart = entries;
+            for (int p = userOffsets[u]; p < userOffsets[u + 1]; p++) {
+                int item = userItems[p];
+                if (seenBy[item] == u + 1) {
+                    userRatings[slot[item]] = userRatings[p];
+                } else {
+                    seenBy[item] = u + 1;
+                    slot[item] = entries;
+                    userItems[entries] = item;
+                    userRatings[entries] = userRatings[p];
+                    entries++;
+                }
+            }
+            userOffsets[u] = rowStart;
+        }
+        userOffsets[users.length] = entries;
+
+        // Item-major transpose, with the squared norm of each recipe's rating vector
+        int[] itemOffsets = new int[items.length + 1];
+        for (int e = 0; e < entries; e++) {
+            itemOffsets[userItems[e] + 1]++;
+        }
+        for (int i = 0; i < items.length; i++) {
+            itemOffsets[i + 1] += itemOffsets[i];
+        }
+        int[] itemUsers = new int[entries];
+        float[] itemRatings = new float[entries];
+        double[] norms = new double[items.length];
+        fill = Arrays.copyOf(itemOffsets, items.length);
+        for (int u = 0; u < users.length; u++) {
+            for (int e = userOffsets[u]; e < userOffsets[u + 1]; e++) {
+                int item = userItems[e];
+                int p = fill[item]++;
+                itemUsers[p] = u;
+                itemRatings[p] = userRatings[e];
+                norms[item] += (double) userRatings[e] * userRatings[e];
+            }
+        }
+
+        double[] dots = new double[items.length];
+        int[] coRatings = new int[items.length];
+        int[] touched = new int[items.length];
+        int[] offsets = new int[items.length + 1];
+        int[] neighbors = new int[Math.min(items.length, 1 << 16) * maxNeighbors];
+        float[] scores = new float[neighbors.length];
+        float[] heapScores = new float[maxNeighbors];
+        int stored = 0;
+        for (int item = 0; item < items.length; item++) {
+            int touchedCount = 0;
+            for (int p = itemOffsets[item]; p < itemOffsets[item + 1]; p++) {
+                int user = itemUsers[p];
+                float rating = itemRatings[p];
+                for (int e = userOffsets[user]; e < userOffsets[user + 1]; e++) {
+                    int other = userItems[e];
+                    if (other == item) {
+                        continue;
+                    }
+                    if (coRatings[other] == 0) {
+                        touched[touchedCount++] = other;
+                    }
+                    coRatings[other]++;
+                    dots[other] += (double) rating * userRatings[e];
+                }
+            }
+
+            TopKHeap heap = new TopKHeap(maxNeighbors);
+            for (int t = 0; t < touchedCount; t++) {
+                int other = touched[t];
+                if (coRatings[other] >= minCoRatings && dots[other] > 0) {
+                    heap.offer((float) (dots[other] / Math.sqrt(norms[item] * norms[other])), other);
+                }
+                dots[other] = 0;
+                coRatings[other] = 0;
+            }
+
+            int[] best = heap.drainDescending(heapScores);
+            if (stored + best.length > neighbors.length) {
+                neighbors = Arrays.copyOf(neighbors, Math.max(neighbors.length * 2, stored + best.length));
+                scores = Arrays.copyOf(scores, neighbors.length);
+            }
+            for (int k = 0; k < best.length; k++) {
+                neighbors[stored] = items[best[k]];
+                scores[stored] = heapScores[k];
+                stored++;
+            }
+            offsets[item + 1] = stored;
+        }
+        return new ItemSimilarityIndex(items, offsets, Arrays.copyOf(neighbors, stored),
+                Arrays.copyOf(scores, stored));
+    }
+
+    /**
+     * Returns the number of rated recipes.
+     *
+     * @return  the number of recipes with a row in the matrix
+     */
+    public int size() {
+        return recipeIds.length;
+    }
+
+    /**
+     * Returns the recipes most similar to the given recipe.
+     *
+     * @param  recipeId  the recipe id
+     * @param  limit     the maximum number of neighbors to return
+     * @return           the neighbors, most similar first; empty if the recipe has no co-rated neighbors
+     */
+    public Neighbor[] neighbors(int recipeId, int limit) {
+        int item = Arrays.binarySearch(recipeIds, recipeId);
+        if (item < 0 || limit <= 0) {
+            return new Neighbor[0];
+        }
+        int from = neighborOffsets[item];
+        int to = Math.min(neighborOffsets[item + 1], from + limit);
+        Neighbor[] result = new Neighbor[to - from];
+        for (int p = from; p < to; p++) {
+            result[p - from] = new Neighbor(neighborRecipeIds[p], neighborScores[p]);
+        }
+        return result;
+    }
+
+    private static int[] distinctSorted(int[] values, int count) {
+        return Arrays.stream(values, 0, count).distinct().sorted().toArray();
+    }
+
+    /**
+     * A similar recipe and its cosine similarity.
+     *
+     * @param recipeId    the recipe id
+     * @param similarity  the cosine similarity, between 0 and 1 for non-negative ratings
+     */
+    public record Neighbor(int recipeId, float similarity) {
+
+    }
+}
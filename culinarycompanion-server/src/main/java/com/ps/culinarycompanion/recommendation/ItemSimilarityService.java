@@ -0,0 +1,124 @@
+package com.ps.culinarycompanion.recommendation;
+
+import com.ps.culinarycompanion.dao.RecipeRepository;
+import com.ps.culinarycompanion.recipes.Recipe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * "Users who liked this also liked" recommendations from rating_details. The item-item similarity matrix is rebuilt
+ * by a background job and swapped in atomically, so a lookup only reads one recipe's stored neighbors.
+ */
+@Service
+public class ItemSimilarityService {
+
+    private static final Logger log = LoggerFactory.getLogger(ItemSimilarityService.class);
+
+    public static final int MAX_SIMILAR = 50;
+
+    private static final String RATINGS = """
+            select user_id, recipe_id, rating
+            from rating_details
+            where user_id is not null and recipe_id is not null and rating is not null
+            order by rating_id""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final RecipeRepository recipeRepository;
+
+    private final int maxNeighbors;
+
+    private final int minCoRatings;
+
+    private volatile ItemSimilarityIndex index = ItemSimilarityIndex.EMPTY;
+
+    public ItemSimilarityService(JdbcTemplate jdbcTemplate, RecipeRepository recipeRepository,
+                                 @Value("${recommendation.similar.max-neighbors:" + MAX_SIMILAR + "}")
+                                 int maxNeighbors,
+                                 @Value("${recommendation.similar.min-co-ratings:2}") int minCoRatings) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.recipeRepository = recipeRepository;
+        this.maxNeighbors = maxNeighbors;
+        this.minCoRatings = minCoRatings;
+    }
+
+    /**
+     * Rebuilds the similarity matrix from every rating. Ratings are streamed into growable primitive arrays rather
+     * than loaded as entities.
+     */
+    @Scheduled(fixedDelayString = "${recommendation.similar.rebuild-interval:PT1H}")
+    public void rebuild() {
+        long start = System.nanoTime();
+        RatingColumns ratings = new RatingColumns();
+        jdbcTemplate.query(RATINGS, ratings);
+        index = ItemSimilarityIndex.build(ratings.userIds, ratings.recipeIds, ratings.scores, ratings.count,
+                maxNeighbors, minCoRatings);
+        log.info("Built item similarity over {} ratings of {} recipes in {} ms", ratings.count, index.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Retrieves the recipes most often liked by the users who rated the given recipe.
+     *
+     * @param  recipeId  the recipe id
+     * @param  limit     the number of recipes to return, capped at the number of stored neighbors
+     * @return           the similar recipes, most similar first
+     */
+    public List<SimilarRecipe> getSimilarRecipes(int recipeId, int limit) {
+        ItemSimilarityIndex.Neighbor[] neighbors = index.neighbors(recipeId, Math.min(limit, MAX_SIMILAR));
+        if (neighbors.length == 0) {
+            return List.of();
+        }
+        Map<Integer, Recipe> recipes = recipeRepository.findAllById(Arrays.stream(neighbors)
+                        .map(ItemSimilarityIndex.Neighbor::recipeId)
+                        .toList())
+                .stream()
+                .collect(Collectors.toMap(Recipe::getRecipeId, Function.identity()));
+        // A neighbor deleted since the last rebuild is skipped
+        return Arrays.stream(neighbors)
+                .filter(neighbor -> recipes.containsKey(neighbor.recipeId()))
+                .map(neighbor -> new SimilarRecipe(neighbor.recipeId(),
+                        recipes.get(neighbor.recipeId()).getTitle(), neighbor.similarity()))
+                .toList();
+    }
+
+    /**
+     * Collects rating rows into growable parallel arrays.
+     */
+    private static final class RatingColumns implements RowCallbackHandler {
+
+        private int[] userIds = new int[1024];
+
+        private int[] recipeIds = new int[1024];
+
+        private float[] scores = new float[1024];
+
+        private int count;
+
+        @Override
+        public void processRow(ResultSet row) throws SQLException {
+            if (count == userIds.length) {
+                userIds = Arrays.copyOf(userIds, count * 2);
+                recipeIds = Arrays.copyOf(recipeIds, count * 2);
+                scores = Arrays.copyOf(scores, count * 2);
+            }
+            userIds[count] = row.getInt(1);
+            recipeIds[count] = row.getInt(2);
+            scores[count] = row.getFloat(3);
+            count++;
+        }
+    }
+}
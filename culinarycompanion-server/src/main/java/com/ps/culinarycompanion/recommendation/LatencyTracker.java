@@ -0,0 +1,46 @@
+package com.ps.culinarycompanion.recommendation;
+
+import java.util.Arrays;
+
+/**
+ * Ring buffer of the most recent upstream response times, used to derive the hedging delay from a percentile of
+ * recent latency rather than a fixed guess.
+ */
+final class LatencyTracker {
+
+    private final long[] nanos;
+
+    private int recorded;
+
+    private int next;
+
+    LatencyTracker(int capacity) {
+        this.nanos = new long[capacity];
+    }
+
+    synchronized void record(long elapsedNanos) {
+        nanos[next] = elapsedNanos;
+        next = (next + 1) % nanos.length;
+        recorded = Math.min(recorded + 1, nanos.length);
+    }
+
+    /**
+     * Returns a percentile of the recorded latencies.
+     *
+     * @param  percentile    the percentile, between 0 and 100
+     * @param  defaultNanos  the value to return when nothing has been recorded yet
+     * @return               the latency in nanoseconds
+     */
+    long percentile(int percentile, long defaultNanos) {
+        long[] sorted;
+        synchronized (this) {
+            if (recorded == 0) {
+                return defaultNanos;
+            }
+            sorted = Arrays.copyOf(nanos, recorded);
+        }
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(sorted.length * percentile / 100.0) - 1;
+        return sorted[Math.min(Math.max(rank, 0), sorted.length - 1)];
+    }
+}
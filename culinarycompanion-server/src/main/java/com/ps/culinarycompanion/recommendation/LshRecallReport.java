@@ -0,0 +1,134 @@
+package com.ps.culinarycompanion.recommendation;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Command-line tool that compares {@link SearchMode#APPROXIMATE} against {@link SearchMode#EXACT} on the food.com
+ * dataset or an index snapshot. Queries are random subsets of the ingredient terms of random recipes, the way a
+ * pantry overlaps a recipe, and the report gives recall@n of the approximate results against the exact ones along
+ * with the latency of both modes.
+ * <pre>
+ * java -cp culinarycompanion.jar \
+ *      -Dloader.main=com.ps.culinarycompanion.recommendation.LshRecallReport \
+ *      org.springframework.boot.loader.launch.PropertiesLauncher \
+ *      (--csv recipes.csv | --snapshot recipes.idx) [--queries 1000] [--n 10] [--terms 4] [--bands 16] [--rows 2]
+ * </pre>
+ */
+public final class LshRecallReport {
+
+    private LshRecallReport() {
+
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i], args[i + 1]);
+        }
+        if (!options.containsKey("--csv") && !options.containsKey("--snapshot")) {
+            usage();
+        }
+        int queries = Integer.parseInt(options.getOrDefault("--queries", "1000"));
+        int n = Integer.parseInt(options.getOrDefault("--n", "10"));
+        int termsPerQuery = Integer.parseInt(options.getOrDefault("--terms", "4"));
+        int bands = Integer.parseInt(options.getOrDefault("--bands", String.valueOf(MinHashLsh.DEFAULT_BANDS)));
+        int rows = Integer.parseInt(options.getOrDefault("--rows", String.valueOf(MinHashLsh.DEFAULT_ROWS)));
+        // Percentiles of zero queries and LSH tables without bands or rows are undefined
+        if (queries <= 0 || n <= 0 || termsPerQuery <= 0 || bands <= 0 || rows <= 0) {
+            usage();
+        }
+
+        TfIdfIndex index;
+        if (options.containsKey("--snapshot")) {
+            index = IndexSnapshot.open(Path.of(options.get("--snapshot"))).index();
+        } else {
+            List<RecipeDocument> documents = new ArrayList<>();
+            RecipeCorpus.readDataset(Path.of(options.get("--csv")), documents);
+            index = TfIdfIndex.build(documents);
+        }
+        long start = System.nanoTime();
+        MinHashLsh lsh = MinHashLsh.build(index, bands, rows);
+        System.out.printf("Indexed %d recipes, built %d x %d LSH tables in %d ms%n", index.size(), bands, rows,
+                (System.nanoTime() - start) / 1_000_000);
+
+        Random random = new Random(42);
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        long[] exactNanos = new long[queries];
+        long[] approximateNanos = new long[queries];
+        long candidateCount = 0;
+        double recall = 0;
+        int scored = 0;
+        for (int q = 0; q < queries; q++) {
+            QueryVector query = QueryVector.of(sampleTerms(index, random, termsPerQuery), index::idf);
+
+            long exactStart = System.nanoTime();
+            int[] exact = index.search(query, n, pool, null).drainDescending();
+            exactNanos[q] = System.nanoTime() - exactStart;
+
+            long approximateStart = System.nanoTime();
+            BitSet candidates = lsh.candidates(index.termIds(query));
+            int[] approximate = index.rank(query, n, candidates).drainDescending();
+            approximateNanos[q] = System.nanoTime() - approximateStart;
+
+            candidateCount += candidates.cardinality();
+            if (exact.length > 0) {
+                recall += overlap(exact, approximate) / (double) exact.length;
+                scored++;
+            }
+        }
+
+        System.out.printf("%d queries of %d terms, top %d%n", queries, termsPerQuery, n);
+        System.out.printf("exact        p50 %8.3f ms  p95 %8.3f ms  mean %8.3f ms%n", percentile(exactNanos, 50),
+                percentile(exactNanos, 95), mean(exactNanos));
+        System.out.printf("approximate  p50 %8.3f ms  p95 %8.3f ms  mean %8.3f ms%n", percentile(approximateNanos, 50),
+                percentile(approximateNanos, 95), mean(approximateNanos));
+        System.out.printf("recall@%d %.3f, %.1f candidates per query (%.2f%% of the corpus)%n", n,
+                scored == 0 ? 0 : recall / scored, candidateCount / (double) queries,
+                100.0 * candidateCount / queries / Math.max(index.size(), 1));
+    }
+
+    private static List<String> sampleTerms(TfIdfIndex index, Random random, int count) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(IngredientTokenizer.tokenize(
+                index.document(random.nextInt(index.size())).ingredientText())));
+        Collections.shuffle(terms, random);
+        return terms.subList(0, Math.min(count, terms.size()));
+    }
+
+    private static int overlap(int[] expected, int[] actual) {
+        int[] sorted = actual.clone();
+        Arrays.sort(sorted);
+        int found = 0;
+        for (int doc : expected) {
+            if (Arrays.binarySearch(sorted, doc) >= 0) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private static void usage() {
+        System.err.println("Usage: LshRecallReport (--csv FILE | --snapshot FILE) [--queries N] [--n N] "
+                + "[--terms N] [--bands N] [--rows N], where every N is positive");
+        System.exit(2);
+    }
+
+    private static double percentile(long[] nanos, int percentile) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.min(sorted.length - 1, sorted.length * percentile / 100)] / 1_000_000.0;
+    }
+
+    private static double mean(long[] nanos) {
+        return Arrays.stream(nanos).average().orElse(0) / 1_000_000.0;
+    }
+}
@@ -0,0 +1,159 @@
+package com.ps.culinarycompanion.recommendation;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+/**
+ * Locality-sensitive hashing over the term sets of an index's documents, used to generate a small set of candidate
+ * recipes for a query without touching every document.
+ * <p>
+ * Each document's ingredient terms are summarized by a MinHash signature of {@code bands * rows} values, where the
+ * probability that two sets agree on a value equals their Jaccard similarity. Signatures are split into bands of
+ * {@code rows} values; two sets become candidates when any band matches exactly, which happens with probability
+ * {@code 1 - (1 - s^rows)^bands} for similarity {@code s}. Fewer rows per band favour recall over candidate count,
+ * which suits short pantry queries compared against much longer recipes.
+ * <p>
+ * Each band is stored as one sorted {@code long[]} of {@code (bucket << 32) | doc} entries, so a lookup is a binary
+ * search and the whole structure costs {@code bands * 8} bytes per document. Bucket hashes are truncated to 32 bits;
+ * the rare false collision only adds a candidate that the exact re-ranking discards.
+ */
+final class MinHashLsh {
+
+    static final int DEFAULT_BANDS = 16;
+
+    static final int DEFAULT_ROWS = 2;
+
+    private static final long SEED = 0x5EED_CAFE_F00DL;
+
+    private final int bands;
+
+    private final int rows;
+
+    private final long[] seeds;
+
+    private final long[][] buckets;
+
+    private MinHashLsh(int bands, int rows, long[] seeds, long[][] buckets) {
+        this.bands = bands;
+        this.rows = rows;
+        this.seeds = seeds;
+        this.buckets = buckets;
+    }
+
+    /**
+     * Hashes every document of an index into its band buckets. The postings are walked once per band so only
+     * {@code rows} signature values per document are held at a time.
+     *
+     * @param  index  the index whose documents to hash
+     * @param  bands  the number of bands
+     * @param  rows   the number of signature values per band
+     * @return        the built LSH tables
+     */
+    static MinHashLsh build(TfIdfIndex index, int bands, int rows) {
+        long[] seeds = new SplittableRandom(SEED).longs(bands * rows).toArray();
+        int docCount = index.size();
+        int termCount = index.terms().size();
+        IntBuffer postingOffsets = index.postingOffsets();
+        IntBuffer postingDocs = index.postingDocs();
+
+        BitSet hasTerms = new BitSet(docCount);
+        for (int p = 0; p < postingDocs.limit(); p++) {
+            hasTerms.set(postingDocs.get(p));
+        }
+
+        long[][] buckets = new long[bands][];
+        int[] signature = new int[docCount * rows];
+        int[] termHashes = new int[rows];
+        for (int band = 0; band < bands; band++) {
+            Arrays.fill(signature, Integer.MAX_VALUE);
+            for (int term = 0; term < termCount; term++) {
+                for (int r = 0; r < rows; r++) {
+                    termHashes[r] = hash(term, seeds[band * rows + r]);
+                }
+                for (int p = postingOffsets.get(term); p < postingOffsets.get(term + 1); p++) {
+                    int offset = postingDocs.get(p) * rows;
+                    for (int r = 0; r < rows; r++) {
+                        signature[offset + r] = Math.min(signature[offset + r], termHashes[r]);
+                    }
+                }
+            }
+
+            long[] entries = new long[hasTerms.cardinality()];
+            int e = 0;
+            for (int doc = hasTerms.nextSetBit(0); doc >= 0; doc = hasTerms.nextSetBit(doc + 1)) {
+                entries[e++] = ((long) bucket(signature, doc * rows, rows) << 32) | doc;
+            }
+            Arrays.sort(entries);
+            buckets[band] = entries;
+        }
+        return new MinHashLsh(bands, rows, seeds, buckets);
+    }
+
+    /**
+     * Returns every document sharing at least one band bucket with the given term set.
+     *
+     * @param  termIds  the query's term ids in the hashed index; negative ids are ignored
+     * @return          the candidate documents
+     */
+    BitSet candidates(int[] termIds) {
+        BitSet candidates = new BitSet();
+        int[] signature = new int[rows];
+        for (int band = 0; band < bands; band++) {
+            Arrays.fill(signature, Integer.MAX_VALUE);
+            boolean empty = true;
+            for (int term : termIds) {
+                if (term < 0) {
+                    continue;
+                }
+                empty = false;
+                for (int r = 0; r < rows; r++) {
+                    signature[r] = Math.min(signature[r], hash(term, seeds[band * rows + r]));
+                }
+            }
+            if (empty) {
+                return candidates;
+            }
+
+            long[] entries = buckets[band];
+            long bucket = (long) bucket(signature, 0, rows) << 32;
+            int i = lowerBound(entries, bucket);
+            while (i < entries.length && (entries[i] & 0xFFFF_FFFF_0000_0000L) == bucket) {
+                candidates.set((int) entries[i]);
+                i++;
+            }
+        }
+        return candidates;
+    }
+
+    private static int hash(int term, long seed) {
+        // SplitMix64 finalizer, a cheap stand-in for a family of independent permutations
+        long z = term + seed;
+        z = (z ^ (z >>> 30)) * 0xBF58_476D_1CE4_E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D0_49BB_1331_11EBL;
+        return (int) ((z ^ (z >>> 31)) >>> 32);
+    }
+
+    private static int bucket(int[] signature, int offset, int rows) {
+        int bucket = 1;
+        for (int r = 0; r < rows; r++) {
+            bucket = 31 * bucket + signature[offset + r];
+        }
+        return bucket;
+    }
+
+    private static int lowerBound(long[] entries, long key) {
+        int low = 0;
+        int high = entries.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (entries[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
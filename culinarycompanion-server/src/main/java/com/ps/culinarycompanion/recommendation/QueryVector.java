@@ -0,0 +1,56 @@
+package com.ps.culinarycompanion.recommendation;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * L2-normalized TF-IDF vector of a query, kept as terms rather than term ids so the same query can be scored against
+ * several indexes with different vocabularies.
+ *
+ * @param terms    the distinct query terms
+ * @param weights  the normalized weight of each term
+ */
+record QueryVector(String[] terms, float[] weights) {
+
+    /**
+     * Vectorizes the given ingredients.
+     *
+     * @param  ingredients  the ingredients to vectorize
+     * @param  idf          the idf of a term, or 0 for terms no index knows, which are dropped
+     * @return              the query vector, empty if no term is known
+     */
+    static QueryVector of(List<String> ingredients, ToDoubleFunction<String> idf) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (String term : IngredientTokenizer.tokenize(String.join(" ", ingredients))) {
+            counts.merge(term, 1, Integer::sum);
+        }
+
+        String[] terms = new String[counts.size()];
+        float[] weights = new float[counts.size()];
+        double norm = 0;
+        int q = 0;
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            double weight = entry.getValue() * idf.applyAsDouble(entry.getKey());
+            if (weight > 0) {
+                terms[q] = entry.getKey();
+                weights[q] = (float) weight;
+                norm += weight * weight;
+                q++;
+            }
+        }
+
+        String[] knownTerms = new String[q];
+        float[] normalized = new float[q];
+        for (int i = 0; i < q; i++) {
+            knownTerms[i] = terms[i];
+            normalized[i] = (float) (weights[i] / Math.sqrt(norm));
+        }
+        return new QueryVector(knownTerms, normalized);
+    }
+
+    boolean isEmpty() {
+        return terms.length == 0;
+    }
+}
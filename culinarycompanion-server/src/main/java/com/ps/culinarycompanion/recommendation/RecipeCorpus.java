@@ -0,0 +1,109 @@
+package com.ps.culinarycompanion.recommendation;
+
+import com.ps.culinarycompanion.recipes.CsvReader;
+import com.ps.culinarycompanion.recipes.StoredRecipe;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Reads the recipes the recommendation index is built from: the food.com dataset used by the recmodel and the
+ * recipes stored in recipe_details.
+ */
+public final class RecipeCorpus {
+
+    private static final String RECIPES_WITH_INGREDIENTS = """
+            select r.recipe_id, r.title, r.description, r.instructions, i.name
+            from recipe_details r
+            left join recipe_ingredients ri on ri.recipe_id = r.recipe_id
+            left join ingredient_details i on i.ingredient_id = ri.ingredient_id
+            order by r.recipe_id""";
+
+    private RecipeCorpus() {
+
+    }
+
+    /**
+     * Reads every recipe of a food.com recipes.csv file, streaming it row by row.
+     *
+     * @param  path       the CSV file
+     * @param  documents  the list to append the recipes to
+     * @throws IOException if the file cannot be read
+     */
+    public static void readDataset(Path path, List<RecipeDocument> documents) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8);
+             CsvReader csv = new CsvReader(reader)) {
+            String[] record;
+            while ((record = csv.next()) != null) {
+                String ingredients = csv.get(record, "ingredients");
+                documents.add(new RecipeDocument(RecipeDocument.EXTERNAL, ingredients, new RecipeRecommendation(
+                        csv.get(record, "name"), csv.get(record, "description"), ingredients,
+                        csv.get(record, "steps"))));
+            }
+        }
+    }
+
+    /**
+     * Reads every recipe in recipe_details over a plain JDBC connection, for use outside the application context.
+     *
+     * @param  connection  the database connection
+     * @param  documents   the list to append the recipes to
+     * @throws SQLException if the query fails
+     */
+    public static void readDatabase(Connection connection, List<RecipeDocument> documents) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery(RECIPES_WITH_INGREDIENTS)) {
+            int recipeId = 0;
+            String title = null;
+            String description = null;
+            String instructions = null;
+            List<String> names = new ArrayList<>();
+            boolean pending = false;
+            while (rows.next()) {
+                if (pending && rows.getInt(1) != recipeId) {
+                    documents.add(document(recipeId, title, description, instructions, names));
+                    names = new ArrayList<>();
+                }
+                recipeId = rows.getInt(1);
+                title = rows.getString(2);
+                description = rows.getString(3);
+                instructions = rows.getString(4);
+                if (rows.getString(5) != null) {
+                    names.add(rows.getString(5));
+                }
+                pending = true;
+            }
+            if (pending) {
+                documents.add(document(recipeId, title, description, instructions, names));
+            }
+        }
+    }
+
+    /**
+     * Converts a stored recipe into an index document.
+     *
+     * @param  recipe  the recipe as read from the database
+     * @return         the document to index
+     */
+    public static RecipeDocument fromRecipe(StoredRecipe recipe) {
+        return document(recipe.recipeId(), recipe.title(), recipe.description(), recipe.instructions(),
+                recipe.ingredientNames());
+    }
+
+    static RecipeDocument document(int recipeId, String title, String description, String instructions,
+                                   List<String> ingredientNames) {
+        String ingredients = String.join(", ", ingredientNames);
+        return new RecipeDocument(recipeId, ingredients, new RecipeRecommendation(title,
+                Objects.toString(description, ""), ingredients, Objects.toString(instructions, "")));
+    }
+}
@@ -0,0 +1,14 @@
+package com.ps.culinarycompanion.recommendation;
+
+/**
+ * A recipe as seen by the recommendation index: the text that is vectorized plus what is returned on a match.
+ *
+ * @param recipeId        the recipe_details id, or {@link #EXTERNAL} for recipes that only exist in the dataset
+ * @param ingredientText  the ingredient text the TF-IDF vector is computed from
+ * @param recommendation  the payload returned when this recipe is recommended
+ */
+public record RecipeDocument(int recipeId, String ingredientText, RecipeRecommendation recommendation) {
+
+    public static final int EXTERNAL = -1;
+
+}
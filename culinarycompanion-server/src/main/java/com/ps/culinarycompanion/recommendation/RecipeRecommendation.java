@@ -0,0 +1,12 @@
+package com.ps.culinarycompanion.recommendation;
+
+/**
+ * A single recommended recipe, serialized in the same shape the Flask recommender returns.
+ *
+ * @param title         the recipe title
+ * @param description   the recipe description
+ * @param ingredients   the recipe ingredients as a display string
+ * @param instructions  the recipe instructions as a display string
+ */
+public record RecipeRecommendation(String title, String description, String ingredients, String instructions) {
+}
@@ -3,24 +3,40 @@ package com.ps.culinarycompanion.recommendation;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 public class RecommendationController {
 
+    /**
+     * Number of pantries of a batch request scored together before their results are streamed.
+     */
+    private static final int BATCH_CHUNK_SIZE = 64;
+
+    private final RecommendationService recommendationService;
+
+    private final ItemSimilarityService itemSimilarityService;
+
     private final ObjectMapper objectMapper;
 
-    public RecommendationController(ObjectMapper objectMapper) {
+    public RecommendationController(RecommendationService recommendationService,
+                                    ItemSimilarityService itemSimilarityService, ObjectMapper objectMapper) {
+        this.recommendationService = recommendationService;
+        this.itemSimilarityService = itemSimilarityService;
         this.objectMapper = objectMapper;
     }
 
@@ -28,25 +44,90 @@ public class RecommendationController {
      * Retrieves recipe recommendations based on a list of ingredients.
      *
      * @param  ingredients  the list of ingredients to use for recommendations
-     * @return             a ResponseEntity containing the recommendations in the response body
+     * @param  n            the number of recipes to return, at most 100
+     * @param  mode         "exact" to score every recipe, or "approximate" to score only MinHash/LSH candidates
+     * @return             a future ResponseEntity containing the recommendations in the response body;
+     *                     the request thread is released while the recommendations are computed
      */
     @PostMapping("/api/recipes/recommendations")
-    public ResponseEntity<String> getRecipeRecommendations(@Valid @RequestBody List<String> ingredients) {
+    public CompletableFuture<ResponseEntity<?>> getRecipeRecommendations(@Valid @RequestBody List<String> ingredients,
+                                                                         @RequestParam(defaultValue = "5") int n,
+                                                                         @RequestParam(defaultValue = "exact")
+                                                                         String mode) {
+        SearchMode searchMode;
         try {
-            HttpClient httpClient = HttpClient.newHttpClient();
-            String url = "FLASK_API_URL";
-            String data = objectMapper.writeValueAsString(ingredients);
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .header("Content-Type", "application/json")
-                    .POST(HttpRequest.BodyPublishers.ofString(data))
-                    .build();
-            httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            return new ResponseEntity<>(response.body(), HttpStatus.OK);
-        } catch (Exception ex) {
-            return new ResponseEntity<>(ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+            searchMode = SearchMode.valueOf(mode.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>("Unknown mode: " + mode, HttpStatus.BAD_REQUEST));
         }
+        return recommendationService.getRecommendations(ingredients, n, searchMode)
+                .<ResponseEntity<?>>thenApply(recommendations -> new ResponseEntity<>(recommendations, HttpStatus.OK))
+                .exceptionally(ex -> new ResponseEntity<>(ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE));
+    }
+
+    /**
+     * Retrieves recipe recommendations for many pantries in one call. Pantries are scored in chunks sharing a single
+     * pass over the index, and each chunk's results are streamed back as soon as it is scored, one JSON object per
+     * line in request order.
+     *
+     * @param  requests  the pantries to recommend recipes for
+     * @param  n         the number of recipes to return per pantry, at most 100
+     * @return           a ResponseEntity streaming one {@link BatchRecommendationResult} per pantry as NDJSON
+     */
+    @PostMapping("/api/recipes/recommendations/batch")
+    public ResponseEntity<StreamingResponseBody> getBatchRecipeRecommendations(
+            @Valid @RequestBody List<BatchRecommendationRequest> requests, @RequestParam(defaultValue = "5") int n) {
+        StreamingResponseBody body = out -> {
+            for (int from = 0; from < requests.size(); from += BATCH_CHUNK_SIZE) {
+                List<BatchRecommendationRequest> chunk =
+                        requests.subList(from, Math.min(from + BATCH_CHUNK_SIZE, requests.size()));
+                List<BatchRecommendationResult> results = new ArrayList<>(chunk.size());
+                try {
+                    List<List<RecipeRecommendation>> recommendations = recommendationService.getBatchRecommendations(
+                            chunk.stream().map(BatchRecommendationRequest::ingredients).toList(), n);
+                    for (int i = 0; i < chunk.size(); i++) {
+                        results.add(new BatchRecommendationResult(chunk.get(i).userId(), recommendations.get(i),
+                                null));
+                    }
+                } catch (RuntimeException ex) {
+                    for (BatchRecommendationRequest request : chunk) {
+                        results.add(new BatchRecommendationResult(request.userId(), null, ex.getMessage()));
+                    }
+                }
+                for (BatchRecommendationResult result : results) {
+                    out.write(objectMapper.writeValueAsBytes(result));
+                    out.write('\n');
+                }
+                out.flush();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Retrieves the recipes most often liked by the users who rated the given recipe.
+     *
+     * @param  id     the ID of the recipe
+     * @param  limit  the number of recipes to return, at most 50
+     * @return        a ResponseEntity containing the similar recipes, most similar first
+     */
+    @GetMapping("/api/recipes/{id}/similar")
+    public ResponseEntity<List<SimilarRecipe>> getSimilarRecipes(@PathVariable Integer id,
+                                                                 @RequestParam(defaultValue = "10") int limit) {
+        return new ResponseEntity<>(itemSimilarityService.getSimilarRecipes(id, limit), HttpStatus.OK);
+    }
+
+    /**
+     * Rebuilds the recommendation index from the dataset and recipe_details and clears cached recommendations.
+     *
+     * @return  a ResponseEntity with no content
+     * @throws IOException if the dataset cannot be read
+     */
+    @PostMapping("/api/recipes/recommendations/reload")
+    public ResponseEntity<?> reloadRecommendations() throws IOException {
+        recommendationService.reload();
+        return ResponseEntity.noContent().build();
     }
 
 }
@@ -0,0 +1,285 @@
+package com.ps.culinarycompanion.recommendation;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Immutable view of the recommendation corpus made of a large base {@link TfIdfIndex} and a small delta of recipes
+ * written since the base was built, so a recipe write does not rebuild the whole index.
+ * <p>
+ * Updated and deleted recipes are hidden from the base with a tombstone bitmap, and updated or new recipes are held
+ * in a delta index weighted with the base idf so scores from both halves are comparable. Every write returns a new
+ * instance and only rebuilds the delta, so queries keep a consistent view without locking. {@link #compact()} folds
+ * the delta into a new base once enough writes have accumulated.
+ * <p>
+ * Each view records when recipe_details was last read into it. Later writes are known only from this server's
+ * change events, so a view mapped from a snapshot is {@link #reconcile reconciled} with the recipes written since.
+ * <p>
+ * The LSH tables used by {@link SearchMode#APPROXIMATE} are built with the base, off the request path, and shared by
+ * every view over the same base; the delta is always scored exactly.
+ */
+final class RecommendationIndex {
+
+    static final RecommendationIndex EMPTY = of(TfIdfIndex.EMPTY, Instant.EPOCH);
+
+    private final TfIdfIndex base;
+
+    private final Map<Integer, Integer> baseDocs;
+
+    private final BitSet deleted;
+
+    private final Map<Integer, RecipeDocument> pending;
+
+    private final TfIdfIndex delta;
+
+    private final MinHashLsh lsh;
+
+    private final Instant builtAt;
+
+    private RecommendationIndex(TfIdfIndex base, Map<Integer, Integer> baseDocs, MinHashLsh lsh,
+                                BitSet deleted, Map<Integer, RecipeDocument> pending, Instant builtAt) {
+        this.base = base;
+        this.baseDocs = baseDocs;
+        this.lsh = lsh;
+        this.deleted = deleted;
+        this.pending = pending;
+        this.builtAt = builtAt;
+        this.delta = pending.isEmpty() ? TfIdfIndex.EMPTY
+                : TfIdfIndex.build(new ArrayList<>(pending.values()), base.size() == 0 ? null : base);
+    }
+
+    /**
+     * Wraps a freshly built or mapped index with no pending writes and builds its LSH tables.
+     *
+     * @param  base     the index
+     * @param  builtAt  when recipe_details was read for the index, {@link Instant#EPOCH} if it was not
+     * @return          the view over it
+     */
+    static RecommendationIndex of(TfIdfIndex base, Instant builtAt) {
+        return of(base, MinHashLsh.build(base, MinHashLsh.DEFAULT_BANDS, MinHashLsh.DEFAULT_ROWS), builtAt);
+    }
+
+    private static RecommendationIndex of(TfIdfIndex base, MinHashLsh lsh, Instant builtAt) {
+        Map<Integer, Integer> baseDocs = new HashMap<>();
+        DocumentStore documents = base.documents();
+        for (int doc = 0; doc < documents.size(); doc++) {
+            int recipeId = documents.recipeId(doc);
+            if (recipeId != RecipeDocument.EXTERNAL) {
+                baseDocs.put(recipeId, doc);
+            }
+        }
+        return new RecommendationIndex(base, Collections.unmodifiableMap(baseDocs), lsh, new BitSet(), Map.of(),
+                builtAt);
+    }
+
+    /**
+     * Wraps an identical copy of this view's base, such as the snapshot it was just written to, keeping the LSH
+     * tables already built over it.
+     *
+     * @param  copy  the copy of the base
+     * @return       the view over the copy, with no pending writes
+     */
+    RecommendationIndex withBase(TfIdfIndex copy) {
+        return of(copy, lsh, builtAt);
+    }
+
+    TfIdfIndex base() {
+        return base;
+    }
+
+    /**
+     * Returns when recipe_details was last read into this view. Writes after that are only reflected if this
+     * server applied them.
+     *
+     * @return  the instant, {@link Instant#EPOCH} if recipe_details was never read
+     */
+    Instant builtAt() {
+        return builtAt;
+    }
+
+    int size() {
+        return base.size() - deleted.cardinality() + pending.size();
+    }
+
+    /**
+     * Returns the number of writes not yet folded into the base.
+     *
+     * @return  the number of tombstoned base documents plus the number of delta documents
+     */
+    int pendingChanges() {
+        return deleted.cardinality() + pending.size();
+    }
+
+    /**
+     * Adds a recipe or replaces its previous version.
+     *
+     * @param  document  the recipe document
+     * @return           the updated view
+     */
+    RecommendationIndex upsert(RecipeDocument document) {
+        Map<Integer, RecipeDocument> updated = new LinkedHashMap<>(pending);
+        updated.remove(document.recipeId());
+        updated.put(document.recipeId(), document);
+        return new RecommendationIndex(base, baseDocs, lsh, tombstone(document.recipeId()), updated, builtAt);
+    }
+
+    /**
+     * Removes a recipe.
+     *
+     * @param  recipeId  the recipe id
+     * @return           the updated view, or this one if the recipe is not indexed
+     */
+    RecommendationIndex delete(int recipeId) {
+        if (!pending.containsKey(recipeId) && !baseDocs.containsKey(recipeId)) {
+            return this;
+        }
+        Map<Integer, RecipeDocument> updated = new LinkedHashMap<>(pending);
+        updated.remove(recipeId);
+        return new RecommendationIndex(base, baseDocs, lsh, tombstone(recipeId), updated, builtAt);
+    }
+
+    /**
+     * Finds the live documents most similar to the given ingredients by cosine similarity.
+     *
+     * @param  ingredients  the ingredients to match
+     * @param  n            the maximum number of documents to return
+     * @param  pool         the pool to score shards on
+     * @param  mode         whether to score every base document or only the LSH candidates
+     * @return              the matching documents, most similar first
+     */
+    List<RecipeDocument> topN(List<String> ingredients, int n, ForkJoinPool pool, SearchMode mode) {
+        QueryVector query = QueryVector.of(ingredients, this::idf);
+        TopKHeap heap = new TopKHeap(Math.max(n, 0));
+        if (mode == SearchMode.APPROXIMATE) {
+            BitSet candidates = lsh.candidates(base.termIds(query));
+            candidates.andNot(deleted);
+            heap.merge(base.rank(query, n, candidates));
+        } else {
+            heap.merge(base.search(query, n, pool, deleted.isEmpty() ? null : deleted));
+        }
+        heap.merge(delta.search(query, n, pool, null), base.size());
+        return documents(heap);
+    }
+
+    /**
+     * Finds the live documents most similar to each of many ingredient lists, scoring the whole batch in a single
+     * pass over the base and delta postings.
+     *
+     * @param  ingredientLists  the ingredient lists to match
+     * @param  n                the maximum number of documents to return per list
+     * @param  pool             the pool to score shards on
+     * @return                  the matching documents for each list, most similar first, in list order
+     */
+    List<List<RecipeDocument>> batchTopN(List<List<String>> ingredientLists, int n, ForkJoinPool pool) {
+        QueryVector[] queries = ingredientLists.stream()
+                .map(ingredients -> QueryVector.of(ingredients, this::idf))
+                .toArray(QueryVector[]::new);
+        TopKHeap[] baseHeaps = base.search(queries, n, pool, deleted.isEmpty() ? null : deleted);
+        TopKHeap[] deltaHeaps = delta.search(queries, n, pool, null);
+
+        List<List<RecipeDocument>> results = new ArrayList<>(queries.length);
+        for (int q = 0; q < queries.length; q++) {
+            TopKHeap heap = new TopKHeap(Math.max(n, 0));
+            heap.merge(baseHeaps[q]);
+            heap.merge(deltaHeaps[q], base.size());
+            results.add(documents(heap));
+        }
+        return results;
+    }
+
+    /**
+     * Rebuilds a single index over every live document, recomputing idf over the whole corpus.
+     *
+     * @return  the compacted view, with no pending writes
+     */
+    RecommendationIndex compact() {
+        List<RecipeDocument> documents = new ArrayList<>(size());
+        for (int doc = 0; doc < base.size(); doc++) {
+            if (!deleted.get(doc)) {
+                documents.add(base.document(doc));
+            }
+        }
+        documents.addAll(pending.values());
+        return of(TfIdfIndex.build(documents), builtAt);
+    }
+
+    /**
+     * Rebuilds a single index over the external documents of the base and the given stored recipes, which replace
+     * every stored recipe indexed so far, recomputing idf over the whole corpus.
+     *
+     * @param  storedRecipes  every recipe currently in recipe_details
+     * @param  readAt         when the stored recipes were read
+     * @return                the rebuilt view, with no pending writes
+     */
+    RecommendationIndex withStoredRecipes(List<RecipeDocument> storedRecipes, Instant readAt) {
+        List<RecipeDocument> documents = new ArrayList<>(base.size() - baseDocs.size() + storedRecipes.size());
+        DocumentStore baseDocuments = base.documents();
+        for (int doc = 0; doc < baseDocuments.size(); doc++) {
+            if (baseDocuments.recipeId(doc) == RecipeDocument.EXTERNAL) {
+                documents.add(base.document(doc));
+            }
+        }
+        documents.addAll(storedRecipes);
+        return of(TfIdfIndex.build(documents), readAt);
+    }
+
+    /**
+     * Catches up with recipe_details without rebuilding the base: the given recipes are upserted and every stored
+     * recipe no longer in recipe_details is removed, with a single delta build.
+     *
+     * @param  modified   the recipes written since this view was built
+     * @param  storedIds  the id of every recipe currently in recipe_details
+     * @param  readAt     when the recipes were read
+     * @return            the reconciled view
+     */
+    RecommendationIndex reconcile(List<RecipeDocument> modified, Set<Integer> storedIds, Instant readAt) {
+        Map<Integer, RecipeDocument> updated = new LinkedHashMap<>(pending);
+        updated.keySet().retainAll(storedIds);
+        BitSet tombstones = (BitSet) deleted.clone();
+        baseDocs.forEach((recipeId, doc) -> {
+            if (!storedIds.contains(recipeId)) {
+                tombstones.set(doc);
+            }
+        });
+        for (RecipeDocument document : modified) {
+            updated.remove(document.recipeId());
+            updated.put(document.recipeId(), document);
+            Integer doc = baseDocs.get(document.recipeId());
+            if (doc != null) {
+                tombstones.set(doc);
+            }
+        }
+        return new RecommendationIndex(base, baseDocs, lsh, tombstones, updated, readAt);
+    }
+
+    private double idf(String term) {
+        float idf = base.idf(term);
+        return idf > 0 ? idf : delta.idf(term);
+    }
+
+    private List<RecipeDocument> documents(TopKHeap heap) {
+        List<RecipeDocument> results = new ArrayList<>(heap.size());
+        for (int doc : heap.drainDescending()) {
+            results.add(doc < base.size() ? base.document(doc) : delta.document(doc - base.size()));
+        }
+        return results;
+    }
+
+    private BitSet tombstone(int recipeId) {
+        Integer doc = baseDocs.get(recipeId);
+        if (doc == null || deleted.get(doc)) {
+            return deleted;
+        }
+        BitSet updated = (BitSet) deleted.clone();
+        updated.set(doc);
+        return updated;
+    }
+}
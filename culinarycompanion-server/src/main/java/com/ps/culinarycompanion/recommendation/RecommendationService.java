@@ -0,0 +1,410 @@
+package com.ps.culinarycompanion.recommendation;
+
+import com.ps.culinarycompanion.cache.BoundedCache;
+import com.ps.culinarycompanion.cache.CacheMetrics;
+import com.ps.culinarycompanion.recipes.RecipeChangedEvent;
+import com.ps.culinarycompanion.recipes.RecipesImportedEvent;
+import com.ps.culinarycompanion.recipes.StoredRecipe;
+import com.ps.culinarycompanion.recipes.StoredRecipeReader;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+@Service
+public class RecommendationService {
+
+    private static final Logger log = LoggerFactory.getLogger(RecommendationService.class);
+
+    public static final int MAX_RECOMMENDATIONS = 100;
+
+    /**
+     * How far before a snapshot's build time recipe writes are read again when it is mapped, covering clock skew
+     * between servers and transactions that committed after stamping their rows.
+     */
+    private static final Duration CATCH_UP_MARGIN = Duration.ofMinutes(5);
+
+    private final StoredRecipeReader storedRecipeReader;
+
+    private final FlaskRecommendationClient flaskClient;
+
+    private final String engine;
+
+    private final String datasetPath;
+
+    private final String snapshotPath;
+
+    private final boolean snapshotWriter;
+
+    private final BoundedCache<String, List<RecipeRecommendation>> cache;
+
+    private final ForkJoinPool scoringPool;
+
+    private final Object writeLock = new Object();
+
+    private volatile RecommendationIndex index = RecommendationIndex.EMPTY;
+
+    /**
+     * Writes applied while a new base index is being built, replayed onto it before it is swapped in. Null when no
+     * build is running. Guarded by {@link #writeLock}.
+     */
+    private List<UnaryOperator<RecommendationIndex>> writesDuringRebuild;
+
+    public RecommendationService(StoredRecipeReader storedRecipeReader, FlaskRecommendationClient flaskClient,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${recommendation.engine:local}") String engine,
+                                 @Value("${recommendation.dataset-path:}") String datasetPath,
+                                 @Value("${recommendation.snapshot-path:}") String snapshotPath,
+                                 @Value("${recommendation.snapshot-writer:false}") boolean snapshotWriter,
+                                 @Value("${recommendation.cache.max-entries:10000}") int cacheMaxEntries,
+                                 @Value("${recommendation.cache.ttl:10m}") Duration cacheTtl,
+                                 @Value("${recommendation.parallelism:0}") int parallelism) {
+        this.storedRecipeReader = storedRecipeReader;
+        this.flaskClient = flaskClient;
+        this.engine = engine;
+        this.datasetPath = datasetPath;
+        this.snapshotPath = snapshotPath;
+        this.snapshotWriter = snapshotWriter;
+        this.cache = new BoundedCache<>(cacheMaxEntries, cacheTtl);
+        CacheMetrics.register(meterRegistry, "recommendations", cache);
+        this.scoringPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Builds the in-process index once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        if ("flask".equals(engine)) {
+            return;
+        }
+        try {
+            reload();
+        } catch (Exception ex) {
+            log.error("Unable to build recommendation index, falling back to Flask", ex);
+        }
+    }
+
+    /**
+     * Maps the index snapshot if one is configured and catches it up with the recipes written since it was built.
+     * Otherwise, or if the snapshot cannot be mapped, rebuilds the index from the food.com dataset (if configured)
+     * and every recipe in recipe_details, and writes the snapshot if this server is its writer. The new index is
+     * swapped in atomically. Queries keep using the previous index while the new one is built. Cached
+     * recommendations are dropped once the new index is in place.
+     *
+     * @throws IOException if the dataset cannot be read
+     */
+    public synchronized void reload() throws IOException {
+        long start = System.nanoTime();
+        if (!snapshotPath.isBlank() && Files.exists(Path.of(snapshotPath))) {
+            try {
+                IndexSnapshot.Mapped mapped = IndexSnapshot.open(Path.of(snapshotPath));
+                List<RecipeDocument> modified = new ArrayList<>();
+                rebuild(current -> catchUp(RecommendationIndex.of(mapped.index(), mapped.builtAt()), modified));
+                log.info("Mapped recommendation index snapshot of {} recipes and caught up with {} recipe writes "
+                        + "in {} ms", mapped.index().size(), modified.size(), (System.nanoTime() - start) / 1_000_000);
+                return;
+            } catch (IOException ex) {
+                log.warn("Unable to map recommendation index snapshot {}, rebuilding the index", snapshotPath, ex);
+            }
+        }
+
+        // Read inside the rebuild, so recipe writes committed while the corpus is read are replayed onto the new index
+        List<RecipeDocument> documents = new ArrayList<>();
+        try {
+            rebuild(current -> {
+                if (!datasetPath.isBlank()) {
+                    readDataset(documents);
+                }
+                Instant readAt = Instant.now();
+                storedRecipeReader.forEach(recipe -> documents.add(RecipeCorpus.fromRecipe(recipe)));
+                return writeSnapshot(RecommendationIndex.of(TfIdfIndex.build(documents), readAt));
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        log.info("Built recommendation index over {} recipes in {} ms", documents.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Applies a committed recipe write to the index without rebuilding it. The recipe is upserted into the small
+     * delta index, or tombstoned if it was deleted, and cached recommendations are dropped.
+     *
+     * @param  event  the recipe change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        if ("flask".equals(engine)) {
+            return;
+        }
+        if (event.deleted()) {
+            apply(current -> current.delete(event.recipeId()));
+        } else {
+            RecipeDocument document = RecipeCorpus.document(event.recipeId(), event.title(), event.description(),
+                    event.instructions(), event.ingredientNames());
+            apply(current -> current.upsert(document));
+        }
+    }
+
+    /**
+     * Rebuilds the index in the background after a bulk import, whose recipes were written without per-recipe
+     * change events. See {@link #refreshStoredRecipes()}.
+     *
+     * @param  event  the import
+     */
+    @Async
+    @EventListener
+    public void onRecipesImported(RecipesImportedEvent event) {
+        if ("flask".equals(engine)) {
+            return;
+        }
+        try {
+            refreshStoredRecipes();
+        } catch (RuntimeException ex) {
+            log.error("Unable to rebuild recommendation index after importing {}", event.source(), ex);
+        }
+    }
+
+    /**
+     * Rebuilds the index from the food.com recipes of the current index and every recipe in recipe_details, streamed
+     * over JDBC. The rebuilt index is written back to the snapshot if this server is its writer, so a restart maps
+     * the imported recipes too.
+     */
+    public synchronized void refreshStoredRecipes() {
+        long start = System.nanoTime();
+        List<RecipeDocument> storedRecipes = new ArrayList<>();
+        rebuild(latest -> {
+            Instant readAt = Instant.now();
+            storedRecipeReader.forEach(recipe -> storedRecipes.add(RecipeCorpus.fromRecipe(recipe)));
+            return writeSnapshot(latest.withStoredRecipes(storedRecipes, readAt));
+        });
+        log.info("Rebuilt recommendation index over {} stored recipes in {} ms", storedRecipes.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Folds the recipes written since the last build into a new base index in the background, so the delta
+     * searched on every query stays small and idf reflects the whole corpus. The compacted index is written back
+     * to the snapshot if this server is its writer, and mapped in place of the heap copy.
+     */
+    @Scheduled(fixedDelayString = "${recommendation.compaction-interval:PT5M}",
+            initialDelayString = "${recommendation.compaction-interval:PT5M}")
+    public synchronized void compact() {
+        RecommendationIndex current = index;
+        if (current.pendingChanges() == 0) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        int pendingChanges = current.pendingChanges();
+        rebuild(latest -> writeSnapshot(latest.compact()));
+        log.info("Compacted {} recipe changes into the recommendation index in {} ms", pendingChanges,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Writes the base of a freshly built index to the snapshot and maps it in place of the heap copy, if a snapshot
+     * is configured and this server is its writer. Servers sharing a snapshot would otherwise each rewrite it on
+     * their own schedule. Keeps the heap copy if the snapshot cannot be written.
+     */
+    private RecommendationIndex writeSnapshot(RecommendationIndex built) {
+        if (snapshotPath.isBlank() || !snapshotWriter) {
+            return built;
+        }
+        try {
+            IndexSnapshot.write(built.base(), built.builtAt(), Path.of(snapshotPath));
+            return built.withBase(IndexSnapshot.open(Path.of(snapshotPath)).index());
+        } catch (IOException ex) {
+            log.warn("Unable to write recommendation index snapshot {}", snapshotPath, ex);
+            return built;
+        }
+    }
+
+    /**
+     * Catches a mapped snapshot up with recipe_details: the recipes modified since it was built are upserted and the
+     * recipes deleted since are removed. A snapshot built without reading recipe_details takes every stored recipe.
+     */
+    private RecommendationIndex catchUp(RecommendationIndex mapped, List<RecipeDocument> modified) {
+        Instant readAt = Instant.now();
+        Consumer<StoredRecipe> collect = recipe -> modified.add(RecipeCorpus.fromRecipe(recipe));
+        if (Instant.EPOCH.equals(mapped.builtAt())) {
+            storedRecipeReader.forEach(collect);
+        } else {
+            storedRecipeReader.forEachModifiedSince(mapped.builtAt().minus(CATCH_UP_MARGIN), collect);
+        }
+        return mapped.reconcile(modified, storedRecipeReader.recipeIds(), readAt);
+    }
+
+    /**
+     * Builds a new index from the current one outside the write lock, then replays the writes that arrived
+     * meanwhile and swaps it in.
+     */
+    private void rebuild(UnaryOperator<RecommendationIndex> builder) {
+        RecommendationIndex current;
+        synchronized (writeLock) {
+            current = index;
+            writesDuringRebuild = new ArrayList<>();
+        }
+        RecommendationIndex rebuilt;
+        try {
+            rebuilt = builder.apply(current);
+        } catch (RuntimeException ex) {
+            synchronized (writeLock) {
+                writesDuringRebuild = null;
+            }
+            throw ex;
+        }
+        synchronized (writeLock) {
+            for (UnaryOperator<RecommendationIndex> write : writesDuringRebuild) {
+                rebuilt = write.apply(rebuilt);
+            }
+            writesDuringRebuild = null;
+            index = rebuilt;
+            cache.invalidateAll();
+        }
+    }
+
+    private void readDataset(List<RecipeDocument> documents) {
+        try {
+            RecipeCorpus.readDataset(Path.of(datasetPath), documents);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void apply(UnaryOperator<RecommendationIndex> write) {
+        synchronized (writeLock) {
+            index = write.apply(index);
+            if (writesDuringRebuild != null) {
+                writesDuringRebuild.add(write);
+            }
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * Retrieves the recipes most similar to the given ingredients. Uses the in-process index when it is loaded
+     * and the Flask recommender otherwise, so callers never block on the upstream service. Results are cached
+     * by canonical ingredient set, so lists differing only in order or case are scored once.
+     *
+     * @param  ingredients  the list of ingredients to use for recommendations
+     * @param  n            the number of recipes to return, capped at {@link #MAX_RECOMMENDATIONS}
+     * @param  mode         whether the in-process index scores every recipe or only its LSH candidates
+     * @return              a future completed with the recommended recipes, most similar first
+     */
+    public CompletableFuture<List<RecipeRecommendation>> getRecommendations(List<String> ingredients, int n,
+                                                                            SearchMode mode) {
+        int limit = Math.min(Math.max(n, 0), MAX_RECOMMENDATIONS);
+        List<String> canonical = IngredientKeys.canonicalize(ingredients);
+        String key = mode + "\n" + limit + "\n" + String.join("\n", canonical);
+        List<RecipeRecommendation> cached = cache.get(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        RecommendationIndex current = index;
+        if (current.size() == 0 && flaskClient.isConfigured()) {
+            // The recmodel always answers with its own fixed number of recipes
+            return flaskClient.getRecommendations(canonical)
+                    .thenApply(recommendations -> recommendations.subList(0, Math.min(limit, recommendations.size())))
+                    .thenApply(recommendations -> cacheIfCurrent(current, key, recommendations));
+        }
+
+        List<RecipeRecommendation> recommendations = current.topN(canonical, limit, scoringPool, mode).stream()
+                .map(RecipeDocument::recommendation)
+                .toList();
+        return CompletableFuture.completedFuture(cacheIfCurrent(current, key, recommendations));
+    }
+
+    /**
+     * Retrieves recommendations for many ingredient lists at once. Lists already cached are answered from the
+     * cache and the rest are scored together in a single pass over the index, identical lists being scored once.
+     *
+     * @param  ingredientLists  the ingredient lists to use for recommendations
+     * @param  n                the number of recipes to return per list, capped at {@link #MAX_RECOMMENDATIONS}
+     * @return                  the recommended recipes for each list, most similar first, in list order
+     */
+    public List<List<RecipeRecommendation>> getBatchRecommendations(List<List<String>> ingredientLists, int n) {
+        int limit = Math.min(Math.max(n, 0), MAX_RECOMMENDATIONS);
+        List<List<RecipeRecommendation>> results = new ArrayList<>(Collections.nCopies(ingredientLists.size(), null));
+        Map<String, List<String>> missed = new LinkedHashMap<>();
+        Map<String, List<Integer>> positions = new HashMap<>();
+        for (int i = 0; i < ingredientLists.size(); i++) {
+            List<String> canonical = IngredientKeys.canonicalize(
+                    ingredientLists.get(i) == null ? List.of() : ingredientLists.get(i));
+            String key = SearchMode.EXACT + "\n" + limit + "\n" + String.join("\n", canonical);
+            List<RecipeRecommendation> cached = cache.get(key);
+            if (cached != null) {
+                results.set(i, cached);
+            } else {
+                missed.put(key, canonical);
+                positions.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+            }
+        }
+        if (missed.isEmpty()) {
+            return results;
+        }
+
+        RecommendationIndex current = index;
+        List<String> keys = new ArrayList<>(missed.keySet());
+        List<List<RecipeRecommendation>> scored;
+        if (current.size() == 0 && flaskClient.isConfigured()) {
+            List<CompletableFuture<List<RecipeRecommendation>>> pending = keys.stream()
+                    .map(key -> getRecommendations(missed.get(key), limit, SearchMode.EXACT))
+                    .toList();
+            scored = pending.stream().map(CompletableFuture::join).toList();
+        } else {
+            scored = current.batchTopN(new ArrayList<>(missed.values()), limit, scoringPool).stream()
+                    .map(documents -> documents.stream().map(RecipeDocument::recommendation).toList())
+                    .toList();
+        }
+
+        for (int k = 0; k < keys.size(); k++) {
+            List<RecipeRecommendation> recommendations = cacheIfCurrent(current, keys.get(k), scored.get(k));
+            for (int position : positions.get(keys.get(k))) {
+                results.set(position, recommendations);
+            }
+        }
+        return results;
+    }
+
+    private List<RecipeRecommendation> cacheIfCurrent(RecommendationIndex scoredWith, String key,
+                                                      List<RecipeRecommendation> recommendations) {
+        // A reload or recipe write may have cleared the cache while this request was being scored
+        if (scoredWith == index) {
+            cache.put(key, recommendations);
+        }
+        return recommendations;
+    }
+
+    @PreDestroy
+    public void close() {
+        scoringPool.shutdown();
+    }
+
+}
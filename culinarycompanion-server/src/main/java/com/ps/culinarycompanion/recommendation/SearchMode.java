@@ -0,0 +1,18 @@
+package com.ps.culinarycompanion.recommendation;
+
+/**
+ * How the in-process index finds the recipes to recommend.
+ */
+public enum SearchMode {
+
+    /**
+     * Scores the query against every recipe sharing a term with it.
+     */
+    EXACT,
+
+    /**
+     * Scores only the candidates found by MinHash/LSH over ingredient term sets. Much cheaper on large corpora, at
+     * the cost of occasionally missing a recipe with low Jaccard similarity to the query.
+     */
+    APPROXIMATE
+}
@@ -0,0 +1,11 @@
+package com.ps.culinarycompanion.recommendation;
+
+/**
+ * A recipe liked by the same users as another recipe.
+ *
+ * @param recipeId    the recipe id
+ * @param title       the recipe title
+ * @param similarity  the cosine similarity between the two recipes' ratings
+ */
+public record SimilarRecipe(int recipeId, String title, float similarity) {
+}
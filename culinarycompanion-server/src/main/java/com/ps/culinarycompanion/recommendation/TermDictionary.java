@@ -0,0 +1,63 @@
+package com.ps.culinarycompanion.recommendation;
+
+import java.util.Arrays;
+
+/**
+ * Sorted vocabulary of an index. Term ids are positions in lexicographic ({@link String#compareTo}) order, which lets
+ * the same ids be used whether the terms live on the heap or in a mapped snapshot.
+ */
+interface TermDictionary {
+
+    int size();
+
+    String term(int id);
+
+    /**
+     * Looks up a term by binary search.
+     *
+     * @param  term  the term
+     * @return       the term id, or -1 if the term is not in the vocabulary
+     */
+    default int lookup(String term) {
+        int low = 0;
+        int high = size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = term(mid).compareTo(term);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Creates a dictionary over terms already held in sorted order.
+     *
+     * @param  sortedTerms  the terms, sorted and distinct
+     * @return              the dictionary
+     */
+    static TermDictionary of(String[] sortedTerms) {
+        return new TermDictionary() {
+            @Override
+            public int size() {
+                return sortedTerms.length;
+            }
+
+            @Override
+            public String term(int id) {
+                return sortedTerms[id];
+            }
+
+            @Override
+            public int lookup(String term) {
+                int id = Arrays.binarySearch(sortedTerms, term);
+                return id < 0 ? -1 : id;
+            }
+        };
+    }
+}
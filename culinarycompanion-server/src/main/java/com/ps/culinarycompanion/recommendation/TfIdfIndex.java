@@ -0,0 +1,545 @@
+package com.ps.culinarycompanion.recommendation;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Immutable sparse TF-IDF index over recipe ingredient text.
+ * <p>
+ * Weights follow scikit-learn's TfidfVectorizer defaults (raw term counts, smoothed idf, L2-normalized rows), so
+ * scores match the cosine similarities computed by the recmodel. Postings are stored term-major in flat primitive
+ * buffers: the documents containing term {@code t} are {@code postingDocs[postingOffsets[t] .. postingOffsets[t + 1])}
+ * in ascending order, with their normalized weights alongside in {@code postingWeights}. The buffers wrap heap arrays
+ * when the index is built in-process and map the file directly when it is opened from an {@link IndexSnapshot}.
+ */
+public final class TfIdfIndex {
+
+    public static final TfIdfIndex EMPTY = build(List.of());
+
+    // Below this many documents per shard, forking costs more than the scoring it parallelizes
+    private static final int MIN_SHARD_SIZE = 8192;
+
+    private final TermDictionary terms;
+
+    private final FloatBuffer idf;
+
+    private final IntBuffer postingOffsets;
+
+    private final IntBuffer postingDocs;
+
+    private final FloatBuffer postingWeights;
+
+    private final DocumentStore documents;
+
+    TfIdfIndex(TermDictionary terms, FloatBuffer idf, IntBuffer postingOffsets, IntBuffer postingDocs,
+               FloatBuffer postingWeights, DocumentStore documents) {
+        this.terms = terms;
+        this.idf = idf;
+        this.postingOffsets = postingOffsets;
+        this.postingDocs = postingDocs;
+        this.postingWeights = postingWeights;
+        this.documents = documents;
+    }
+
+    /**
+     * Builds an index over the given documents. Document ids are positions in the list.
+     *
+     * @param  documents  the recipes to index
+     * @return            the built index
+     */
+    public static TfIdfIndex build(List<RecipeDocument> documents) {
+        return build(documents, null);
+    }
+
+    /**
+     * Builds an index over the given documents, optionally weighting terms with another index's idf so that scores
+     * from both indexes are comparable. Terms the other index does not know are weighted as if they occurred in a
+     * single one of its documents.
+     *
+     * @param  documents  the recipes to index
+     * @param  idfSource  the index whose idf to use, or null to compute idf from {@code documents}
+     * @return            the built index
+     */
+    public static TfIdfIndex build(List<RecipeDocument> documents, TfIdfIndex idfSource) {
+        Map<String, Integer> vocabulary = new HashMap<>();
+        int[][] docTerms = new int[documents.size()][];
+        int[][] docCounts = new int[documents.size()][];
+        int postings = 0;
+
+        for (int doc = 0; doc < documents.size(); doc++) {
+            Map<Integer, Integer> counts = new HashMap<>();
+            for (String term : IngredientTokenizer.tokenize(documents.get(doc).ingredientText())) {
+                Integer termId = vocabulary.get(term);
+                if (termId == null) {
+                    termId = vocabulary.size();
+                    vocabulary.put(term, termId);
+                }
+                counts.merge(termId, 1, Integer::sum);
+            }
+
+            int[] ids = new int[counts.size()];
+            int[] tfs = new int[counts.size()];
+            int i = 0;
+            for (Map.Entry<Integer, Integer> entry : counts.entrySet()) {
+                ids[i] = entry.getKey();
+                tfs[i] = entry.getValue();
+                i++;
+            }
+            docTerms[doc] = ids;
+            docCounts[doc] = tfs;
+            postings += ids.length;
+        }
+
+        // Renumber terms in sorted order so lookups are a binary search over the dictionary
+        String[] sortedTerms = vocabulary.keySet().toArray(new String[0]);
+        Arrays.sort(sortedTerms);
+        int[] sortedIds = new int[sortedTerms.length];
+        for (int t = 0; t < sortedTerms.length; t++) {
+            sortedIds[vocabulary.get(sortedTerms[t])] = t;
+        }
+
+        int termCount = sortedTerms.length;
+        int[] documentFrequencies = new int[termCount];
+        for (int[] ids : docTerms) {
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = sortedIds[ids[i]];
+                documentFrequencies[ids[i]]++;
+            }
+        }
+
+        float[] idf = new float[termCount];
+        int[] postingOffsets = new int[termCount + 1];
+        for (int t = 0; t < termCount; t++) {
+            if (idfSource == null) {
+                idf[t] = smoothIdf(documents.size(), documentFrequencies[t]);
+            } else {
+                float sourceIdf = idfSource.idf(sortedTerms[t]);
+                idf[t] = sourceIdf > 0 ? sourceIdf : smoothIdf(idfSource.size(), 1);
+            }
+            postingOffsets[t + 1] = postingOffsets[t] + documentFrequencies[t];
+        }
+
+        int[] postingDocs = new int[postings];
+        float[] postingWeights = new float[postings];
+        int[] cursor = Arrays.copyOf(postingOffsets, termCount);
+        for (int doc = 0; doc < documents.size(); doc++) {
+            int[] docTermIds = docTerms[doc];
+            int[] tfs = docCounts[doc];
+            double norm = 0;
+            for (int i = 0; i < docTermIds.length; i++) {
+                double weight = tfs[i] * idf[docTermIds[i]];
+                norm += weight * weight;
+            }
+            norm = Math.sqrt(norm);
+            for (int i = 0; i < docTermIds.length; i++) {
+                int slot = cursor[docTermIds[i]]++;
+                postingDocs[slot] = doc;
+                postingWeights[slot] = (float) (tfs[i] * idf[docTermIds[i]] / norm);
+            }
+        }
+
+        return new TfIdfIndex(TermDictionary.of(sortedTerms), FloatBuffer.wrap(idf), IntBuffer.wrap(postingOffsets),
+                IntBuffer.wrap(postingDocs), FloatBuffer.wrap(postingWeights),
+                DocumentStore.of(List.copyOf(documents)));
+    }
+
+    /**
+     * Returns the number of indexed documents.
+     *
+     * @return  the document count
+     */
+    public int size() {
+        return documents.size();
+    }
+
+    /**
+     * Returns the document with the given id.
+     *
+     * @param  doc  the document id
+     * @return      the indexed document
+     */
+    public RecipeDocument document(int doc) {
+        return documents.get(doc);
+    }
+
+    /**
+     * Returns the idf of a term.
+     *
+     * @param  term  the term
+     * @return       the term's idf, or 0 if the term is not in the vocabulary
+     */
+    public float idf(String term) {
+        int termId = terms.lookup(term);
+        return termId < 0 ? 0 : idf.get(termId);
+    }
+
+    /**
+     * Finds the documents most similar to the given ingredients by cosine similarity.
+     * Documents sharing no terms with the query are never returned.
+     *
+     * @param  ingredients  the ingredients to match
+     * @param  n            the maximum number of documents to return
+     * @param  pool         the pool to score shards on
+     * @return              the matching documents, most similar first
+     */
+    public List<RecipeDocument> topN(List<String> ingredients, int n, ForkJoinPool pool) {
+        List<RecipeDocument> results = new ArrayList<>();
+        for (int doc : search(QueryVector.of(ingredients, this::idf), n, pool, null).drainDescending()) {
+            results.add(documents.get(doc));
+        }
+        return results;
+    }
+
+    /**
+     * Scores the query against every document not in {@code excluded} and keeps the best {@code n}.
+     * <p>
+     * The corpus is split into contiguous document ranges scored in parallel on the given pool. Each shard
+     * accumulates its scores into a local array and keeps only its best {@code n} documents in a bounded heap;
+     * shard heaps are merged as the fork-join tasks complete, so nothing is ever fully sorted.
+     *
+     * @param  query     the query vector
+     * @param  n         the maximum number of documents to keep
+     * @param  pool      the pool to score shards on
+     * @param  excluded  documents that must not be returned, or null
+     * @return           a heap of the best scoring documents
+     */
+    TopKHeap search(QueryVector query, int n, ForkJoinPool pool, BitSet excluded) {
+        if (n <= 0 || documents.size() == 0 || query.isEmpty()) {
+            return new TopKHeap(0);
+        }
+
+        int[] termIds = termIds(query);
+        int[] queryTerms = new int[termIds.length];
+        float[] queryWeights = new float[termIds.length];
+        int q = 0;
+        for (int i = 0; i < termIds.length; i++) {
+            int termId = termIds[i];
+            if (termId >= 0) {
+                queryTerms[q] = termId;
+                queryWeights[q] = query.weights()[i];
+                q++;
+            }
+        }
+        if (q == 0) {
+            return new TopKHeap(0);
+        }
+
+        int shardSize = Math.max(MIN_SHARD_SIZE, documents.size() / (pool.getParallelism() * 4) + 1);
+        return pool.invoke(new ShardScorer(Arrays.copyOf(queryTerms, q), Arrays.copyOf(queryWeights, q), n,
+                excluded, 0, documents.size(), shardSize));
+    }
+
+    /**
+     * Scores many queries in one pass over the index. The query vectors are stacked into a single term-major matrix,
+     * so each posting list touched by any query in the batch is read once per shard and its weights are scattered
+     * into the score rows of every query using that term.
+     *
+     * @param  queries   the query vectors
+     * @param  n         the maximum number of documents to keep per query
+     * @param  pool      the pool to score shards on
+     * @param  excluded  documents that must not be returned, or null
+     * @return           a heap of the best scoring documents for each query, in query order
+     */
+    TopKHeap[] search(QueryVector[] queries, int n, ForkJoinPool pool, BitSet excluded) {
+        // Collect every (term, query, weight) entry, then group the entries by term id
+        int[] rawQueries = new int[Arrays.stream(queries).mapToInt(query -> query.terms().length).sum()];
+        float[] rawWeights = new float[rawQueries.length];
+        TreeMap<Integer, List<Integer>> entriesByTerm = new TreeMap<>();
+        int raw = 0;
+        for (int q = 0; q < queries.length; q++) {
+            int[] termIds = termIds(queries[q]);
+            for (int i = 0; i < termIds.length; i++) {
+                if (termIds[i] >= 0) {
+                    rawQueries[raw] = q;
+                    rawWeights[raw] = queries[q].weights()[i];
+                    entriesByTerm.computeIfAbsent(termIds[i], id -> new ArrayList<>()).add(raw++);
+                }
+            }
+        }
+        if (n <= 0 || documents.size() == 0 || entriesByTerm.isEmpty()) {
+            TopKHeap[] empty = new TopKHeap[queries.length];
+            Arrays.setAll(empty, q -> new TopKHeap(0));
+            return empty;
+        }
+
+        int[] batchTerms = new int[entriesByTerm.size()];
+        int[] entryOffsets = new int[batchTerms.length + 1];
+        int[] entryQueries = new int[raw];
+        float[] entryWeights = new float[raw];
+        int t = 0;
+        int e = 0;
+        for (Map.Entry<Integer, List<Integer>> term : entriesByTerm.entrySet()) {
+            batchTerms[t] = term.getKey();
+            for (int entry : term.getValue()) {
+                entryQueries[e] = rawQueries[entry];
+                entryWeights[e] = rawWeights[entry];
+                e++;
+            }
+            entryOffsets[++t] = e;
+        }
+
+        StackedQueries stacked = new StackedQueries(queries.length, batchTerms, entryOffsets, entryQueries,
+                entryWeights);
+        int shardSize = Math.max(MIN_SHARD_SIZE, documents.size() / (pool.getParallelism() * 4) + 1);
+        return pool.invoke(new BatchShardScorer(stacked, n, excluded, 0, documents.size(), shardSize));
+    }
+
+    /**
+     * Scores the query against the given candidate documents only, looking each query term's weight up in the
+     * candidate's posting by binary search. The cost depends on the number of candidates rather than on the corpus
+     * size, which makes this the exact re-ranking step after approximate candidate generation.
+     *
+     * @param  query       the query vector
+     * @param  n           the maximum number of documents to keep
+     * @param  candidates  the documents to score
+     * @return             a heap of the best scoring candidates
+     */
+    TopKHeap rank(QueryVector query, int n, BitSet candidates) {
+        TopKHeap heap = new TopKHeap(Math.max(n, 0));
+        int[] queryTerms = termIds(query);
+        for (int doc = candidates.nextSetBit(0); doc >= 0 && doc < documents.size();
+             doc = candidates.nextSetBit(doc + 1)) {
+            float score = 0;
+            for (int i = 0; i < queryTerms.length; i++) {
+                if (queryTerms[i] < 0) {
+                    continue;
+                }
+                int end = postingOffsets.get(queryTerms[i] + 1);
+                int p = lowerBound(postingOffsets.get(queryTerms[i]), end, doc);
+                if (p < end && postingDocs.get(p) == doc) {
+                    score += query.weights()[i] * postingWeights.get(p);
+                }
+            }
+            if (score > 0) {
+                heap.offer(score, doc);
+            }
+        }
+        return heap;
+    }
+
+    /**
+     * Resolves the terms of a query against this index's vocabulary.
+     *
+     * @param  query  the query vector
+     * @return        the term id of each query term, or -1 for terms not in the vocabulary
+     */
+    int[] termIds(QueryVector query) {
+        int[] termIds = new int[query.terms().length];
+        for (int i = 0; i < termIds.length; i++) {
+            termIds[i] = terms.lookup(query.terms()[i]);
+        }
+        return termIds;
+    }
+
+    /**
+     * Scores the documents in {@code [from, to)} into a bounded heap.
+     */
+    private TopKHeap scoreShard(int[] queryTerms, float[] queryWeights, int n, BitSet excluded, int from, int to) {
+        float[] scores = new float[to - from];
+        for (int i = 0; i < queryTerms.length; i++) {
+            int term = queryTerms[i];
+            float queryWeight = queryWeights[i];
+            int end = postingOffsets.get(term + 1);
+            for (int p = lowerBound(postingOffsets.get(term), end, from); p < end; p++) {
+                int doc = postingDocs.get(p);
+                if (doc >= to) {
+                    break;
+                }
+                scores[doc - from] += queryWeight * postingWeights.get(p);
+            }
+        }
+
+        TopKHeap heap = new TopKHeap(n);
+        for (int i = 0; i < scores.length; i++) {
+            if (scores[i] > 0 && (excluded == null || !excluded.get(from + i))) {
+                heap.offer(scores[i], from + i);
+            }
+        }
+        return heap;
+    }
+
+    /**
+     * Scores a batch of stacked queries against the documents in {@code [from, to)}, one bounded heap per query.
+     */
+    private TopKHeap[] scoreShard(StackedQueries stacked, int n, BitSet excluded, int from, int to) {
+        int width = to - from;
+        float[] scores = new float[stacked.queryCount() * width];
+        for (int t = 0; t < stacked.terms().length; t++) {
+            int term = stacked.terms()[t];
+            int firstEntry = stacked.entryOffsets()[t];
+            int lastEntry = stacked.entryOffsets()[t + 1];
+            int end = postingOffsets.get(term + 1);
+            for (int p = lowerBound(postingOffsets.get(term), end, from); p < end; p++) {
+                int doc = postingDocs.get(p);
+                if (doc >= to) {
+                    break;
+                }
+                float weight = postingWeights.get(p);
+                for (int e = firstEntry; e < lastEntry; e++) {
+                    scores[stacked.entryQueries()[e] * width + doc - from] += stacked.entryWeights()[e] * weight;
+                }
+            }
+        }
+
+        TopKHeap[] heaps = new TopKHeap[stacked.queryCount()];
+        for (int q = 0; q < heaps.length; q++) {
+            heaps[q] = new TopKHeap(n);
+            int row = q * width;
+            for (int i = 0; i < width; i++) {
+                if (scores[row + i] > 0 && (excluded == null || !excluded.get(from + i))) {
+                    heaps[q].offer(scores[row + i], from + i);
+                }
+            }
+        }
+        return heaps;
+    }
+
+    private static float smoothIdf(int documentCount, int documentFrequency) {
+        return (float) (Math.log((1.0 + documentCount) / (1.0 + documentFrequency)) + 1.0);
+    }
+
+    /**
+     * Returns the first posting in {@code [from, to)} whose document id is at least {@code doc}.
+     */
+    private int lowerBound(int from, int to, int doc) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (postingDocs.get(mid) < doc) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    DocumentStore documents() {
+        return documents;
+    }
+
+    TermDictionary terms() {
+        return terms;
+    }
+
+    FloatBuffer idf() {
+        return idf;
+    }
+
+    IntBuffer postingOffsets() {
+        return postingOffsets;
+    }
+
+    IntBuffer postingDocs() {
+        return postingDocs;
+    }
+
+    FloatBuffer postingWeights() {
+        return postingWeights;
+    }
+
+    private final class ShardScorer extends RecursiveTask<TopKHeap> {
+
+        private final int[] queryTerms;
+
+        private final float[] queryWeights;
+
+        private final int n;
+
+        private final BitSet excluded;
+
+        private final int from;
+
+        private final int to;
+
+        private final int shardSize;
+
+        ShardScorer(int[] queryTerms, float[] queryWeights, int n, BitSet excluded, int from, int to,
+                    int shardSize) {
+            this.queryTerms = queryTerms;
+            this.queryWeights = queryWeights;
+            this.n = n;
+            this.excluded = excluded;
+            this.from = from;
+            this.to = to;
+            this.shardSize = shardSize;
+        }
+
+        @Override
+        protected TopKHeap compute() {
+            if (to - from <= shardSize) {
+                return scoreShard(queryTerms, queryWeights, n, excluded, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            ShardScorer left = new ShardScorer(queryTerms, queryWeights, n, excluded, from, mid, shardSize);
+            left.fork();
+            TopKHeap right = new ShardScorer(queryTerms, queryWeights, n, excluded, mid, to, shardSize)
+                    .compute();
+            TopKHeap merged = left.join();
+            merged.merge(right);
+            return merged;
+        }
+    }
+
+    /**
+     * Query vectors of a batch stacked term-major: the queries using {@code terms[t]} and their weights are
+     * {@code entryQueries} and {@code entryWeights} in {@code [entryOffsets[t], entryOffsets[t + 1])}.
+     */
+    private record StackedQueries(int queryCount, int[] terms, int[] entryOffsets, int[] entryQueries,
+                                  float[] entryWeights) {
+
+    }
+
+    /**
+     * Splits the corpus into document ranges like {@link ShardScorer}, scoring every query of a batch per range.
+     */
+    private final class BatchShardScorer extends RecursiveTask<TopKHeap[]> {
+
+        private final StackedQueries stacked;
+
+        private final int n;
+
+        private final BitSet excluded;
+
+        private final int from;
+
+        private final int to;
+
+        private final int shardSize;
+
+        BatchShardScorer(StackedQueries stacked, int n, BitSet excluded, int from, int to, int shardSize) {
+            this.stacked = stacked;
+            this.n = n;
+            this.excluded = excluded;
+            this.from = from;
+            this.to = to;
+            this.shardSize = shardSize;
+        }
+
+        @Override
+        protected TopKHeap[] compute() {
+            if (to - from <= shardSize) {
+                return scoreShard(stacked, n, excluded, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            BatchShardScorer left = new BatchShardScorer(stacked, n, excluded, from, mid, shardSize);
+            left.fork();
+            TopKHeap[] right = new BatchShardScorer(stacked, n, excluded, mid, to, shardSize).compute();
+            TopKHeap[] merged = left.join();
+            for (int q = 0; q < merged.length; q++) {
+                merged[q].merge(right[q]);
+            }
+            return merged;
+        }
+    }
+}
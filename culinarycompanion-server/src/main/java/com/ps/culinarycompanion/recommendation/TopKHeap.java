@@ -0,0 +1,138 @@
+package com.ps.culinarycompanion.recommendation;
+
+/**
+ * Fixed-capacity min-heap of (score, docId) pairs held in primitive arrays. The root is always the weakest of the
+ * best {@code k} documents seen so far, so offering a document is O(1) when it does not qualify and O(log k)
+ * otherwise. Ties are broken towards the lower document id so results are deterministic.
+ */
+public final class TopKHeap {
+
+    private final float[] scores;
+
+    private final int[] docs;
+
+    private int size;
+
+    public TopKHeap(int capacity) {
+        this.scores = new float[capacity];
+        this.docs = new int[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Offers a document, keeping it only if it ranks among the best seen so far.
+     *
+     * @param  score  the document score
+     * @param  doc    the document id
+     */
+    public void offer(float score, int doc) {
+        if (size < scores.length) {
+            int i = size++;
+            scores[i] = score;
+            docs[i] = doc;
+            siftUp(i);
+        } else if (scores.length > 0 && ranksAbove(score, doc, scores[0], docs[0])) {
+            scores[0] = score;
+            docs[0] = doc;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Offers every document held by another heap.
+     *
+     * @param  other  the heap to merge into this one
+     */
+    void merge(TopKHeap other) {
+        merge(other, 0);
+    }
+
+    /**
+     * Offers every document held by another heap, shifting its document ids so that heaps scored against
+     * different indexes can share one id space.
+     *
+     * @param  other      the heap to merge into this one
+     * @param  docOffset  the amount added to each of the other heap's document ids
+     */
+    void merge(TopKHeap other, int docOffset) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.scores[i], other.docs[i] + docOffset);
+        }
+    }
+
+    /**
+     * Empties the heap, returning its documents best first.
+     *
+     * @return  the document ids ordered by descending score
+     */
+    public int[] drainDescending() {
+        return drainDescending(null);
+    }
+
+    /**
+     * Empties the heap, returning its documents best first along with their scores.
+     *
+     * @param  orderedScores  receives the score of each returned document, at least {@link #size()} long, or null
+     * @return                the document ids ordered by descending score
+     */
+    public int[] drainDescending(float[] orderedScores) {
+        int[] ordered = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            ordered[i] = docs[0];
+            if (orderedScores != null) {
+                orderedScores[i] = scores[0];
+            }
+            size--;
+            scores[0] = scores[size];
+            docs[0] = docs[size];
+            siftDown(0);
+        }
+        return ordered;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!ranksAbove(scores[parent], docs[parent], scores[i], docs[i])) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int weakest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && ranksAbove(scores[weakest], docs[weakest], scores[left], docs[left])) {
+                weakest = left;
+            }
+            if (right < size && ranksAbove(scores[weakest], docs[weakest], scores[right], docs[right])) {
+                weakest = right;
+            }
+            if (weakest == i) {
+                return;
+            }
+            swap(i, weakest);
+            i = weakest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        float score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+        int doc = docs[a];
+        docs[a] = docs[b];
+        docs[b] = doc;
+    }
+
+    private static boolean ranksAbove(float score, int doc, float otherScore, int otherDoc) {
+        return score > otherScore || (score == otherScore && doc < otherDoc);
+    }
+}
@@ -0,0 +1,473 @@
+package com.ps.culinarycompanion.search;
+
+import com.ps.culinarycompanion.recipes.RecipeChangedEvent;
+import com.ps.culinarycompanion.recipes.RecipesImportedEvent;
+import com.ps.culinarycompanion.recipes.StoredRecipeReader;
+import com.ps.culinarycompanion.recommendation.TopKHeap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory full-text index over the title, description, instructions and ingredient names of every recipe, ranked
+ * with BM25.
+ * <p>
+ * Recipes are numbered with dense ordinals and each term keeps its postings as parallel primitive arrays of
+ * ordinals and term frequencies, appended in ordinal order. A write gives the recipe a new ordinal and tombstones
+ * the old one, so postings are never edited in place; once tombstones outnumber live recipes the postings are
+ * rebuilt from the per-recipe term vectors. Title terms count {@value #TITLE_WEIGHT} times so a match in the title
+ * outranks one buried in the instructions.
+ */
+@Component
+public class RecipeSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(RecipeSearchIndex.class);
+
+    private static final int TITLE_WEIGHT = 2;
+
+    private static final float K1 = 1.2f;
+
+    private static final float B = 0.75f;
+
+    private static final int MIN_TOMBSTONES_TO_COMPACT = 1024;
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private final StoredRecipeReader storedRecipeReader;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final TermDictionary terms = new TermDictionary();
+
+    private final Map<Integer, Integer> ordinals = new HashMap<>();
+
+    private int[][] postingOrdinals = new int[256][];
+
+    private int[][] postingFrequencies = new int[256][];
+
+    private int[] postingSizes = new int[256];
+
+    /** Number of live recipes containing each term. */
+    private int[] documentFrequencies = new int[256];
+
+    private int[] recipeIds = new int[1024];
+
+    private String[] titles = new String[1024];
+
+    private int[] lengths = new int[1024];
+
+    private int[][] recipeTerms = new int[1024][];
+
+    private int[][] recipeFrequencies = new int[1024][];
+
+    private final BitSet live = new BitSet();
+
+    private int ordinalCount;
+
+    private int liveCount;
+
+    private long totalLength;
+
+    // Write-side scratch, guarded by the write lock
+    private final SearchTokenizer writeTokenizer = new SearchTokenizer();
+
+    private int[] termCounts = new int[256];
+
+    private int[] touchedTerms = new int[64];
+
+    private int touchedCount;
+
+    /**
+     * Writes applied while the index is being loaded, replayed once the load is done so that a recipe read by the
+     * load before a write committed cannot overwrite it. Null when no load is running. Guarded by {@link #lock}.
+     */
+    private List<Runnable> writesDuringLoad;
+
+    public RecipeSearchIndex(StoredRecipeReader storedRecipeReader) {
+        this.storedRecipeReader = storedRecipeReader;
+    }
+
+    /**
+     * Loads every recipe once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            writesDuringLoad = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            storedRecipeReader.forEach(recipe -> {
+                lock.writeLock().lock();
+                try {
+                    put(recipe.recipeId(), recipe.title(), recipe.description(), recipe.instructions(),
+                            recipe.ingredientNames());
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            });
+        } finally {
+            lock.writeLock().lock();
+            try {
+                writesDuringLoad.forEach(Runnable::run);
+                writesDuringLoad = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info("Indexed {} recipes for search in {} ms", size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Keeps the index in step with recipe writes once they are committed.
+     *
+     * @param  event  the recipe change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        if (event.deleted()) {
+            remove(event.recipeId());
+        } else {
+            update(event.recipeId(), event.title(), event.description(), event.instructions(),
+                    event.ingredientNames());
+        }
+    }
+
+    /**
+     * Reloads every recipe in the background after a bulk import, whose recipes were written without per-recipe
+     * change events.
+     *
+     * @param  event  the import
+     */
+    @Async
+    @EventListener
+    public void onRecipesImported(RecipesImportedEvent event) {
+        load();
+    }
+
+    /**
+     * Returns the number of searchable recipes.
+     *
+     * @return  the number of live recipes in the index
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a recipe or replaces its indexed text.
+     *
+     * @param  recipeId         the recipe id
+     * @param  title            the recipe title
+     * @param  description      the recipe description
+     * @param  instructions     the recipe instructions
+     * @param  ingredientNames  the names of the recipe's ingredients
+     */
+    public void update(int recipeId, String title, String description, String instructions,
+                       Collection<String> ingredientNames) {
+        lock.writeLock().lock();
+        try {
+            put(recipeId, title, description, instructions, ingredientNames);
+            if (writesDuringLoad != null) {
+                writesDuringLoad.add(() -> put(recipeId, title, description, instructions, ingredientNames));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a recipe from the index.
+     *
+     * @param  recipeId  the recipe id
+     */
+    public void remove(int recipeId) {
+        lock.writeLock().lock();
+        try {
+            delete(recipeId);
+            if (writesDuringLoad != null) {
+                writesDuringLoad.add(() -> delete(recipeId));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(int recipeId, String title, String description, String instructions,
+                     Collection<String> ingredientNames) {
+        Integer previous = ordinals.get(recipeId);
+        if (previous != null) {
+            tombstone(previous);
+        }
+
+        touchedCount = 0;
+        writeTokenizer.tokenize(title, (chars, length) -> count(terms.add(chars, length), TITLE_WEIGHT));
+        writeTokenizer.tokenize(description, (chars, length) -> count(terms.add(chars, length), 1));
+        writeTokenizer.tokenize(instructions, (chars, length) -> count(terms.add(chars, length), 1));
+        for (String name : ingredientNames) {
+            writeTokenizer.tokenize(name, (chars, length) -> count(terms.add(chars, length), 1));
+        }
+
+        int[] documentTerms = Arrays.copyOf(touchedTerms, touchedCount);
+        int[] frequencies = new int[touchedCount];
+        for (int i = 0; i < touchedCount; i++) {
+            frequencies[i] = termCounts[documentTerms[i]];
+            termCounts[documentTerms[i]] = 0;
+        }
+
+        int ordinal = ordinalCount++;
+        if (ordinal == recipeIds.length) {
+            recipeIds = Arrays.copyOf(recipeIds, ordinal * 2);
+            titles = Arrays.copyOf(titles, ordinal * 2);
+            lengths = Arrays.copyOf(lengths, ordinal * 2);
+            recipeTerms = Arrays.copyOf(recipeTerms, ordinal * 2);
+            recipeFrequencies = Arrays.copyOf(recipeFrequencies, ordinal * 2);
+        }
+        ordinals.put(recipeId, ordinal);
+        recipeIds[ordinal] = recipeId;
+        titles[ordinal] = title;
+        recipeTerms[ordinal] = documentTerms;
+        recipeFrequencies[ordinal] = frequencies;
+        index(ordinal);
+        live.set(ordinal);
+        liveCount++;
+
+        compactIfNeeded();
+    }
+
+    private void delete(int recipeId) {
+        Integer ordinal = ordinals.remove(recipeId);
+        if (ordinal != null) {
+            tombstone(ordinal);
+            compactIfNeeded();
+        }
+    }
+
+    /**
+     * Finds the recipes best matching a free-text query.
+     *
+     * @param  query  the query text
+     * @param  limit  the maximum number of recipes to return
+     * @return        the matching recipes, best first
+     */
+    public List<SearchHit> search(String query, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        Scratch scratch = SCRATCH.get();
+
+        lock.readLock().lock();
+        try {
+            int queryLength = scratch.queryTerms(query, terms);
+            if (queryLength == 0 || liveCount == 0) {
+                return List.of();
+            }
+            scratch.ensureCapacity(ordinalCount);
+            float[] scores = scratch.scores;
+            float averageLength = (float) totalLength / liveCount;
+
+            // Term-at-a-time accumulation into a dense score array, reset through the touched list
+            int touched = 0;
+            for (int q = 0; q < queryLength; q++) {
+                int term = scratch.queryTerms[q];
+                int df = documentFrequencies[term];
+                if (df == 0) {
+                    continue;
+                }
+                float idf = (float) Math.log(1 + (liveCount - df + 0.5) / (df + 0.5));
+                int[] postings = postingOrdinals[term];
+                int[] frequencies = postingFrequencies[term];
+                for (int p = 0, end = postingSizes[term]; p < end; p++) {
+                    int ordinal = postings[p];
+                    if (!live.get(ordinal)) {
+                        continue;
+                    }
+                    int tf = frequencies[p];
+                    float norm = K1 * (1 - B + B * lengths[ordinal] / averageLength);
+                    if (scores[ordinal] == 0) {
+                        scratch.touched[touched++] = ordinal;
+                    }
+                    scores[ordinal] += idf * tf * (K1 + 1) / (tf + norm);
+                }
+            }
+
+            TopKHeap heap = new TopKHeap(Math.min(limit, touched));
+            for (int t = 0; t < touched; t++) {
+                int ordinal = scratch.touched[t];
+                heap.offer(scores[ordinal], ordinal);
+                scores[ordinal] = 0;
+            }
+            float[] bestScores = new float[heap.size()];
+            int[] best = heap.drainDescending(bestScores);
+            List<SearchHit> hits = new ArrayList<>(best.length);
+            for (int i = 0; i < best.length; i++) {
+                hits.add(new SearchHit(recipeIds[best[i]], titles[best[i]], bestScores[i]));
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void count(int term, int weight) {
+        if (term >= termCounts.length) {
+            termCounts = Arrays.copyOf(termCounts, Math.max(term + 1, termCounts.length * 2));
+        }
+        if (termCounts[term] == 0) {
+            if (touchedCount == touchedTerms.length) {
+                touchedTerms = Arrays.copyOf(touchedTerms, touchedCount * 2);
+            }
+            touchedTerms[touchedCount++] = term;
+        }
+        termCounts[term] += weight;
+    }
+
+    /**
+     * Appends the postings of a recipe and counts it in the document frequencies and total length.
+     */
+    private void index(int ordinal) {
+        int[] documentTerms = recipeTerms[ordinal];
+        int[] frequencies = recipeFrequencies[ordinal];
+        int length = 0;
+        for (int i = 0; i < documentTerms.length; i++) {
+            int term = documentTerms[i];
+            if (term >= postingSizes.length) {
+                int capacity = Math.max(term + 1, postingSizes.length * 2);
+                postingOrdinals = Arrays.copyOf(postingOrdinals, capacity);
+                postingFrequencies = Arrays.copyOf(postingFrequencies, capacity);
+                postingSizes = Arrays.copyOf(postingSizes, capacity);
+                documentFrequencies = Arrays.copyOf(documentFrequencies, capacity);
+            }
+            int size = postingSizes[term];
+            if (postingOrdinals[term] == null) {
+                postingOrdinals[term] = new int[4];
+                postingFrequencies[term] = new int[4];
+            } else if (size == postingOrdinals[term].length) {
+                postingOrdinals[term] = Arrays.copyOf(postingOrdinals[term], size * 2);
+                postingFrequencies[term] = Arrays.copyOf(postingFrequencies[term], size * 2);
+            }
+            postingOrdinals[term][size] = ordinal;
+            postingFrequencies[term][size] = frequencies[i];
+            postingSizes[term] = size + 1;
+            documentFrequencies[term]++;
+            length += frequencies[i];
+        }
+        lengths[ordinal] = length;
+        totalLength += length;
+    }
+
+    private void tombstone(int ordinal) {
+        if (!live.get(ordinal)) {
+            return;
+        }
+        live.clear(ordinal);
+        liveCount--;
+        totalLength -= lengths[ordinal];
+        for (int term : recipeTerms[ordinal]) {
+            documentFrequencies[term]--;
+        }
+        recipeTerms[ordinal] = null;
+        recipeFrequencies[ordinal] = null;
+        titles[ordinal] = null;
+    }
+
+    /**
+     * Renumbers the live recipes densely and rebuilds the postings from their term vectors, dropping tombstones.
+     */
+    private void compactIfNeeded() {
+        int tombstones = ordinalCount - liveCount;
+        if (tombstones < Math.max(MIN_TOMBSTONES_TO_COMPACT, liveCount)) {
+            return;
+        }
+        Arrays.fill(postingSizes, 0);
+        Arrays.fill(documentFrequencies, 0);
+        totalLength = 0;
+
+        int next = 0;
+        for (int ordinal = live.nextSetBit(0); ordinal >= 0; ordinal = live.nextSetBit(ordinal + 1)) {
+            recipeIds[next] = recipeIds[ordinal];
+            titles[next] = titles[ordinal];
+            recipeTerms[next] = recipeTerms[ordinal];
+            recipeFrequencies[next] = recipeFrequencies[ordinal];
+            ordinals.put(recipeIds[next], next);
+            index(next);
+            next++;
+        }
+        Arrays.fill(titles, next, ordinalCount, null);
+        Arrays.fill(recipeTerms, next, ordinalCount, null);
+        Arrays.fill(recipeFrequencies, next, ordinalCount, null);
+        live.clear();
+        live.set(0, next);
+        ordinalCount = next;
+        log.debug("Compacted search index to {} recipes, dropping {} tombstones", next, tombstones);
+    }
+
+    /**
+     * Per-thread query buffers, reused so a search allocates little beyond its results.
+     */
+    private static final class Scratch {
+
+        private final SearchTokenizer tokenizer = new SearchTokenizer();
+
+        private int[] queryTerms = new int[16];
+
+        private float[] scores = new float[0];
+
+        private int[] touched = new int[0];
+
+        /**
+         * Resolves the distinct known terms of a query into {@link #queryTerms}.
+         *
+         * @return  the number of terms resolved
+         */
+        int queryTerms(String query, TermDictionary dictionary) {
+            int[] count = new int[1];
+            tokenizer.tokenize(query, (chars, length) -> {
+                int term = dictionary.find(chars, length);
+                if (term < 0) {
+                    return;
+                }
+                for (int i = 0; i < count[0]; i++) {
+                    if (queryTerms[i] == term) {
+                        return;
+                    }
+                }
+                if (count[0] == queryTerms.length) {
+                    queryTerms = Arrays.copyOf(queryTerms, count[0] * 2);
+                }
+                queryTerms[count[0]++] = term;
+            });
+            return count[0];
+        }
+
+        void ensureCapacity(int ordinals) {
+            if (scores.length < ordinals) {
+                scores = new float[Math.max(ordinals, scores.length * 2)];
+                touched = new int[scores.length];
+            }
+        }
+    }
+}
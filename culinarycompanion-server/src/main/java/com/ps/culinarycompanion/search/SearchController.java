@@ -0,0 +1,35 @@
+package com.ps.culinarycompanion.search;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+public class SearchController {
+
+    private static final int MAX_LIMIT = 100;
+
+    private final RecipeSearchIndex recipeSearchIndex;
+
+    public SearchController(RecipeSearchIndex recipeSearchIndex) {
+        this.recipeSearchIndex = recipeSearchIndex;
+    }
+
+    /**
+     * Searches the title, description, instructions and ingredient names of every recipe.
+     *
+     * @param  q      the free-text query
+     * @param  limit  the maximum number of recipes to return, at most 100
+     * @return        a ResponseEntity containing the matching recipes, best first, and the HTTP status code OK
+     */
+    @GetMapping("/api/recipes/search")
+    public ResponseEntity<List<SearchHit>> search(@RequestParam String q,
+                                                  @RequestParam(defaultValue = "20") int limit) {
+        return new ResponseEntity<>(recipeSearchIndex.search(q, Math.min(Math.max(limit, 0), MAX_LIMIT)),
+                HttpStatus.OK);
+    }
+}
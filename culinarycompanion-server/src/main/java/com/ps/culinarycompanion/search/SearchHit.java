@@ -0,0 +1,12 @@
+package com.ps.culinarycompanion.search;
+
+/**
+ * A recipe matching a search query.
+ *
+ * @param recipeId  the recipe id
+ * @param title     the recipe title
+ * @param score     the BM25 score of the recipe for the query
+ */
+public record SearchHit(int recipeId, String title, float score) {
+
+}
@@ -0,0 +1,50 @@
+package com.ps.culinarycompanion.search;
+
+import java.util.Arrays;
+
+/**
+ * Splits text into lower-cased runs of two or more letters or digits. Tokens are written into a reused buffer and
+ * handed to a sink as a char slice, so tokenizing allocates no string per token; the {@link TermDictionary} only
+ * creates one the first time a term is seen.
+ * <p>
+ * Instances are not thread-safe.
+ */
+final class SearchTokenizer {
+
+    /**
+     * Receives each token. The buffer is overwritten by the next token.
+     */
+    interface TokenSink {
+
+        void accept(char[] buffer, int length);
+    }
+
+    private char[] buffer = new char[32];
+
+    /**
+     * Tokenizes the given text.
+     *
+     * @param  text  the text to tokenize, may be null
+     * @param  sink  receives each token in the order it appears, including repeats
+     */
+    void tokenize(String text, TokenSink sink) {
+        if (text == null) {
+            return;
+        }
+        int length = 0;
+        for (int i = 0, end = text.length(); i <= end; i++) {
+            char c = i < end ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, length * 2);
+                }
+                buffer[length++] = Character.toLowerCase(c);
+            } else {
+                if (length >= 2) {
+                    sink.accept(buffer, length);
+                }
+                length = 0;
+            }
+        }
+    }
+}
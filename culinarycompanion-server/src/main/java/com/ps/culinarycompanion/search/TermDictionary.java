@@ -0,0 +1,116 @@
+package com.ps.culinarycompanion.search;
+
+import java.util.Arrays;
+
+/**
+ * Maps terms to dense ids with an open-addressing hash table that is probed directly with a char slice, so looking
+ * up a token never allocates. Ids are never reused or removed.
+ * <p>
+ * Instances are not thread-safe; readers must not run concurrently with {@link #add}.
+ */
+final class TermDictionary {
+
+    private String[] terms = new String[256];
+
+    private int[] hashes = new int[256];
+
+    /** Term id + 1 per slot, 0 for an empty slot. */
+    private int[] slots = new int[512];
+
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    String term(int id) {
+        return terms[id];
+    }
+
+    /**
+     * Looks up a term.
+     *
+     * @param  chars   the buffer holding the term
+     * @param  length  the length of the term
+     * @return         the term id, or -1 if the term is unknown
+     */
+    int find(char[] chars, int length) {
+        int hash = hash(chars, length);
+        int mask = slots.length - 1;
+        for (int slot = mix(hash) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (hashes[id] == hash && matches(terms[id], chars, length)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Looks up a term, adding it if it is unknown.
+     *
+     * @param  chars   the buffer holding the term
+     * @param  length  the length of the term
+     * @return         the term id
+     */
+    int add(char[] chars, int length) {
+        int hash = hash(chars, length);
+        int mask = slots.length - 1;
+        int slot = mix(hash) & mask;
+        for (; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (hashes[id] == hash && matches(terms[id], chars, length)) {
+                return id;
+            }
+        }
+
+        int id = size++;
+        if (id == terms.length) {
+            terms = Arrays.copyOf(terms, id * 2);
+            hashes = Arrays.copyOf(hashes, id * 2);
+        }
+        terms[id] = new String(chars, 0, length);
+        hashes[id] = hash;
+        slots[slot] = id + 1;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = mix(hashes[id]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id + 1;
+        }
+    }
+
+    private static int hash(char[] chars, int length) {
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        return hash;
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean matches(String term, char[] chars, int length) {
+        if (term.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (term.charAt(i) != chars[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -10,10 +10,13 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletRequest;
 import jakarta.servlet.ServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -23,14 +26,26 @@ import jakarta.servlet.http.HttpServletRequest;
 
 import java.io.IOException;
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 
 @Configuration
 public class AuthenticationFilter implements Filter {
 
+    /**
+     * Role of the users listed in {@code security.admin-emails}.
+     */
+    static final String ADMIN_ROLE = "ADMIN";
+
     private final UserRepository userRepository;
 
-    public AuthenticationFilter(UserRepository userRepository) {
+    private final Set<String> adminEmails;
+
+    public AuthenticationFilter(UserRepository userRepository,
+                                @Value("${security.admin-emails:}") Set<String> adminEmails) {
         this.userRepository = userRepository;
+        this.adminEmails = adminEmails;
     }
 
     @Bean
@@ -93,7 +108,7 @@ public class AuthenticationFilter implements Filter {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
-                        userDetails.getAuthorities()
+                        authorities(userEmail, userDetails)
                 );
 
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails((HttpServletRequest) servletRequest));
@@ -107,4 +122,18 @@ public class AuthenticationFilter implements Filter {
         }
 
     }
-}
\ No newline at end of file
+
+    /**
+     * Grants the admin role to the users listed in {@code security.admin-emails}; other users keep their own.
+     *
+     * @param  userEmail    the email of the authenticated user
+     * @param  userDetails  the authenticated user
+     * @return              the user's authorities
+     */
+    private Collection<? extends GrantedAuthority> authorities(String userEmail, UserDetails userDetails) {
+        if (!adminEmails.contains(userEmail)) {
+            return userDetails.getAuthorities();
+        }
+        return List.of(new SimpleGrantedAuthority("ROLE_" + ADMIN_ROLE));
+    }
+}
@@ -1,6 +1,7 @@
 package com.ps.culinarycompanion.security;
 
 import com.ps.culinarycompanion.dao.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 
 import org.springframework.context.annotation.Bean;
@@ -12,13 +13,19 @@ import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.access.channel.ChannelProcessingFilter;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.util.Set;
+
 @Configuration
 @EnableWebSecurity
 public class SecurityConfiguration {
     private final UserRepository userRepository;
 
-    public SecurityConfiguration(UserRepository userRepository) {
+    private final Set<String> adminEmails;
+
+    public SecurityConfiguration(UserRepository userRepository,
+                                 @Value("${security.admin-emails:}") Set<String> adminEmails) {
         this.userRepository = userRepository;
+        this.adminEmails = adminEmails;
     }
 
     /**
@@ -34,12 +41,16 @@ public class SecurityConfiguration {
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers(HttpMethod.OPTIONS,"/**")
                         .permitAll()
+                        // Bulk imports write the shared corpus, so only administrators may run them
+                        .requestMatchers(HttpMethod.POST, "/api/recipes/import")
+                        .hasRole(AuthenticationFilter.ADMIN_ROLE)
                         .anyRequest()
                         .authenticated())
                 .sessionManagement(session -> session.
                         sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .addFilterBefore(new CORSFilter(), ChannelProcessingFilter.class)
-                .addFilterAfter(new AuthenticationFilter(userRepository), UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(new AuthenticationFilter(userRepository, adminEmails),
+                        UsernamePasswordAuthenticationFilter.class)
                 .build();
     }
 
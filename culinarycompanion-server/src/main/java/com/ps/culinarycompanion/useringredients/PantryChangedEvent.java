@@ -0,0 +1,9 @@
+package com.ps.culinarycompanion.useringredients;
+
+/**
+ * Published by {@link UserIngredientService} whenever a user's pantry is written.
+ *
+ * @param userEmail  the email of the user whose pantry changed
+ */
+public record PantryChangedEvent(String userEmail) {
+}
@@ -7,13 +7,17 @@ import com.ps.culinarycompanion.user.User;
 import jakarta.persistence.EmbeddedId;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.MapsId;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
 import jakarta.validation.constraints.Digits;
 
 @Entity(name = "user_ingredients")
+// The primary key leads with ingredient_id, so pantry reads by user need their own index
+@Table(indexes = @Index(name = "idx_user_ingredients_user", columnList = "user_id, ingredient_id"))
 public class UserIngredient {
 
     @EmbeddedId
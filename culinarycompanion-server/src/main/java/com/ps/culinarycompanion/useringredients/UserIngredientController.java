@@ -9,6 +9,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -29,7 +30,7 @@ public class UserIngredientController {
      * @return            the list of user ingredients
      */
     @GetMapping("/api/myingredients/{userEmail}")
-    public ResponseEntity<List<UserIngredient>> getUserIngredients(@PathVariable String userEmail) {
+    public ResponseEntity<List<UserIngredientView>> getUserIngredients(@PathVariable String userEmail) {
         return new ResponseEntity<>(userIngredientService.getAllIngredients(userEmail), HttpStatus.OK);
     }
 
@@ -74,6 +75,21 @@ public class UserIngredientController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Deletes several user ingredients for the specified user in one statement. Names that are not in the user's
+     * pantry are ignored.
+     *
+     * @param  userEmail        the email of the user
+     * @param  ingredientNames  the names of the ingredients to delete
+     * @return                  a ResponseEntity with no content
+     */
+    @DeleteMapping("/api/myingredients/{userEmail}")
+    public ResponseEntity<?> deleteUserIngredients(@PathVariable String userEmail,
+                                                   @RequestParam("name") List<String> ingredientNames) {
+        userIngredientService.deleteUserIngredients(ingredientNames, userEmail);
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * Updates the user ingredients for the specified user.
      *
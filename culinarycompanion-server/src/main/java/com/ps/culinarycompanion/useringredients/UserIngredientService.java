@@ -1,16 +1,29 @@
 package com.ps.culinarycompanion.useringredients;
 
+import com.ps.culinarycompanion.cache.BoundedCache;
+import com.ps.culinarycompanion.cache.CacheMetrics;
 import com.ps.culinarycompanion.dao.UserIngredientRepository;
 import com.ps.culinarycompanion.exception.NotFoundException;
 import com.ps.culinarycompanion.ingredients.Ingredient;
+import com.ps.culinarycompanion.ingredients.IngredientNormalizer;
 import com.ps.culinarycompanion.ingredients.IngredientService;
 import com.ps.culinarycompanion.user.User;
 import com.ps.culinarycompanion.user.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class UserIngredientService {
@@ -21,25 +34,51 @@ public class UserIngredientService {
 
     private final IngredientService ingredientService;
 
+    private final IngredientNormalizer normalizer;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Pantries keyed by user email, so a cached read skips resolving the user as well as the pantry query.
+     */
+    private final BoundedCache<String, List<UserIngredientView>> pantryCache;
+
     public UserIngredientService(UserIngredientRepository userIngredientRepository, UserService userService,
-                                 IngredientService ingredientService) {
+                                 IngredientService ingredientService, IngredientNormalizer normalizer,
+                                 ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry,
+                                 @Value("${pantry.cache.max-entries:10000}") int cacheMaxEntries,
+                                 @Value("${pantry.cache.ttl:10m}") Duration cacheTtl) {
         this.userIngredientRepository = userIngredientRepository;
         this.userService = userService;
         this.ingredientService = ingredientService;
+        this.normalizer = normalizer;
+        this.eventPublisher = eventPublisher;
+        this.pantryCache = new BoundedCache<>(cacheMaxEntries, cacheTtl);
+        CacheMetrics.register(meterRegistry, "pantries", pantryCache);
     }
 
     /**
-     * Retrieves a list of all user ingredients associated with the given email.
+     * Retrieves the pantry of the user with the given email, served from a bounded cache. On a miss the user is
+     * resolved once and their lines are read with a single indexed query by user id.
      *
      * @param  email  the email of the user
-     * @return        a list of UserIngredient objects associated with the user
+     * @return        the user's pantry lines, ordered by ingredient name
+     * @throws NotFoundException if no user with the given email exists
      */
-    public List<UserIngredient> getAllIngredients(String email) {
-        List<UserIngredient> allUserIngs = userIngredientRepository.findAll();
-        return allUserIngs.stream()
-                .filter(ing -> !ing.getUser().getUsername().isEmpty())
-                .filter(ing -> ing.getUser().getUsername().equals(email))
-                .toList();
+    public List<UserIngredientView> getAllIngredients(String email) {
+        return pantryCache.get(email, userEmail -> List.copyOf(
+                userIngredientRepository.findViewsByUserId(userService.getUserByEmail(userEmail).getUserId())));
+    }
+
+    /**
+     * Drops the cached pantry of a user once the write that changed it has committed, so a read that loaded the
+     * pantry before the commit cannot keep serving it.
+     *
+     * @param  event  the pantry change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPantryChanged(PantryChangedEvent event) {
+        pantryCache.invalidate(event.userEmail());
     }
 
     /**
@@ -69,13 +108,7 @@ public class UserIngredientService {
      */
     public UserIngredient addUserIngredient(UserIngredient userIngredient, String userEmail) {
         User user = userService.getUserByEmail(userEmail);
-        Ingredient ingredient;
-
-        try {
-            ingredient = ingredientService.getIngredientByName(userIngredient.getIngredient().getName());
-        } catch (Exception ex) {
-            ingredient = ingredientService.createIngredient(new Ingredient(userIngredient.getIngredient().getName()));
-        }
+        Ingredient ingredient = ingredientService.getOrCreateIngredient(userIngredient.getIngredient().getName());
 
         UserIngredientId id = new UserIngredientId();
 
@@ -86,7 +119,9 @@ public class UserIngredientService {
         userIngredient.setUserIngredientId(id);
         userIngredient.setIngredient(ingredient);
 
-        return userIngredientRepository.save(userIngredient);
+        UserIngredient saved = userIngredientRepository.save(userIngredient);
+        publish(new PantryChangedEvent(userEmail));
+        return saved;
     }
 
     /**
@@ -96,41 +131,89 @@ public class UserIngredientService {
      * @param  email           the email of the user associated with the ingredient
      * @throws NotFoundException if no ingredient with the specified name and email is found
      */
+    @Transactional
     public void deleteUserIngredient(String ingredientName, String email) {
-        Optional<UserIngredient> found = userIngredientRepository.findAll().stream()
-                .filter(ing -> ing.getIngredient().getName() != null)
-                .filter(ing -> ing.getIngredient().getName().equals(ingredientName)
-                && ing.getUser().getUsername().equals(email))
-                .findFirst();
-
-        if (found.isEmpty()) {
+        if (deleteUserIngredients(List.of(ingredientName), email) == 0) {
             throw new NotFoundException("Ingredient not found");
         }
+    }
 
-        userIngredientRepository.delete(found.get());
+    /**
+     * Deletes several user ingredients with one keyed delete on the user id and the ingredients' ids, without
+     * loading the lines. Names that are not in the user's pantry are ignored.
+     *
+     * @param  ingredientNames  the names of the ingredients to be deleted
+     * @param  email            the email of the user associated with the ingredients
+     * @return                  the number of ingredients deleted
+     * @throws NotFoundException if no user with the given email exists
+     */
+    @Transactional
+    public int deleteUserIngredients(Collection<String> ingredientNames, String email) {
+        User user = userService.getUserByEmail(email);
+        Set<String> names = canonicalNames(ingredientNames);
+        if (names.isEmpty()) {
+            return 0;
+        }
+
+        int deleted = userIngredientRepository.deleteByUserIdAndIngredientNames(user.getUserId(), names);
+        if (deleted > 0) {
+            publish(new PantryChangedEvent(email));
+        }
+        return deleted;
     }
 
     /**
      * Updates the quantities and units of user ingredients based on the provided list of UserIngredient objects
-     * associated with the specified user email.
+     * associated with the specified user email. The targeted lines are loaded with one keyed query, changed in
+     * place and written back by a single flush, which Hibernate sends as one JDBC batch.
      *
      * @param  userIngredients  the list of UserIngredient objects to update
      * @param  userEmail         the email of the user
+     * @throws NotFoundException if the user or any of the ingredients is not in the pantry; nothing is updated
      */
+    @Transactional
     public void updateUserIngredients(List<UserIngredient> userIngredients, String userEmail) {
-        userIngredients.forEach(userIngredient -> {
+        User user = userService.getUserByEmail(userEmail);
+        // A name repeated in the request keeps its last quantity and unit
+        Map<String, UserIngredient> requested = new LinkedHashMap<>();
+        for (UserIngredient userIngredient : userIngredients) {
+            requested.put(normalizer.normalize(userIngredient.getIngredient().getName()), userIngredient);
+        }
+        if (requested.isEmpty()) {
+            return;
+        }
 
-            UserIngredient found = userIngredientRepository.findAll().stream()
-                    .filter(ing -> ing.getIngredient().getName().equals(userIngredient.getIngredient().getName())
-                            && ing.getUser().getUsername().equals(userEmail))
-                    .findFirst()
-                    .orElseThrow(() -> new NotFoundException("Ingredient not found"));
+        List<UserIngredient> found = userIngredientRepository.findByUserIdAndIngredientNames(user.getUserId(),
+                requested.keySet());
+        if (found.size() < requested.size()) {
+            throw new NotFoundException("Ingredient not found");
+        }
+        for (UserIngredient line : found) {
+            UserIngredient update = requested.get(line.getIngredient().getName());
+            line.setQuantity(update.getQuantity());
+            line.setUnit(update.getUnit());
+        }
+        userIngredientRepository.flush();
+        publish(new PantryChangedEvent(userEmail));
+    }
 
-            found.setQuantity(userIngredient.getQuantity());
-            found.setUnit(userIngredient.getUnit());
+    private Set<String> canonicalNames(Collection<String> names) {
+        Set<String> canonical = new LinkedHashSet<>();
+        for (String name : names) {
+            if (name != null && !name.isBlank()) {
+                canonical.add(normalizer.normalize(name));
+            }
+        }
+        return canonical;
+    }
 
-            userIngredientRepository.save(found);
-        });
+    /**
+     * Drops the cached pantry of the written user, then publishes the change for the listeners that run after
+     * commit.
+     */
+    private void publish(PantryChangedEvent event) {
+        pantryCache.invalidate(event.userEmail());
+        eventPublisher.publishEvent(event);
     }
 
 }
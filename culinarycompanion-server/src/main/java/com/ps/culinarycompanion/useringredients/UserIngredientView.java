@@ -0,0 +1,33 @@
+package com.ps.culinarycompanion.useringredients;
+
+import com.ps.culinarycompanion.recipes.CookingUnit;
+import com.ps.culinarycompanion.recipes.RecipeIngredientView.IngredientName;
+
+/**
+ * Read-only projection of one pantry line, selected directly as columns so no {@link UserIngredient}, user or
+ * ingredient entity is loaded or tracked. It serializes with the same nested shape as the entity.
+ *
+ * @param userIngredientId  the user and ingredient ids of the line
+ * @param ingredient        the ingredient id and name
+ * @param quantity          the quantity of the ingredient
+ * @param unit              the unit of the quantity
+ */
+public record UserIngredientView(Key userIngredientId, IngredientName ingredient, Long quantity, CookingUnit unit) {
+
+    /**
+     * Flat constructor used by the JPQL constructor expression.
+     */
+    public UserIngredientView(Integer userId, Integer ingredientId, String name, Long quantity, CookingUnit unit) {
+        this(new Key(userId, ingredientId), new IngredientName(ingredientId, name), quantity, unit);
+    }
+
+    /**
+     * The key of a pantry line.
+     *
+     * @param userId        the user id
+     * @param ingredientId  the ingredient id
+     */
+    public record Key(Integer userId, Integer ingredientId) {
+
+    }
+}
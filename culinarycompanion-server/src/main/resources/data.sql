@@ -8,11 +8,11 @@ VALUES
 -- Dummy data for Ingredients table
 INSERT INTO ingredient_details (ingredient_id, Name)
 VALUES
-    (10, 'Flour'),
-    (20, 'Sugar'),
-    (30, 'Salt'),
-    (40, 'Eggs'),
-    (50, 'Milk');
+    (10, 'flour'),
+    (20, 'sugar'),
+    (30, 'salt'),
+    (40, 'egg'),
+    (50, 'milk');
 
 -- Dummy data for Recipes table
 INSERT INTO recipe_details (recipe_id, Title, Description, Instructions, user_email, created_date, last_modified_date)
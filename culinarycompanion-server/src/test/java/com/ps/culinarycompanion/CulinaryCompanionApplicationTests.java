@@ -2,8 +2,12 @@ package com.ps.culinarycompanion;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.testcontainers.junit.jupiter.Testcontainers;
 
 @SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+@Import(PostgresTestConfiguration.class)
 class CulinaryCompanionApplicationTests {
 
 	@Test
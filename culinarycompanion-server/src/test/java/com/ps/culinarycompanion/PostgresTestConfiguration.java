@@ -0,0 +1,22 @@
+package com.ps.culinarycompanion;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Runs the test's DataSource against a PostgreSQL container, for tests of SQL that H2 cannot run or of behavior
+ * that depends on PostgreSQL's locking. Tests importing it should be annotated with
+ * {@code @Testcontainers(disabledWithoutDocker = true)} so they are skipped where Docker is not available.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class PostgresTestConfiguration {
+
+	@Bean
+	@ServiceConnection
+	PostgreSQLContainer<?> postgres() {
+		return new PostgreSQLContainer<>(DockerImageName.parse("postgres:16-alpine"));
+	}
+}
@@ -0,0 +1,72 @@
+package com.ps.culinarycompanion.importer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Reads the list columns and rows of the food.com recipes.csv and of files using the title and instructions columns.
+ */
+class CsvImportSourceTest {
+
+	@Test
+	void pythonListLiteralsAreSplitOnTheirQuotes() {
+		assertEquals(List.of("salt", "baker's yeast", "water"),
+				CsvImportSource.list("['salt', \"baker's yeast\", 'water']"));
+		assertEquals(List.of("salt, kosher", "pepper"), CsvImportSource.list("  ['salt, kosher','pepper']  "));
+		assertEquals(List.of(), CsvImportSource.list("[]"));
+	}
+
+	@Test
+	void escapedQuotesAndBackslashesAreUnescaped() {
+		assertEquals(List.of("baker's yeast", "a \"big\" pan", "back\\slash"),
+				CsvImportSource.list("['baker\\'s yeast', \"a \\\"big\\\" pan\", 'back\\\\slash']"));
+	}
+
+	@Test
+	void blankItemsAreDroppedAndItemsTrimmed() {
+		assertEquals(List.of("egg", "milk"), CsvImportSource.list("[' egg ', '', '  ', 'milk']"));
+		assertEquals(List.of("egg", "milk"), CsvImportSource.list("egg, ,milk,"));
+		assertEquals(List.of(), CsvImportSource.list("  "));
+	}
+
+	@Test
+	void anUnterminatedListKeepsWhatWasRead() {
+		assertEquals(List.of("salt", "pepp"), CsvImportSource.list("['salt', 'pepp"));
+	}
+
+	@Test
+	void foodComRowsAreRead() throws IOException {
+		String csv = """
+				name,id,description,steps,ingredients
+				 baked squash ,137739,"sweet, mild","['make a choice', 'cut it']","['squash', 'mexican seasoning']"
+				""";
+
+		try (CsvImportSource source = new CsvImportSource(new StringReader(csv))) {
+			assertEquals(new ImportRecord("baked squash", "sweet, mild", "make a choice\ncut it", null,
+					List.of("squash", "mexican seasoning")), source.next());
+			assertNull(source.next());
+		}
+	}
+
+	@Test
+	void titleInstructionsAndUserEmailColumnsAreRead() throws IOException {
+		String csv = """
+				title,instructions,ingredients,user_email
+				Toast,"toast, then butter","bread, butter", cook@example.com
+				Tea,steep,water,
+				""";
+
+		try (CsvImportSource source = new CsvImportSource(new StringReader(csv))) {
+			assertEquals(new ImportRecord("Toast", "", "toast\nthen butter", "cook@example.com",
+					List.of("bread", "butter")), source.next());
+			assertEquals(new ImportRecord("Tea", "", "steep", null, List.of("water")), source.next());
+			assertNull(source.next());
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package com.ps.culinarycompanion.importer;
+
+import com.ps.culinarycompanion.dao.UserRepository;
+import com.ps.culinarycompanion.security.SecurityConfiguration;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Lets only administrators bulk import recipes.
+ */
+@WebMvcTest(RecipeImportController.class)
+@Import(SecurityConfiguration.class)
+class RecipeImportControllerTest {
+
+	private static final String CSV = "name,description,steps,ingredients\nSoup,,\"['simmer']\",\"['leek']\"\n";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockBean
+	private RecipeImportService recipeImportService;
+
+	@MockBean
+	private UserRepository userRepository;
+
+	@Test
+	@WithMockUser(roles = "ADMIN")
+	void administratorsCanImport() throws Exception {
+		when(recipeImportService.importRecipes(eq("recipes.csv"), any(), isNull()))
+				.thenReturn(new ImportReport("recipes.csv", 0, 1, 1, 1, 5, 200));
+
+		mockMvc.perform(post("/api/recipes/import").param("source", "recipes.csv").content(CSV).with(csrf()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.recipesImported").value(1));
+		verify(recipeImportService).importRecipes(eq("recipes.csv"), any(), isNull());
+	}
+
+	@Test
+	@WithMockUser
+	void otherUsersCannotImport() throws Exception {
+		mockMvc.perform(post("/api/recipes/import").param("source", "recipes.csv").content(CSV).with(csrf()))
+				.andExpect(status().isForbidden());
+		verifyNoInteractions(recipeImportService);
+	}
+
+	@Test
+	void anonymousRequestsCannotImport() throws Exception {
+		mockMvc.perform(post("/api/recipes/import").param("source", "recipes.csv").content(CSV).with(csrf()))
+				.andExpect(status().is4xxClientError());
+		verifyNoInteractions(recipeImportService);
+	}
+}
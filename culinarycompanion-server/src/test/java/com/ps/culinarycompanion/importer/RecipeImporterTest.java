@@ -0,0 +1,173 @@
+package com.ps.culinarycompanion.importer;
+
+import com.ps.culinarycompanion.PostgresTestConfiguration;
+import com.ps.culinarycompanion.ingredients.IngredientNormalizer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Imports small sources with two rows per chunk. The importer's SQL (on conflict, any over an array, nextval) is
+ * PostgreSQL's, so the test runs against a PostgreSQL container; each test's rows are rolled back with it.
+ */
+@DataJpaTest(properties = "spring.sql.init.mode=never")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import(PostgresTestConfiguration.class)
+class RecipeImporterTest {
+
+	private static final int BATCH_SIZE = 2;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final IngredientNormalizer normalizer = new IngredientNormalizer();
+
+	private String prefix;
+
+	private RecipeImporter importer;
+
+	@BeforeEach
+	void createImporter() {
+		prefix = UUID.randomUUID().toString().substring(0, 8);
+		importer = new RecipeImporter(jdbcTemplate, new TransactionTemplate(transactionManager), BATCH_SIZE,
+				normalizer);
+	}
+
+	@Test
+	void aSecondRunResumesAfterTheLastCommittedChunk() throws IOException {
+		List<ImportRecord> records = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			records.add(record(prefix + " recipe " + i, "salt", prefix + "herb " + i));
+		}
+
+		// The first run fails reading the fifth row, after committing the first chunk only
+		assertThrows(IOException.class, () -> importer.run(prefix, new ListSource(records, 4), "cook@example.com"));
+		assertEquals(List.of(prefix + " recipe 0", prefix + " recipe 1"), titles());
+
+		ImportReport report = importer.run(prefix, new ListSource(records, -1), "cook@example.com");
+
+		assertEquals(2, report.rowsSkipped());
+		assertEquals(3, report.rowsRead());
+		assertEquals(3, report.recipesImported());
+		assertEquals(records.stream().map(ImportRecord::title).toList(), titles());
+		assertEquals(5L, jdbcTemplate.queryForObject("select rows_done from recipe_import_checkpoint where source = ?",
+				Long.class, prefix));
+		assertEquals(List.of("cook@example.com"), jdbcTemplate.queryForList(
+				"select distinct user_email from recipe_details where title like ?", String.class, prefix + "%"));
+		// Every recipe links salt and its own herb, and salt was created once
+		assertEquals(10, lines().size());
+		assertEquals(1, ingredientIds(normalizer.normalize("salt")).size());
+	}
+
+	@Test
+	void recordsWithoutATitleAreSkipped() throws IOException {
+		ImportReport report = importer.run(prefix, new ListSource(List.of(record(" ", prefix + "salt"),
+				record(prefix + " soup", prefix + "leek")), -1), null);
+
+		assertEquals(2, report.rowsRead());
+		assertEquals(1, report.recipesImported());
+		assertEquals(List.of(prefix + " soup"), titles());
+	}
+
+	@Test
+	void anIngredientInsertedByAnotherWriterKeepsItsId() throws IOException {
+		String contended = normalizer.normalize(prefix + "saffron");
+		String fresh = normalizer.normalize(prefix + "rice");
+		List<Integer> existing = new ArrayList<>();
+		// Another writer inserts saffron after the importer loaded the ingredient names but before it writes
+		ListSource source = new ListSource(List.of(record(prefix + " paella", prefix + "saffron", prefix + "rice")),
+				-1, row -> existing.add(jdbcTemplate.queryForObject(
+						"insert into ingredient_details (ingredient_id, name) "
+								+ "values (nextval('ingredient_details_seq'), ?) returning ingredient_id",
+						Integer.class, contended)));
+
+		importer.run(prefix, source, null);
+
+		assertEquals(existing, ingredientIds(contended));
+		assertEquals(1, ingredientIds(fresh).size());
+		assertEquals(Set.of(existing.get(0), ingredientIds(fresh).get(0)), Set.copyOf(lines()));
+	}
+
+	private List<String> titles() {
+		return jdbcTemplate.queryForList("select title from recipe_details where title like ? order by recipe_id",
+				String.class, prefix + "%");
+	}
+
+	private List<Integer> lines() {
+		return jdbcTemplate.queryForList("""
+				select ri.ingredient_id from recipe_ingredients ri
+				join recipe_details r on r.recipe_id = ri.recipe_id
+				join ingredient_details i on i.ingredient_id = ri.ingredient_id
+				where r.title like ? order by r.recipe_id, i.name""", Integer.class, prefix + "%");
+	}
+
+	private List<Integer> ingredientIds(String name) {
+		return jdbcTemplate.queryForList("select ingredient_id from ingredient_details where name = ?", Integer.class,
+				name);
+	}
+
+	private static ImportRecord record(String title, String... ingredients) {
+		return new ImportRecord(title, "", "", null, List.of(ingredients));
+	}
+
+	/**
+	 * Serves records from a list, optionally failing when a given row is read.
+	 */
+	private static final class ListSource implements ImportSource {
+
+		private final List<ImportRecord> records;
+
+		private final int failAt;
+
+		private final IntConsumer onRead;
+
+		private int next;
+
+		ListSource(List<ImportRecord> records, int failAt) {
+			this(records, failAt, row -> { });
+		}
+
+		ListSource(List<ImportRecord> records, int failAt, IntConsumer onRead) {
+			this.records = records;
+			this.failAt = failAt;
+			this.onRead = onRead;
+		}
+
+		@Override
+		public ImportRecord next() throws IOException {
+			if (next == failAt) {
+				throw new IOException("Connection reset");
+			}
+			if (next == records.size()) {
+				return null;
+			}
+			onRead.accept(next);
+			return records.get(next++);
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
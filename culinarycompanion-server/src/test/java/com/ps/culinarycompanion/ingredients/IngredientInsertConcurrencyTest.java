@@ -0,0 +1,92 @@
+package com.ps.culinarycompanion.ingredients;
+
+import com.ps.culinarycompanion.PostgresTestConfiguration;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Creates the same new ingredients from many transactions at once against a real database, each transaction
+ * listing the names in its own order, as concurrent recipe writes do. Every transaction must commit and every name
+ * must end up as one row. The insert and its row locks are PostgreSQL's, so the test runs against a PostgreSQL
+ * container.
+ */
+@DataJpaTest(properties = "spring.sql.init.mode=never")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import({PostgresTestConfiguration.class, IngredientService.class, IngredientNormalizer.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IngredientInsertConcurrencyTest {
+
+	private static final int THREADS = 8;
+
+	private static final int ROUNDS = 20;
+
+	private static final int NAMES = 30;
+
+	@Autowired
+	private IngredientService ingredientService;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void overlappingInsertsInConcurrentTransactionsAllCommit() throws Exception {
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		CyclicBarrier round = new CyclicBarrier(THREADS);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		List<Future<Map<String, Integer>>> results = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			results.add(executor.submit(() -> {
+				Map<String, Integer> seen = new HashMap<>();
+				for (int r = 0; r < ROUNDS; r++) {
+					// Fresh names every round, so every thread's insert contends for all of them
+					List<String> names = new ArrayList<>();
+					for (int i = 0; i < NAMES; i++) {
+						names.add("contended " + r + " " + i);
+					}
+					Collections.shuffle(names);
+					round.await(1, TimeUnit.MINUTES);
+					seen.putAll(transaction.execute(status -> ingredientService.resolveOrCreate(names)));
+				}
+				return seen;
+			}));
+		}
+
+		List<Map<String, Integer>> seen = new ArrayList<>();
+		for (Future<Map<String, Integer>> result : results) {
+			seen.add(result.get(2, TimeUnit.MINUTES));
+		}
+		executor.shutdown();
+
+		Map<String, Integer> stored = new HashMap<>();
+		jdbcTemplate.query("select name, ingredient_id from ingredient_details where name like 'contended %'",
+				rs -> { stored.put(rs.getString(1), rs.getInt(2)); });
+		assertEquals(ROUNDS * NAMES, stored.size());
+		seen.forEach(ids -> assertEquals(stored, ids));
+	}
+}
@@ -0,0 +1,41 @@
+package com.ps.culinarycompanion.ingredients;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class IngredientNormalizerTest {
+
+	private final IngredientNormalizer normalizer = new IngredientNormalizer();
+
+	@ParameterizedTest
+	@CsvSource(delimiter = '|', value = {
+			"Tomatoes (diced)|tomato",
+			"2 ripe tomatoes|2 tomato",
+			"Garlic cloves, minced|garlic clove",
+			"Extra-Virgin Olive Oil|olive oil",
+			"Scallions|green onion",
+			"icing sugar|powdered sugar",
+			"Baby's breath|babys breath",
+			"Potatoes|potato",
+			"Cherries|cherry",
+			"peaches|peach",
+			"Asparagus|asparagus",
+			"hummus|hummus",
+			"bay leaves|bay leaf",
+			"Fresh|fresh",
+			"ingredient 12|ingredient 12"
+	})
+	void reducesNamesToTheirCanonicalForm(String name, String canonical) {
+		assertEquals(canonical, normalizer.normalize(name));
+		assertEquals(canonical, normalizer.normalize(canonical));
+	}
+
+	@ParameterizedTest
+	@CsvSource({"flour", "green onion", "olive oil"})
+	void returnsCanonicalNamesUnchanged(String name) {
+		assertSame(name, normalizer.normalize(name));
+	}
+}
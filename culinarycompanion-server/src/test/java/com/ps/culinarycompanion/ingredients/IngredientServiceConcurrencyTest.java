@@ -0,0 +1,129 @@
+package com.ps.culinarycompanion.ingredients;
+
+import com.ps.culinarycompanion.dao.IngredientRepository;
+import com.ps.culinarycompanion.dao.IngredientRepositoryCustom.InsertedIngredients;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Hammers {@link IngredientService#resolveOrCreate} from many threads against a repository that behaves like the
+ * unique constraint on ingredient names: the first insert of a name wins and later ones get its id back.
+ */
+class IngredientServiceConcurrencyTest {
+
+	private static final int THREADS = 16;
+
+	private static final int ROUNDS = 500;
+
+	private static final int NAMES = 200;
+
+	private final Map<String, Integer> table = new ConcurrentHashMap<>();
+
+	private final AtomicInteger sequence = new AtomicInteger();
+
+	private final AtomicInteger namesSentToDatabase = new AtomicInteger();
+
+	private final Map<String, Integer> announced = new ConcurrentHashMap<>();
+
+	private IngredientRepository repository;
+
+	private IngredientService service;
+
+	@BeforeEach
+	void createService() {
+		repository = mock(IngredientRepository.class);
+		when(repository.insertIfAbsent(anyCollection())).thenAnswer(invocation -> {
+			Collection<String> names = invocation.getArgument(0);
+			namesSentToDatabase.addAndGet(names.size());
+			Map<String, Integer> ids = new HashMap<>();
+			Map<String, Integer> created = new HashMap<>();
+			for (String name : names) {
+				ids.put(name, table.computeIfAbsent(name, key -> {
+					int id = sequence.incrementAndGet();
+					created.put(name, id);
+					return id;
+				}));
+			}
+			return new InsertedIngredients(ids, created);
+		});
+		service = new IngredientService(repository, new IngredientNormalizer(), event -> {
+			if (event instanceof IngredientsCreatedEvent created) {
+				created.idsByName().forEach((name, id) ->
+						assertNull(announced.putIfAbsent(name, id), name + " announced as created twice"));
+			}
+		});
+	}
+
+	@Test
+	void everyThreadResolvesANameToTheSameId() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Map<String, Integer>>> results = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			results.add(executor.submit(() -> {
+				start.await();
+				Map<String, Integer> seen = new HashMap<>();
+				for (int round = 0; round < ROUNDS; round++) {
+					List<String> names = new ArrayList<>();
+					for (int i = 0; i < 10; i++) {
+						names.add("ingredient " + ThreadLocalRandom.current().nextInt(NAMES));
+					}
+					service.resolveOrCreate(names).forEach((name, id) -> {
+						Integer previous = seen.putIfAbsent(name, id);
+						assertTrue(previous == null || previous.equals(id), name + " resolved to two ids");
+					});
+				}
+				return seen;
+			}));
+		}
+		start.countDown();
+		for (Future<Map<String, Integer>> result : results) {
+			result.get(1, TimeUnit.MINUTES).forEach((name, id) -> assertEquals(table.get(name), id));
+		}
+		executor.shutdown();
+
+		assertEquals(NAMES, table.size());
+		assertEquals(table, announced);
+		// A name goes to the database again only while another thread is still resolving it
+		assertTrue(namesSentToDatabase.get() < THREADS * ROUNDS, namesSentToDatabase + " names sent to the database");
+
+		clearInvocations(repository);
+		List<String> all = new ArrayList<>(table.keySet());
+		assertEquals(table, service.resolveOrCreate(all));
+		verifyNoInteractions(repository);
+	}
+
+	@Test
+	void repeatedAndNullNamesAreResolvedOnce() {
+		List<String> names = new ArrayList<>(List.of("salt", "salt", "pepper"));
+		names.add(null);
+
+		Map<String, Integer> ids = service.resolveOrCreate(names);
+
+		assertEquals(Map.of("salt", table.get("salt"), "pepper", table.get("pepper")), ids);
+		assertEquals(2, namesSentToDatabase.get());
+	}
+}
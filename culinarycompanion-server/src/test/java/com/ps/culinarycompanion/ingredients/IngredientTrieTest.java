@@ -0,0 +1,89 @@
+package com.ps.culinarycompanion.ingredients;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IngredientTrieTest {
+
+	private IngredientTrie trie;
+
+	@BeforeEach
+	void createTrie() {
+		trie = new IngredientTrie();
+		trie.add(1, "black pepper", 40);
+		trie.add(2, "Peppermint", 5);
+		trie.add(3, "pepper", 90);
+		trie.add(4, "red bell pepper", 12);
+		trie.add(5, "sweet pea", 30);
+		trie.add(6, "pepper-jack cheese", 12);
+	}
+
+	@Test
+	void prefixesMatchTheStartOfEveryWordMostUsedFirst() {
+		assertEquals(List.of("pepper", "black pepper", "pepper-jack cheese", "red bell pepper", "Peppermint"),
+				names("pep", 10));
+		assertEquals(List.of("pepper-jack cheese"), names("jack", 10));
+		assertEquals(List.of("red bell pepper"), names("bell", 10));
+	}
+
+	@Test
+	void prefixesInsideAWordDoNotMatch() {
+		assertEquals(List.of(), names("epper", 10));
+		assertEquals(List.of(), names("mint", 10));
+		assertEquals(List.of(), names("saffron", 10));
+	}
+
+	@Test
+	void matchingIsCaseInsensitive() {
+		assertEquals(names("pep", 10), names("PeP", 10));
+		assertEquals(List.of("Peppermint"), names("peppermint", 10));
+	}
+
+	@Test
+	void limitAndEmptyPrefix() {
+		assertEquals(List.of("pepper", "black pepper"), names("pep", 2));
+		assertEquals(List.of("pepper", "black pepper", "sweet pea"), names("", 3));
+	}
+
+	@Test
+	void eachNodeKeepsItsMostUsedIngredientsWhateverTheInsertionOrder() {
+		List<Integer> order = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			order.add(i);
+		}
+		Collections.shuffle(order, new Random(7));
+		IngredientTrie salts = new IngredientTrie();
+		for (int i : order) {
+			salts.add(100 + i, "salt " + i, i % 25);
+		}
+
+		// Uses 24 twice, 23 twice and so on, equal uses ordered by name
+		List<String> expected = List.of("salt 24", "salt 49", "salt 23", "salt 48", "salt 22", "salt 47",
+				"salt 21", "salt 46", "salt 20", "salt 45");
+		assertEquals(expected, salts.complete("sa", IngredientTrie.TOP_K).stream()
+				.map(IngredientSuggestion::name)
+				.toList());
+		assertEquals(50, salts.size());
+	}
+
+	@Test
+	void aRepeatedWordOrIngredientIsListedOnce() {
+		trie.add(7, "pepper pepper sauce", 1);
+		trie.add(3, "pepper", 1000);
+
+		assertEquals(List.of("pepper", "black pepper", "pepper-jack cheese", "red bell pepper", "Peppermint",
+				"pepper pepper sauce"), names("pep", 10));
+		assertEquals(7, trie.size());
+	}
+
+	private List<String> names(String prefix, int limit) {
+		return trie.complete(prefix, limit).stream().map(IngredientSuggestion::name).toList();
+	}
+}
@@ -0,0 +1,178 @@
+package com.ps.culinarycompanion.pantry;
+
+import com.ps.culinarycompanion.recipes.StoredRecipe;
+import com.ps.culinarycompanion.recipes.StoredRecipeReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Counts the missing ingredients of small recipes through the bit-sliced counter, and checks the counts of a larger
+ * random corpus against counting each recipe's ingredients one by one.
+ */
+class PantryMatchIndexTest {
+
+	private static final StoredRecipe SALAD = recipe(1, "Salad", 10, 11, 12);
+
+	private static final StoredRecipe OMELETTE = recipe(2, "Omelette", 10, 13, 14, 15);
+
+	private static final StoredRecipe STEW = recipe(3, "Stew", 11, 13, 16, 17, 18, 19, 20);
+
+	private StoredRecipeReader reader;
+
+	private PantryMatchIndex index;
+
+	@BeforeEach
+	void createIndex() {
+		reader = mock(StoredRecipeReader.class);
+		index = new PantryMatchIndex(reader);
+		List.of(SALAD, OMELETTE, STEW).forEach(this::update);
+	}
+
+	@Test
+	void aPantryCoveringEveryIngredientMissesNone() {
+		assertCookable(index.findCookable(List.of(10, 11, 12), 0, 10), 1, 0);
+		assertCookable(index.findCookable(List.of(12, 11, 10, 99), 0, 10), 1, 0);
+		// Seven covered ingredients take three digits of the counter
+		assertCookable(index.findCookable(List.of(11, 13, 16, 17, 18, 19, 20), 0, 10), 3, 0);
+	}
+
+	@Test
+	void recipesMissingUpToTheLimitAreReturnedFewestMissingFirst() {
+		List<Integer> pantry = List.of(10, 11, 13);
+
+		assertCookable(index.findCookable(pantry, 0, 10));
+		assertCookable(index.findCookable(pantry, 1, 10), 1, 1);
+		assertCookable(index.findCookable(pantry, 2, 10), 1, 1, 2, 2);
+		assertCookable(index.findCookable(pantry, 5, 10), 1, 1, 2, 2, 3, 5);
+		assertCookable(index.findCookable(pantry, 5, 2), 1, 1, 2, 2);
+	}
+
+	@Test
+	void repeatedPantryAndRecipeIngredientsCountOnce() {
+		update(new StoredRecipe(4, "Toast", "", "", Arrays.asList(21, 21, null, 22), List.of()));
+
+		assertCookable(index.findCookable(List.of(21, 21, 10), 2, 10), 4, 1, 1, 2);
+		assertCookable(index.findCookable(List.of(21, 22, 21), 0, 10), 4, 0);
+	}
+
+	@Test
+	void recipesSharingNoIngredientWithThePantryAreNotReturned() {
+		assertCookable(index.findCookable(List.of(99), 10, 10));
+		assertCookable(index.findCookable(List.of(), 10, 10));
+	}
+
+	@Test
+	void removedRecipesAreNotFound() {
+		index.remove(1);
+
+		assertCookable(index.findCookable(List.of(10, 11, 12), 3, 10), 2, 3);
+		index.remove(1);
+		index.remove(42);
+		assertCookable(index.findCookable(List.of(12), 5, 10));
+	}
+
+	@Test
+	void anUpdatedRecipeIsMatchedOnItsNewIngredientsOnly() {
+		update(recipe(1, "Green salad", 12, 30));
+
+		assertCookable(index.findCookable(List.of(12, 30), 0, 10), 1, 0);
+		assertCookable(index.findCookable(List.of(11), 0, 10));
+		assertEquals("Green salad", index.findCookable(List.of(30), 1, 10).get(0).title());
+	}
+
+	@Test
+	void countsMatchADirectCountOverARandomCorpus() {
+		Random random = new Random(7);
+		List.of(SALAD, OMELETTE, STEW).forEach(recipe -> index.remove(recipe.recipeId()));
+		Map<Integer, StoredRecipe> live = new HashMap<>();
+		for (int id = 100; id < 2100; id++) {
+			live.put(id, recipe(id, "Recipe " + id, random.ints(1 + random.nextInt(20), 0, 60).toArray()));
+		}
+		live.values().forEach(this::update);
+		for (int i = 0; i < 200; i++) {
+			int recipeId = 100 + random.nextInt(2000);
+			if (random.nextBoolean()) {
+				index.remove(recipeId);
+				live.remove(recipeId);
+			} else {
+				StoredRecipe recipe = recipe(recipeId, "Recipe " + recipeId + "b",
+						random.ints(1 + random.nextInt(20), 0, 60).toArray());
+				update(recipe);
+				live.put(recipeId, recipe);
+			}
+		}
+
+		for (int q = 0; q < 20; q++) {
+			Set<Integer> pantry = new HashSet<>();
+			random.ints(1 + random.nextInt(30), 0, 60).forEach(pantry::add);
+			int maxMissing = random.nextInt(8);
+			List<CookableRecipe> expected = new ArrayList<>();
+			for (StoredRecipe recipe : live.values()) {
+				Set<Integer> ingredients = new HashSet<>(recipe.ingredientIds());
+				long missing = ingredients.stream().filter(ingredient -> !pantry.contains(ingredient)).count();
+				if (missing < ingredients.size() && missing <= maxMissing) {
+					expected.add(new CookableRecipe(recipe.recipeId(), recipe.title(), (int) missing));
+				}
+			}
+			expected.sort(Comparator.comparingInt(CookableRecipe::missingIngredients)
+					.thenComparing(CookableRecipe::title));
+
+			assertEquals(expected, index.findCookable(pantry, maxMissing, Integer.MAX_VALUE), "pantry " + pantry);
+		}
+	}
+
+	@Test
+	void writesDuringALoadAreNotUndoneByIt() {
+		// The load reads every row after the salad was deleted and the omelette rewritten, but from a snapshot
+		// taken before
+		when(reader.forEach(any())).thenAnswer(invocation -> {
+			index.remove(1);
+			update(recipe(2, "Scrambled eggs", 13, 14));
+			Consumer<StoredRecipe> consumer = invocation.getArgument(0);
+			List.of(SALAD, OMELETTE, STEW).forEach(consumer);
+			return 3;
+		});
+
+		index.load();
+
+		assertCookable(index.findCookable(List.of(10, 11, 12), 0, 10));
+		assertCookable(index.findCookable(List.of(13, 14), 0, 10), 2, 0);
+		assertEquals("Scrambled eggs", index.findCookable(List.of(13), 1, 10).get(0).title());
+	}
+
+	private void update(StoredRecipe recipe) {
+		index.update(recipe.recipeId(), recipe.title(), recipe.ingredientIds());
+	}
+
+	private static StoredRecipe recipe(int recipeId, String title, int... ingredientIds) {
+		return new StoredRecipe(recipeId, title, "", "", IntStream.of(ingredientIds).boxed().toList(), List.of());
+	}
+
+	/**
+	 * Asserts the matches, given as alternating recipe ids and missing ingredient counts.
+	 */
+	private static void assertCookable(List<CookableRecipe> cookable, int... expected) {
+		assertEquals(expected.length / 2, cookable.size(), cookable.toString());
+		for (int i = 0; i < cookable.size(); i++) {
+			assertEquals(expected[2 * i], cookable.get(i).recipeId(), cookable.toString());
+			assertEquals(expected[2 * i + 1], cookable.get(i).missingIngredients(), cookable.toString());
+		}
+	}
+}
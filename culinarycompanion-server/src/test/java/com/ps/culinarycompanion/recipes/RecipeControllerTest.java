@@ -0,0 +1,57 @@
+package com.ps.culinarycompanion.recipes;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Answers writes that lose a race on a recipe's version with 409 Conflict rather than a server error.
+ */
+class RecipeControllerTest {
+
+	private RecipeService recipeService;
+
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		recipeService = mock(RecipeService.class);
+		mockMvc = MockMvcBuilders.standaloneSetup(new RecipeController(recipeService)).build();
+	}
+
+	@Test
+	void aConcurrentRecipeUpdateIsAConflict() throws Exception {
+		when(recipeService.updateRecipe(eq(7), any(Recipe.class)))
+				.thenThrow(new ObjectOptimisticLockingFailureException(Recipe.class, 7));
+
+		mockMvc.perform(put("/api/recipes/7")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"title\": \"Soup\", \"description\": \"\", \"instructions\": \"Simmer\"}"))
+				.andExpect(status().isConflict())
+				.andExpect(jsonPath("$.status").value(409));
+	}
+
+	@Test
+	void aConcurrentIngredientUpdateIsAConflict() throws Exception {
+		when(recipeService.updateIngredients(anyList(), anyInt()))
+				.thenThrow(new ObjectOptimisticLockingFailureException(Recipe.class, 7));
+
+		mockMvc.perform(put("/api/recipes/7/ingredients")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("[]"))
+				.andExpect(status().isConflict());
+	}
+}
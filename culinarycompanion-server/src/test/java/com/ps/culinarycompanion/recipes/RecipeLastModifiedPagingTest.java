@@ -0,0 +1,93 @@
+package com.ps.culinarycompanion.recipes;
+
+import com.ps.culinarycompanion.ingredients.IngredientNormalizer;
+import com.ps.culinarycompanion.ingredients.IngredientService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pages through recipes in the last modified orders when some rows were written without a last modified date, as
+ * rows created before the date was always set were.
+ */
+@DataJpaTest(properties = {
+		"spring.sql.init.mode=never",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Import({RecipeService.class, IngredientService.class, IngredientNormalizer.class, SimpleMeterRegistry.class})
+class RecipeLastModifiedPagingTest {
+
+	private static final int RECIPES = 12;
+
+	private static final LocalDate LEGACY_CREATED = LocalDate.of(2024, 1, 1);
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private RecipeService recipeService;
+
+	@BeforeEach
+	void createRecipes() {
+		for (int r = 0; r < RECIPES; r++) {
+			entityManager.persist(new Recipe("Recipe " + r, "", "", "cook@example.com", null, null, null));
+		}
+		entityManager.flush();
+
+		// Recreate the legacy schema, in which the column is nullable, and null out every other recipe's date
+		entityManager.getEntityManager()
+				.createNativeQuery("alter table recipe_details alter column last_modified_date set null")
+				.executeUpdate();
+		entityManager.getEntityManager().createNativeQuery("""
+				update recipe_details set last_modified_date = null, created_date = ?
+				where mod(recipe_id, 2) = 0""")
+				.setParameter(1, LEGACY_CREATED)
+				.executeUpdate();
+		entityManager.clear();
+	}
+
+	@Test
+	void everyRecipeIsPagedOnceAfterTheBackfill() {
+		assertEquals(RECIPES / 2, recipeService.backfillLastModifiedDates());
+
+		for (RecipeSort sort : List.of(RecipeSort.LAST_MODIFIED_ASC, RecipeSort.LAST_MODIFIED_DESC)) {
+			List<RecipeView> seen = new ArrayList<>();
+			String cursor = null;
+			do {
+				RecipePage page = recipeService.getRecipePage(sort, 5, cursor);
+				assertFalse(page.items().isEmpty(), sort + " returned an empty page");
+				seen.addAll(page.items());
+				cursor = page.nextCursor();
+			} while (cursor != null);
+
+			assertEquals(RECIPES, seen.size(), sort.toString());
+			assertEquals(RECIPES, new HashSet<>(seen.stream().map(RecipeView::recipeId).toList()).size());
+			for (int i = 1; i < seen.size(); i++) {
+				int order = seen.get(i - 1).lastModifiedDate().compareTo(seen.get(i).lastModifiedDate());
+				assertTrue(sort == RecipeSort.LAST_MODIFIED_ASC ? order <= 0 : order >= 0, sort.toString());
+			}
+			assertTrue(seen.stream().anyMatch(recipe -> LEGACY_CREATED.equals(recipe.lastModifiedDate())));
+		}
+	}
+
+	@Test
+	void createdRecipesHaveALastModifiedDate() {
+		Recipe created = recipeService.createRecipe(new Recipe("New", "", "", "cook@example.com", null, null, null));
+
+		assertNotNull(created.getLastModifiedDate());
+	}
+}
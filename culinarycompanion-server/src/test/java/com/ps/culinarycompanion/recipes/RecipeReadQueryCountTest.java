@@ -0,0 +1,115 @@
+package com.ps.culinarycompanion.recipes;
+
+import com.ps.culinarycompanion.ingredients.Ingredient;
+import com.ps.culinarycompanion.ingredients.IngredientNormalizer;
+import com.ps.culinarycompanion.ingredients.IngredientService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Guards the read paths of {@link RecipeController} against N+1 loading: each one must run a fixed number of
+ * statements whatever the number of recipes and ingredient lines it returns.
+ */
+@DataJpaTest(properties = {
+		"spring.sql.init.mode=never",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({RecipeService.class, IngredientService.class, IngredientNormalizer.class, SimpleMeterRegistry.class})
+class RecipeReadQueryCountTest {
+
+	private static final int RECIPES = 30;
+
+	private static final int LINES_PER_RECIPE = 3;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private RecipeService recipeService;
+
+	private Statistics statistics;
+
+	private int firstRecipeId;
+
+	@BeforeEach
+	void createRecipes() {
+		List<Ingredient> ingredients = new ArrayList<>();
+		for (int i = 0; i < LINES_PER_RECIPE; i++) {
+			ingredients.add(entityManager.persist(new Ingredient("ingredient " + i)));
+		}
+		for (int r = 0; r < RECIPES; r++) {
+			Recipe recipe = entityManager.persist(new Recipe("Recipe " + r, "", "",
+					r % 2 == 0 ? "even@example.com" : "odd@example.com", null, null, null));
+			if (r == 0) {
+				firstRecipeId = recipe.getRecipeId();
+			}
+			for (Ingredient ingredient : ingredients) {
+				entityManager.persist(new RecipeIngredient(
+						new RecipeIngredientId(recipe.getRecipeId(), ingredient.getIngredientId()),
+						recipe, ingredient, 2L, CookingUnit.CUP));
+			}
+		}
+		entityManager.flush();
+		entityManager.clear();
+
+		statistics = entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class)
+				.getStatistics();
+	}
+
+	@Test
+	void recipePagesTakeTwoQueriesWhateverTheirSize() {
+		RecipePage small = countQueries(2, () -> recipeService.getRecipePage(RecipeSort.ID_ASC, 5, null));
+		RecipePage large = countQueries(2, () -> recipeService.getRecipePage(RecipeSort.ID_ASC, 20, null));
+
+		assertEquals(5, small.items().size());
+		assertEquals(20, large.items().size());
+		large.items().forEach(recipe -> assertEquals(LINES_PER_RECIPE, recipe.ingredients().size()));
+	}
+
+	@Test
+	void followingPagesTakeTwoQueries() {
+		for (RecipeSort sort : RecipeSort.values()) {
+			RecipePage first = recipeService.getRecipePage(sort, 10, null);
+			RecipePage second = countQueries(2, () -> recipeService.getRecipePage(sort, 10, first.nextCursor()));
+
+			assertEquals(10, second.items().size());
+		}
+	}
+
+	@Test
+	void userRecipePagesTakeTwoQueries() {
+		RecipePage page = countQueries(2, () -> recipeService.getUserCreatedRecipes("even@example.com", 100, null));
+
+		assertEquals(RECIPES / 2, page.items().size());
+		page.items().forEach(recipe -> assertEquals(LINES_PER_RECIPE, recipe.ingredients().size()));
+	}
+
+	@Test
+	void recipeTakesOneQuery() {
+		RecipeView recipe = countQueries(1, () -> recipeService.getRecipeView(firstRecipeId));
+
+		assertEquals(LINES_PER_RECIPE, recipe.ingredients().size());
+	}
+
+	private <T> T countQueries(long expected, Supplier<T> read) {
+		entityManager.clear();
+		statistics.clear();
+		T result = read.get();
+		assertEquals(expected, statistics.getPrepareStatementCount());
+		return result;
+	}
+}
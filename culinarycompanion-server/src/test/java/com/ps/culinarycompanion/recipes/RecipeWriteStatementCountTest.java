@@ -0,0 +1,214 @@
+package com.ps.culinarycompanion.recipes;
+
+import com.ps.culinarycompanion.PostgresTestConfiguration;
+import com.ps.culinarycompanion.ingredients.Ingredient;
+import com.ps.culinarycompanion.ingredients.IngredientNormalizer;
+import com.ps.culinarycompanion.ingredients.IngredientService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the statements issued when a list of ingredients is written to a recipe one line at a time and in
+ * bulk, and bounds those of a full ingredient list update. The counts are reported in the assertion messages so a
+ * change in either path shows up in a failure. Statements are counted on the DataSource, so the JDBC insert that
+ * creates missing ingredients counts as well as those issued through Hibernate. That insert is PostgreSQL's, so the
+ * test runs against a PostgreSQL container.
+ */
+@DataJpaTest(properties = "spring.sql.init.mode=never")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import({PostgresTestConfiguration.class, RecipeService.class, IngredientService.class, IngredientNormalizer.class,
+		SimpleMeterRegistry.class, RecipeWriteStatementCountTest.StatementCounter.class})
+class RecipeWriteStatementCountTest {
+
+	private static final int LINES = 20;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private RecipeService recipeService;
+
+	@Autowired
+	private StatementCounter statementCounter;
+
+	private int oneByOneRecipeId;
+
+	private int bulkRecipeId;
+
+	@BeforeEach
+	void createRecipes() {
+		// Half of the ingredients exist already, half have to be created
+		for (int i = 0; i < LINES / 2; i++) {
+			entityManager.persist(new Ingredient("existing " + i));
+		}
+		oneByOneRecipeId = entityManager.persist(new Recipe("One by one", "", "", "cook@example.com",
+				new ArrayList<>(), null, null)).getRecipeId();
+		bulkRecipeId = entityManager.persist(new Recipe("Bulk", "", "", "cook@example.com",
+				new ArrayList<>(), null, null)).getRecipeId();
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	void bulkInsertUsesAFixedNumberOfStatements() {
+		long oneByOne = countStatements(() -> lines("a").forEach(line ->
+				recipeService.addIngredient(line, oneByOneRecipeId)));
+		long bulk = countStatements(() -> recipeService.addIngredients(lines("b"), bulkRecipeId));
+		String counts = "adding " + LINES + " ingredient lines took " + oneByOne + " statements one by one and "
+				+ bulk + " in bulk";
+
+		// Recipe with its lines, ingredient insert, lookup of the ingredients that existed, ingredients by id,
+		// recipe_ingredients batch, the recipe's version bump and the read of its database-generated created date.
+		// On PostgreSQL this is 7 statements against 75 one by one
+		assertTrue(bulk <= 7, counts);
+		assertTrue(bulk < oneByOne, counts);
+		assertEquals(LINES, recipeService.getRecipeView(bulkRecipeId).ingredients().size());
+	}
+
+	@Test
+	void bulkInsertUpdatesLinesAlreadyOnTheRecipe() {
+		recipeService.addIngredients(lines("c"), bulkRecipeId);
+		entityManager.flush();
+		entityManager.clear();
+
+		List<RecipeIngredient> again = lines("c");
+		again.forEach(line -> line.setQuantity(5L));
+		recipeService.addIngredients(again, bulkRecipeId);
+		entityManager.flush();
+		entityManager.clear();
+
+		List<RecipeIngredientView> ingredients = recipeService.getRecipeView(bulkRecipeId).ingredients();
+		assertEquals(LINES, ingredients.size());
+		ingredients.forEach(line -> assertEquals(5L, line.quantity()));
+	}
+
+	@Test
+	void ingredientUpdateIsOneDiffAndOneFlush() {
+		recipeService.addIngredients(lines("d"), bulkRecipeId);
+		entityManager.flush();
+
+		// Keep 15 lines, changing the quantity of 5, drop the other 5 and add 5 new ones
+		List<RecipeIngredient> update = new ArrayList<>(lines("d").subList(5, LINES));
+		update.subList(0, 5).forEach(line -> line.setQuantity(9L));
+		for (int i = 0; i < 5; i++) {
+			update.add(new RecipeIngredient(null, null, new Ingredient("added " + i), 1L, CookingUnit.GRAM));
+		}
+
+		AtomicReference<List<RecipeIngredientView>> result = new AtomicReference<>();
+		long statements = countStatements(() -> result.set(recipeService.updateIngredients(update, bulkRecipeId)));
+		// Recipe with its lines, ingredient insert, lookup of the ingredients that existed, ingredients by id, then
+		// one batch each of line inserts, line updates and line deletes, the recipe's version bump and the read of its
+		// database-generated created date
+		assertTrue(statements <= 9, "updating " + LINES + " ingredient lines took " + statements + " statements");
+		assertEquals(LINES, result.get().size());
+		entityManager.clear();
+		List<RecipeIngredientView> stored = recipeService.getRecipeView(bulkRecipeId).ingredients();
+		assertEquals(LINES, stored.size());
+		assertEquals(5, stored.stream().filter(line -> line.quantity() == 9L).count());
+		assertEquals(5, stored.stream().filter(line -> line.ingredient().name().startsWith("added ")).count());
+	}
+
+	@Test
+	void ingredientWritesBumpTheRecipeVersion() {
+		long before = recipeService.getRecipeView(bulkRecipeId).version();
+
+		recipeService.addIngredients(lines("e"), bulkRecipeId);
+		entityManager.flush();
+		entityManager.clear();
+		long afterAdd = recipeService.getRecipeView(bulkRecipeId).version();
+
+		recipeService.updateIngredients(lines("e").subList(0, 1), bulkRecipeId);
+		entityManager.flush();
+		entityManager.clear();
+		long afterUpdate = recipeService.getRecipeView(bulkRecipeId).version();
+
+		assertTrue(afterAdd > before);
+		assertTrue(afterUpdate > afterAdd);
+	}
+
+	private static List<RecipeIngredient> lines(String prefix) {
+		List<RecipeIngredient> lines = new ArrayList<>();
+		for (int i = 0; i < LINES; i++) {
+			String name = i < LINES / 2 ? "existing " + i : prefix + " new " + i;
+			lines.add(new RecipeIngredient(null, null, new Ingredient(name), 2L, CookingUnit.CUP));
+		}
+		return lines;
+	}
+
+	private long countStatements(Runnable write) {
+		entityManager.clear();
+		statementCounter.reset();
+		write.run();
+		entityManager.flush();
+		return statementCounter.count();
+	}
+
+	/**
+	 * Wraps the DataSource so every statement prepared on its connections is counted, whether by Hibernate or by a
+	 * JdbcTemplate.
+	 */
+	static class StatementCounter implements BeanPostProcessor {
+
+		private final AtomicLong statements = new AtomicLong();
+
+		@Override
+		public Object postProcessAfterInitialization(Object bean, String beanName) {
+			if (!(bean instanceof DataSource dataSource)) {
+				return bean;
+			}
+			return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {DataSource.class},
+					(proxy, method, args) -> {
+						Object result = invoke(dataSource, method, args);
+						return result instanceof Connection connection ? counting(connection) : result;
+					});
+		}
+
+		void reset() {
+			statements.set(0);
+		}
+
+		long count() {
+			return statements.get();
+		}
+
+		private Connection counting(Connection connection) {
+			return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class},
+					(proxy, method, args) -> {
+						if (method.getName().startsWith("prepare") || method.getName().equals("createStatement")) {
+							statements.incrementAndGet();
+						}
+						return invoke(connection, method, args);
+					});
+		}
+
+		private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+			try {
+				return method.invoke(target, args);
+			} catch (InvocationTargetException ex) {
+				throw ex.getCause();
+			}
+		}
+	}
+}
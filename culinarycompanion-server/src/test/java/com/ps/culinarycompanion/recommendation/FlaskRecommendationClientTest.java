@@ -0,0 +1,209 @@
+package com.ps.culinarycompanion.recommendation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the client against a local stub of the Flask recommender that can be made slow or failing.
+ */
+class FlaskRecommendationClientTest {
+
+	private static final String RECOMMENDATIONS =
+			"[{\"title\":\"Soup\",\"description\":\"\",\"ingredients\":\"leek\",\"instructions\":\"\"}]";
+
+	private final Stub primary = new Stub();
+
+	private final Stub hedge = new Stub();
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private HttpServer server;
+
+	private FlaskRecommendationClient client;
+
+	private int calls;
+
+	@BeforeEach
+	void startServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/primary", exchange -> primary.handle(exchange));
+		server.createContext("/hedge", exchange -> hedge.handle(exchange));
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.start();
+	}
+
+	@AfterEach
+	void stopServer() {
+		if (client != null) {
+			client.close();
+		}
+		server.stop(0);
+	}
+
+	@Test
+	void returnsRecommendationsFromUpstream() {
+		client = client(false, Duration.ofSeconds(2), Duration.ofMinutes(1));
+
+		List<RecipeRecommendation> recommendations = recommend();
+
+		assertEquals("Soup", recommendations.get(0).title());
+		assertEquals(1, counter("recommendation.upstream.calls", "success"));
+	}
+
+	@Test
+	void slowUpstreamFailsAtTheReadDeadline() {
+		primary.delayMillis = 3000;
+		client = client(false, Duration.ofMillis(200), Duration.ofMinutes(1));
+
+		long start = System.nanoTime();
+		CompletionException ex = assertThrows(CompletionException.class, this::recommend);
+
+		assertInstanceOf(HttpTimeoutException.class, ex.getCause());
+		assertTrue(System.nanoTime() - start < Duration.ofMillis(2000).toNanos());
+	}
+
+	@Test
+	void breakerOpensAfterFailuresAndFailsFast() {
+		primary.status = 500;
+		client = client(false, Duration.ofSeconds(2), Duration.ofMinutes(1));
+
+		for (int i = 0; i < 4; i++) {
+			assertThrows(CompletionException.class, this::recommend);
+		}
+		CompletionException rejected = assertThrows(CompletionException.class, this::recommend);
+
+		assertInstanceOf(FlaskRecommendationClient.UpstreamException.class, rejected.getCause());
+		assertEquals(4, primary.requests.get());
+		assertEquals(1, counter("recommendation.upstream.calls", "rejected"));
+		assertEquals(1, gauge("open"));
+	}
+
+	@Test
+	void breakerClosesAfterSuccessfulProbe() throws InterruptedException {
+		primary.status = 500;
+		client = client(false, Duration.ofSeconds(2), Duration.ofMillis(200));
+		for (int i = 0; i < 4; i++) {
+			assertThrows(CompletionException.class, this::recommend);
+		}
+		assertEquals(1, gauge("open"));
+
+		primary.status = 200;
+		Thread.sleep(300);
+		assertEquals(1, gauge("half_open"));
+
+		assertEquals("Soup", recommend().get(0).title());
+		assertEquals(1, gauge("closed"));
+	}
+
+	@Test
+	void slowPrimaryIsHedgedToSecondUpstream() {
+		primary.delayMillis = 1500;
+		client = client(true, Duration.ofSeconds(5), Duration.ofMinutes(1));
+
+		long start = System.nanoTime();
+		assertEquals("Soup", recommend().get(0).title());
+
+		assertTrue(System.nanoTime() - start < Duration.ofMillis(1000).toNanos());
+		assertEquals(1, counter("recommendation.upstream.hedges", "sent"));
+		assertEquals(1, counter("recommendation.upstream.hedges", "won"));
+	}
+
+	@Test
+	void failingPrimaryFallsBackToHedgeImmediately() {
+		primary.status = 503;
+		client = client(true, Duration.ofSeconds(5), Duration.ofMinutes(1));
+
+		assertEquals("Soup", recommend().get(0).title());
+		assertEquals(1, hedge.requests.get());
+	}
+
+	@Test
+	void failsWhenBothUpstreamsFail() {
+		primary.status = 500;
+		hedge.status = 500;
+		client = client(true, Duration.ofSeconds(5), Duration.ofMinutes(1));
+
+		CompletionException ex = assertThrows(CompletionException.class, this::recommend);
+
+		assertInstanceOf(FlaskRecommendationClient.UpstreamException.class, ex.getCause());
+		assertEquals(1, primary.requests.get());
+		assertEquals(1, hedge.requests.get());
+	}
+
+	private FlaskRecommendationClient client(boolean hedged, Duration readTimeout, Duration openDuration) {
+		String base = "http://127.0.0.1:" + server.getAddress().getPort();
+		return new FlaskRecommendationClient(new ObjectMapper(), registry, base + "/primary",
+				hedged ? base + "/hedge" : "", Duration.ofSeconds(1), readTimeout, 4, 4, 0.5, openDuration,
+				Duration.ofMillis(50));
+	}
+
+	private List<RecipeRecommendation> recommend() {
+		// A distinct ingredient per call so calls are never coalesced with an earlier one
+		return client.getRecommendations(List.of("leek " + calls++)).join();
+	}
+
+	private double counter(String name, String result) {
+		return registry.find(name).tag("result", result).counters().stream()
+				.mapToDouble(counter -> counter.count())
+				.sum();
+	}
+
+	private double gauge(String state) {
+		return registry.get("recommendation.upstream.breaker.state")
+				.tag("upstream", "primary")
+				.tag("state", state)
+				.gauge()
+				.value();
+	}
+
+	private static final class Stub {
+
+		private final AtomicInteger requests = new AtomicInteger();
+
+		private volatile int status = 200;
+
+		private volatile long delayMillis;
+
+		void handle(HttpExchange exchange) throws IOException {
+			requests.incrementAndGet();
+			exchange.getRequestBody().readAllBytes();
+			try {
+				Thread.sleep(delayMillis);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			byte[] body = (status == 200 ? RECOMMENDATIONS : "error").getBytes(StandardCharsets.UTF_8);
+			try {
+				exchange.sendResponseHeaders(status, body.length);
+				try (OutputStream out = exchange.getResponseBody()) {
+					out.write(body);
+				}
+			} catch (IOException ex) {
+				// The client gave up waiting
+			} finally {
+				exchange.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,115 @@
+package com.ps.culinarycompanion.recommendation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Writes snapshots of a small corpus with multi-byte text and maps them back.
+ */
+class IndexSnapshotTest {
+
+	private static final Instant BUILT_AT = Instant.ofEpochMilli(1_700_000_000_123L);
+
+	private static final List<RecipeDocument> CORPUS = List.of(
+			RecipeCorpus.document(7, "Crème brûlée", "Custard", "Bake, then torch", List.of("cream", "sugar", "egg")),
+			RecipeCorpus.document(RecipeDocument.EXTERNAL, "Salsa", null, null, List.of("jalapeño", "tomato")),
+			RecipeCorpus.document(12, "Water", "", "Pour", List.of()),
+			RecipeCorpus.document(31, "Tomato tart", "Flaky", "Bake", List.of("tomato", "flour", "butter", "egg")));
+
+	@TempDir
+	private Path directory;
+
+	@Test
+	void aMappedSnapshotMatchesTheIndexItWasWrittenFrom() throws IOException {
+		TfIdfIndex built = TfIdfIndex.build(CORPUS);
+		Path path = directory.resolve("recipes.idx");
+
+		IndexSnapshot.write(built, BUILT_AT, path);
+		IndexSnapshot.Mapped mapped = IndexSnapshot.open(path);
+		TfIdfIndex index = mapped.index();
+
+		assertEquals(BUILT_AT, mapped.builtAt());
+		assertEquals(built.size(), index.size());
+		assertEquals(built.terms().size(), index.terms().size());
+		for (int t = 0; t < built.terms().size(); t++) {
+			String term = built.terms().term(t);
+			assertEquals(term, index.terms().term(t));
+			assertEquals(built.idf(term), index.idf(term), term);
+		}
+		assertArrayEquals(ints(built.postingOffsets().duplicate()), ints(index.postingOffsets().duplicate()));
+		assertArrayEquals(ints(built.postingDocs().duplicate()), ints(index.postingDocs().duplicate()));
+		assertArrayEquals(floats(built), floats(index));
+		for (int doc = 0; doc < built.size(); doc++) {
+			assertEquals(CORPUS.get(doc), index.document(doc));
+			assertEquals(CORPUS.get(doc).recipeId(), index.documents().recipeId(doc));
+		}
+		assertEquals(built.topN(List.of("tomato", "egg"), 10, ForkJoinPool.commonPool()),
+				index.topN(List.of("tomato", "egg"), 10, ForkJoinPool.commonPool()));
+	}
+
+	@Test
+	void aRewriteReplacesTheSnapshotAndLeavesNoTemporaryFile() throws IOException {
+		Path path = directory.resolve("recipes.idx");
+		IndexSnapshot.write(TfIdfIndex.build(CORPUS), BUILT_AT, path);
+
+		IndexSnapshot.write(TfIdfIndex.build(CORPUS.subList(0, 2)), Instant.EPOCH, path);
+
+		IndexSnapshot.Mapped mapped = IndexSnapshot.open(path);
+		assertEquals(2, mapped.index().size());
+		assertEquals(Instant.EPOCH, mapped.builtAt());
+		try (Stream<Path> files = Files.list(directory)) {
+			assertEquals(List.of(path), files.toList());
+		}
+	}
+
+	@Test
+	void anEmptyIndexRoundTrips() throws IOException {
+		Path path = directory.resolve("empty.idx");
+
+		IndexSnapshot.write(TfIdfIndex.EMPTY, BUILT_AT, path);
+
+		assertEquals(0, IndexSnapshot.open(path).index().size());
+	}
+
+	@Test
+	void filesThatAreNotSnapshotsOfThisVersionAreRejected() throws IOException {
+		Path text = Files.writeString(directory.resolve("recipes.csv"), "name,id\n");
+		assertThrows(IOException.class, () -> IndexSnapshot.open(text));
+
+		Path path = directory.resolve("recipes.idx");
+		IndexSnapshot.write(TfIdfIndex.build(CORPUS), BUILT_AT, path);
+		byte[] bytes = Files.readAllBytes(path);
+		ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(4, 1);
+		Files.write(path, bytes);
+		assertThrows(IOException.class, () -> IndexSnapshot.open(path));
+	}
+
+	private static int[] ints(IntBuffer buffer) {
+		int[] values = new int[buffer.remaining()];
+		buffer.get(values);
+		return values;
+	}
+
+	private static float[] floats(TfIdfIndex index) {
+		FloatBuffer buffer = index.postingWeights().duplicate();
+		float[] values = new float[buffer.remaining()];
+		buffer.get(values);
+		return values;
+	}
+}
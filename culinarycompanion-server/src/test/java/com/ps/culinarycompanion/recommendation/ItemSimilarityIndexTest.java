@@ -0,0 +1,92 @@
+package com.ps.culinarycompanion.recommendation;
+
+import com.ps.culinarycompanion.recommendation.ItemSimilarityIndex.Neighbor;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Pins the neighbors of a small fixed set of ratings. Recipe 40 is rated by a user who rated nothing else, so it
+ * has no neighbors.
+ */
+class ItemSimilarityIndexTest {
+
+	private static final float DELTA = 1e-6f;
+
+	// Interleaved across users, as ratings arrive; user 2 rates recipe 10 twice and the later rating counts
+	private static final int[] USERS = {1, 2, 3, 1, 4, 2, 1, 3, 2, 99};
+
+	private static final int[] RECIPES = {10, 10, 20, 20, 40, 20, 30, 30, 10, 99};
+
+	private static final float[] RATINGS = {5, 1, 5, 3, 5, 2, 4, 1, 4, 99};
+
+	private static final int COUNT = RATINGS.length - 1;
+
+	@Test
+	void neighborsAreRankedByCosineSimilarity() {
+		ItemSimilarityIndex index = ItemSimilarityIndex.build(USERS, RECIPES, RATINGS, COUNT, 10, 1);
+
+		assertEquals(4, index.size());
+		assertNeighbors(index.neighbors(10, 10), 30, 0.7575540f, 20, 0.5826988f);
+		assertNeighbors(index.neighbors(20, 10), 30, 0.6688561f, 10, 0.5826988f);
+		assertNeighbors(index.neighbors(30, 10), 10, 0.7575540f, 20, 0.6688561f);
+		assertNeighbors(index.neighbors(40, 10));
+		assertNeighbors(index.neighbors(99, 10));
+	}
+
+	@Test
+	void repeatedRatingsCollapseToTheLastOne() {
+		int[] users = {1, 3, 1, 4, 2, 1, 3, 2};
+		int[] recipes = {10, 20, 20, 40, 20, 30, 30, 10};
+		float[] ratings = {5, 5, 3, 5, 2, 4, 1, 4};
+		ItemSimilarityIndex single = ItemSimilarityIndex.build(users, recipes, ratings, ratings.length, 10, 1);
+		ItemSimilarityIndex repeated = ItemSimilarityIndex.build(USERS, RECIPES, RATINGS, COUNT, 10, 1);
+
+		for (int recipeId : new int[] {10, 20, 30, 40}) {
+			Neighbor[] expected = single.neighbors(recipeId, 10);
+			Neighbor[] actual = repeated.neighbors(recipeId, 10);
+			assertEquals(expected.length, actual.length, "neighbors of " + recipeId);
+			for (int i = 0; i < expected.length; i++) {
+				assertEquals(expected[i].recipeId(), actual[i].recipeId());
+				assertEquals(expected[i].similarity(), actual[i].similarity(), DELTA);
+			}
+		}
+	}
+
+	@Test
+	void recipesRatedTogetherByTooFewUsersAreNotNeighbors() {
+		ItemSimilarityIndex index = ItemSimilarityIndex.build(USERS, RECIPES, RATINGS, COUNT, 10, 2);
+
+		// Recipes 10 and 30 were both rated by user 1 only
+		assertNeighbors(index.neighbors(10, 10), 20, 0.5826988f);
+		assertNeighbors(index.neighbors(30, 10), 20, 0.6688561f);
+		assertNeighbors(index.neighbors(20, 10), 30, 0.6688561f, 10, 0.5826988f);
+	}
+
+	@Test
+	void onlyTheBestNeighborsAreKeptAndReturned() {
+		ItemSimilarityIndex index = ItemSimilarityIndex.build(USERS, RECIPES, RATINGS, COUNT, 1, 1);
+		assertNeighbors(index.neighbors(20, 10), 30, 0.6688561f);
+
+		ItemSimilarityIndex full = ItemSimilarityIndex.build(USERS, RECIPES, RATINGS, COUNT, 10, 1);
+		assertNeighbors(full.neighbors(10, 1), 30, 0.7575540f);
+		assertNeighbors(full.neighbors(10, 0));
+	}
+
+	@Test
+	void noRatingsBuildAnEmptyIndex() {
+		assertEquals(0, ItemSimilarityIndex.build(USERS, RECIPES, RATINGS, 0, 10, 1).size());
+		assertEquals(0, ItemSimilarityIndex.build(USERS, RECIPES, RATINGS, COUNT, 0, 1).size());
+	}
+
+	/**
+	 * Asserts the neighbors, given as alternating recipe ids and similarities.
+	 */
+	private static void assertNeighbors(Neighbor[] neighbors, Object... expected) {
+		assertEquals(expected.length / 2, neighbors.length);
+		for (int i = 0; i < neighbors.length; i++) {
+			assertEquals(expected[2 * i], neighbors[i].recipeId());
+			assertEquals((float) expected[2 * i + 1], neighbors[i].similarity(), DELTA);
+		}
+	}
+}
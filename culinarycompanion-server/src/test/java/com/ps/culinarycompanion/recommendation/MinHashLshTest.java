@@ -0,0 +1,80 @@
+package com.ps.culinarycompanion.recommendation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hashes a corpus of recipes with pairwise disjoint ingredient sets, plus one recipe without ingredients, so the
+ * candidates of every query are known exactly.
+ */
+class MinHashLshTest {
+
+	private static final int RECIPES = 200;
+
+	private static final int TERMS_PER_RECIPE = 5;
+
+	private final TfIdfIndex index = TfIdfIndex.build(corpus());
+
+	private final MinHashLsh lsh = MinHashLsh.build(index, MinHashLsh.DEFAULT_BANDS, MinHashLsh.DEFAULT_ROWS);
+
+	@Test
+	void aRecipeIsTheOnlyCandidateForItsOwnIngredients() {
+		for (int doc = 0; doc < RECIPES; doc++) {
+			BitSet expected = new BitSet();
+			expected.set(doc);
+			assertEquals(expected, lsh.candidates(termIds(terms(doc, TERMS_PER_RECIPE))), "recipe " + doc);
+		}
+	}
+
+	@Test
+	void aCloseQueryFindsTheRecipe() {
+		// Four of five ingredients is a Jaccard similarity of 0.8, a candidate with probability above 0.9999999
+		for (int doc = 0; doc < RECIPES; doc++) {
+			assertTrue(lsh.candidates(termIds(terms(doc, TERMS_PER_RECIPE - 1))).get(doc), "recipe " + doc);
+		}
+	}
+
+	@Test
+	void unknownTermsFindNothing() {
+		assertTrue(lsh.candidates(new int[] {-1, -1}).isEmpty());
+		assertTrue(lsh.candidates(new int[0]).isEmpty());
+	}
+
+	@Test
+	void buildsAreReproducible() {
+		MinHashLsh again = MinHashLsh.build(index, MinHashLsh.DEFAULT_BANDS, MinHashLsh.DEFAULT_ROWS);
+		int[] query = termIds(List.of("herb3", "herb17", "herb250", "herb999"));
+
+		assertEquals(lsh.candidates(query), again.candidates(query));
+	}
+
+	private int[] termIds(List<String> ingredients) {
+		return index.termIds(QueryVector.of(ingredients, index::idf));
+	}
+
+	private static List<String> terms(int doc, int count) {
+		List<String> terms = new ArrayList<>();
+		for (int t = 0; t < count; t++) {
+			terms.add("herb" + (doc * TERMS_PER_RECIPE + t));
+		}
+		return terms;
+	}
+
+	private static List<RecipeDocument> corpus() {
+		List<RecipeDocument> documents = new ArrayList<>();
+		for (int doc = 0; doc < RECIPES; doc++) {
+			String ingredients = String.join(", ", terms(doc, TERMS_PER_RECIPE));
+			documents.add(new RecipeDocument(RecipeDocument.EXTERNAL, ingredients,
+					new RecipeRecommendation("Recipe " + doc, "", ingredients, "")));
+		}
+		documents.add(new RecipeDocument(RecipeDocument.EXTERNAL, "",
+				new RecipeRecommendation("Water", "", "", "")));
+		return documents;
+	}
+}
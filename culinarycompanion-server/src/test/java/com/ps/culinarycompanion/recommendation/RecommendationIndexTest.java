@@ -0,0 +1,86 @@
+package com.ps.culinarycompanion.recommendation;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Catches a view over a small base up with writes it did not see, as a server does after mapping a snapshot.
+ */
+class RecommendationIndexTest {
+
+	private static final Instant BUILT_AT = Instant.parse("2024-03-28T10:00:00Z");
+
+	private static final Instant READ_AT = Instant.parse("2024-03-29T10:00:00Z");
+
+	private final RecommendationIndex base = RecommendationIndex.of(TfIdfIndex.build(List.of(
+			document(RecipeDocument.EXTERNAL, "tomato", "jalapeño"),
+			document(1, "tomato", "onion"),
+			document(2, "garlic", "bread"),
+			document(3, "pasta", "tomato"))), BUILT_AT);
+
+	@Test
+	void reconcileUpsertsWrittenRecipesAndRemovesDeletedOnes() {
+		// Recipe 1 was deleted, 2 rewritten and 4 created since the base was built
+		RecommendationIndex reconciled = base.reconcile(List.of(document(2, "rye", "bread"),
+				document(4, "basil", "garlic")), Set.of(2, 3, 4), READ_AT);
+
+		assertEquals(READ_AT, reconciled.builtAt());
+		assertEquals(4, reconciled.size());
+		assertEquals(Set.of(RecipeDocument.EXTERNAL, 3), recipeIds(reconciled, "tomato"));
+		assertEquals(Set.of(4), recipeIds(reconciled, "garlic"));
+		assertEquals(Set.of(2), recipeIds(reconciled, "rye"));
+	}
+
+	@Test
+	void reconcileDropsPendingWritesOfDeletedRecipes() {
+		RecommendationIndex written = base.upsert(document(5, "saffron", "rice"));
+
+		RecommendationIndex reconciled = written.reconcile(List.of(), Set.of(1, 2, 3), READ_AT);
+
+		assertEquals(4, reconciled.size());
+		assertEquals(Set.of(), recipeIds(reconciled, "saffron"));
+		assertEquals(Set.of(RecipeDocument.EXTERNAL, 1, 3), recipeIds(reconciled, "tomato"));
+	}
+
+	@Test
+	void writesAndCompactionKeepTheBuildTime() {
+		RecommendationIndex reconciled = base.reconcile(List.of(document(4, "basil", "garlic")), Set.of(1, 2, 3, 4),
+				READ_AT);
+
+		RecommendationIndex compacted = reconciled.delete(1).compact();
+
+		assertEquals(BUILT_AT, base.upsert(document(4, "basil")).builtAt());
+		assertEquals(READ_AT, compacted.builtAt());
+		assertEquals(0, compacted.pendingChanges());
+		assertEquals(Set.of(2, 4), recipeIds(compacted, "garlic"));
+	}
+
+	@Test
+	void approximateSearchSkipsDeletedRecipesAndScoresWritesExactly() {
+		RecommendationIndex written = base.delete(1).upsert(document(4, "tomato", "basil"));
+
+		assertEquals(Set.of(RecipeDocument.EXTERNAL, 3, 4), recipeIds(written, "tomato", SearchMode.APPROXIMATE));
+		assertEquals(Set.of(2), recipeIds(written.withBase(written.base()), "garlic", SearchMode.APPROXIMATE));
+	}
+
+	private static Set<Integer> recipeIds(RecommendationIndex index, String ingredient) {
+		return recipeIds(index, ingredient, SearchMode.EXACT);
+	}
+
+	private static Set<Integer> recipeIds(RecommendationIndex index, String ingredient, SearchMode mode) {
+		return index.topN(List.of(ingredient), 10, ForkJoinPool.commonPool(), mode).stream()
+				.map(RecipeDocument::recipeId)
+				.collect(Collectors.toSet());
+	}
+
+	private static RecipeDocument document(int recipeId, String... ingredients) {
+		return RecipeCorpus.document(recipeId, "Recipe " + recipeId, "", "", List.of(ingredients));
+	}
+}
@@ -0,0 +1,154 @@
+package com.ps.culinarycompanion.recommendation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pins the weights and scores of a small fixed corpus to the values scikit-learn's TfidfVectorizer gives it: raw
+ * term counts, idf = ln((1 + n) / (1 + df)) + 1 and L2-normalized rows.
+ */
+class TfIdfIndexTest {
+
+	private static final float DELTA = 1e-6f;
+
+	private static final List<RecipeDocument> CORPUS = List.of(
+			document("tomato, basil, garlic"),
+			document("Tomato, onion"),
+			document("garlic, garlic, onion"),
+			document("flour, sugar, butter"));
+
+	private final TfIdfIndex index = TfIdfIndex.build(CORPUS);
+
+	private final ForkJoinPool pool = ForkJoinPool.commonPool();
+
+	@Test
+	void idfIsSmoothedOverTheCorpus() {
+		// Terms in two of the four documents, then terms in one of them
+		assertEquals(1.5108256f, index.idf("tomato"), DELTA);
+		assertEquals(1.5108256f, index.idf("onion"), DELTA);
+		assertEquals(1.9162907f, index.idf("basil"), DELTA);
+		assertEquals(1.9162907f, index.idf("butter"), DELTA);
+		assertEquals(0, index.idf("saffron"));
+		assertEquals(4, index.size());
+	}
+
+	@Test
+	void scoresAreCosineSimilarities() {
+		assertRanking(List.of("tomato", "garlic"), new int[] {0, 2, 1}, new float[] {0.7444497f, 0.6324555f, 0.5f});
+	}
+
+	@Test
+	void repeatedTermsWeighMore() {
+		assertRanking(List.of("onion"), new int[] {1, 2}, new float[] {0.7071068f, 0.4472136f});
+	}
+
+	@Test
+	void unknownTermsAreDroppedFromTheQuery() {
+		assertRanking(List.of("garlic", "saffron"), new int[] {2, 0}, new float[] {0.8944272f, 0.5264054f});
+		assertTrue(index.topN(List.of("saffron"), 10, pool).isEmpty());
+	}
+
+	@Test
+	void topNReturnsTheBestDocumentsFirst() {
+		assertEquals(List.of(CORPUS.get(1), CORPUS.get(0)), index.topN(List.of("TOMATO"), 10, pool));
+		assertEquals(List.of(CORPUS.get(0)), index.topN(List.of("tomato", "garlic"), 1, pool));
+	}
+
+	@Test
+	void excludedDocumentsAreNotReturned() {
+		BitSet excluded = new BitSet();
+		excluded.set(0);
+
+		assertArrayEquals(new int[] {2, 1}, index.search(query("tomato", "garlic"), 10, pool, excluded)
+				.drainDescending());
+	}
+
+	@Test
+	void batchAndCandidateScoringAgreeWithSingleQueries() {
+		QueryVector[] queries = {query("tomato", "garlic"), query("onion"), query("saffron"), query("butter")};
+		TopKHeap[] batch = index.search(queries, 10, pool, null);
+		BitSet everyDocument = new BitSet();
+		everyDocument.set(0, index.size());
+
+		for (int q = 0; q < queries.length; q++) {
+			float[] expectedScores = new float[index.size()];
+			int[] expected = index.search(queries[q], 10, pool, null).drainDescending(expectedScores);
+			assertRanking(expected, expectedScores, batch[q]);
+			assertRanking(expected, expectedScores, index.rank(queries[q], 10, everyDocument));
+		}
+	}
+
+	@Test
+	void anIdfSourceWeightsAnotherIndexLikeIt() {
+		TfIdfIndex delta = TfIdfIndex.build(List.of(document("tomato, saffron")), index);
+
+		assertEquals(index.idf("tomato"), delta.idf("tomato"), DELTA);
+		// Unknown to the source, so weighted as if in one of its four documents
+		assertEquals(1.9162907f, delta.idf("saffron"), DELTA);
+	}
+
+	@Test
+	void shardedSearchMatchesAnExactRanking() {
+		// Large enough to be split into several shards, with many documents tying on score
+		List<RecipeDocument> documents = new ArrayList<>();
+		for (int doc = 0; doc < 40_000; doc++) {
+			documents.add(document("item" + doc % 101 + ", item" + doc % 37 + ", spice" + doc % 13));
+		}
+		TfIdfIndex large = TfIdfIndex.build(documents);
+		BitSet everyDocument = new BitSet();
+		everyDocument.set(0, large.size());
+		BitSet excluded = new BitSet();
+		for (int doc = 0; doc < large.size(); doc += 7) {
+			excluded.set(doc);
+		}
+		ForkJoinPool shardPool = new ForkJoinPool(4);
+		try {
+			for (List<String> ingredients : List.of(List.of("item5", "spice3"), List.of("item40"),
+					List.of("item1", "item2", "spice12"))) {
+				QueryVector query = QueryVector.of(ingredients, large::idf);
+				float[] expectedScores = new float[25];
+				int[] expected = large.rank(query, 25, everyDocument).drainDescending(expectedScores);
+				assertRanking(expected, expectedScores, large.search(query, 25, shardPool, null));
+				assertRanking(expected, expectedScores, large.search(new QueryVector[] {query}, 25, shardPool,
+						null)[0]);
+
+				BitSet allowed = (BitSet) everyDocument.clone();
+				allowed.andNot(excluded);
+				expected = large.rank(query, 25, allowed).drainDescending(expectedScores);
+				assertRanking(expected, expectedScores, large.search(query, 25, shardPool, excluded));
+			}
+		} finally {
+			shardPool.shutdown();
+		}
+	}
+
+	private void assertRanking(List<String> ingredients, int[] expected, float[] expectedScores) {
+		assertRanking(expected, expectedScores, index.search(query(ingredients.toArray(String[]::new)), 10, pool,
+				null));
+	}
+
+	private static void assertRanking(int[] expected, float[] expectedScores, TopKHeap heap) {
+		float[] scores = new float[heap.size()];
+		assertArrayEquals(expected, heap.drainDescending(scores));
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expectedScores[i], scores[i], DELTA, "score of document " + expected[i]);
+		}
+	}
+
+	private QueryVector query(String... ingredients) {
+		return QueryVector.of(List.of(ingredients), index::idf);
+	}
+
+	private static RecipeDocument document(String ingredients) {
+		return new RecipeDocument(RecipeDocument.EXTERNAL, ingredients,
+				new RecipeRecommendation(ingredients, "", ingredients, ""));
+	}
+}
@@ -0,0 +1,73 @@
+package com.ps.culinarycompanion.recommendation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TopKHeapTest {
+
+	@Test
+	void keepsTheBestKDocumentsBestFirst() {
+		Random random = new Random(42);
+		float[] scores = new float[1000];
+		TopKHeap heap = new TopKHeap(10);
+		for (int doc = 0; doc < scores.length; doc++) {
+			// Few distinct scores, so many documents tie
+			scores[doc] = random.nextInt(50);
+			heap.offer(scores[doc], doc);
+		}
+
+		int[] expected = IntStream.range(0, scores.length).boxed()
+				.sorted(Comparator.<Integer>comparingDouble(doc -> -scores[doc]).thenComparing(doc -> doc))
+				.limit(10)
+				.mapToInt(Integer::intValue)
+				.toArray();
+		float[] drainedScores = new float[10];
+		assertArrayEquals(expected, heap.drainDescending(drainedScores));
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(scores[expected[i]], drainedScores[i]);
+		}
+		assertEquals(0, heap.size());
+	}
+
+	@Test
+	void tiesGoToTheLowerDocument() {
+		TopKHeap heap = new TopKHeap(2);
+		heap.offer(1f, 7);
+		heap.offer(1f, 3);
+		heap.offer(1f, 5);
+		heap.offer(1f, 9);
+
+		assertArrayEquals(new int[] {3, 5}, heap.drainDescending());
+	}
+
+	@Test
+	void zeroCapacityKeepsNothing() {
+		TopKHeap heap = new TopKHeap(0);
+		heap.offer(1f, 1);
+
+		assertEquals(0, heap.size());
+		assertArrayEquals(new int[0], heap.drainDescending());
+	}
+
+	@Test
+	void mergeShiftsTheOtherHeapsDocuments() {
+		TopKHeap base = new TopKHeap(3);
+		List.of(0.9f, 0.2f, 0.5f).forEach(score -> base.offer(score, base.size()));
+		TopKHeap delta = new TopKHeap(3);
+		delta.offer(0.7f, 0);
+		delta.offer(0.1f, 1);
+
+		base.merge(delta, 100);
+
+		float[] scores = new float[3];
+		assertArrayEquals(new int[] {0, 100, 2}, base.drainDescending(scores));
+		assertArrayEquals(new float[] {0.9f, 0.7f, 0.5f}, scores);
+	}
+}
@@ -0,0 +1,116 @@
+package com.ps.culinarycompanion.search;
+
+import com.ps.culinarycompanion.recipes.StoredRecipe;
+import com.ps.culinarycompanion.recipes.StoredRecipeReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pins the BM25 scores of three small recipes, with k1 = 1.2, b = 0.75, idf = ln(1 + (n - df + 0.5) / (df + 0.5))
+ * and title terms counted twice.
+ */
+class RecipeSearchIndexTest {
+
+	private static final float DELTA = 1e-5f;
+
+	private static final StoredRecipe SOUP = new StoredRecipe(1, "Tomato Soup", "", "simmer", List.of(),
+			List.of("tomato", "onion"));
+
+	private static final StoredRecipe BREAD = new StoredRecipe(2, "Garlic Bread", "crusty", "bake", List.of(),
+			List.of("bread", "garlic", "butter"));
+
+	private static final StoredRecipe PASTA = new StoredRecipe(3, "Pasta", "with tomato sauce", "boil pasta",
+			List.of(), List.of("pasta", "tomato"));
+
+	private StoredRecipeReader reader;
+
+	private RecipeSearchIndex index;
+
+	@BeforeEach
+	void createIndex() {
+		reader = mock(StoredRecipeReader.class);
+		index = new RecipeSearchIndex(reader);
+		List.of(SOUP, BREAD, PASTA).forEach(this::update);
+	}
+
+	@Test
+	void recipesAreRankedByBm25() {
+		assertHits(index.search("tomato", 10), 1, 0.7647988f, 3, 0.6320342f);
+		assertHits(index.search("tomato pasta", 10), 3, 2.2692302f, 1, 0.7647988f);
+		assertHits(index.search("soup bread", 10), 2, 1.5153261f, 1, 1.4121887f);
+	}
+
+	@Test
+	void queriesAreCaseInsensitiveAndRepeatsCountOnce() {
+		assertHits(index.search("Tomato TOMATO", 10), 1, 0.7647988f, 3, 0.6320342f);
+		assertHits(index.search("saffron", 10));
+		assertHits(index.search("tomato", 0));
+		assertHits(index.search("tomato", 1), 1, 0.7647988f);
+	}
+
+	@Test
+	void removedRecipesAreNotFound() {
+		index.remove(2);
+
+		assertEquals(2, index.size());
+		assertHits(index.search("garlic", 10));
+		assertEquals("Tomato Soup", index.search("tomato", 10).get(0).title());
+	}
+
+	@Test
+	void compactionKeepsTheScoresOfTheLiveRecipes() {
+		// Each rewrite tombstones the previous version, which eventually renumbers the live recipes
+		for (int i = 0; i < 3000; i++) {
+			update(i % 2 == 1 ? BREAD : new StoredRecipe(2, "Rye", "", "", List.of(), List.of("rye")));
+		}
+
+		assertEquals(3, index.size());
+		assertHits(index.search("tomato", 10), 1, 0.7647988f, 3, 0.6320342f);
+		assertHits(index.search("garlic", 10), 2, 1.5153261f);
+		assertHits(index.search("rye", 10));
+	}
+
+	@Test
+	void writesDuringALoadAreNotUndoneByIt() {
+		// The load reads every row after the bread was deleted and the soup renamed, but from a snapshot taken before
+		when(reader.forEach(any())).thenAnswer(invocation -> {
+			index.remove(2);
+			index.update(1, "Leek Soup", "", "simmer", List.of("leek"));
+			Consumer<StoredRecipe> consumer = invocation.getArgument(0);
+			List.of(SOUP, BREAD, PASTA).forEach(consumer);
+			return 3;
+		});
+
+		index.load();
+
+		assertEquals(2, index.size());
+		assertHits(index.search("garlic", 10));
+		assertEquals(List.of(1), index.search("leek", 10).stream().map(SearchHit::recipeId).toList());
+		assertTrue(index.search("tomato", 10).stream().allMatch(hit -> hit.recipeId() == 3));
+	}
+
+	private void update(StoredRecipe recipe) {
+		index.update(recipe.recipeId(), recipe.title(), recipe.description(), recipe.instructions(),
+				recipe.ingredientNames());
+	}
+
+	/**
+	 * Asserts the hits, given as alternating recipe ids and scores.
+	 */
+	private static void assertHits(List<SearchHit> hits, Object... expected) {
+		assertEquals(expected.length / 2, hits.size(), hits.toString());
+		for (int i = 0; i < hits.size(); i++) {
+			assertEquals(expected[2 * i], hits.get(i).recipeId());
+			assertEquals((float) expected[2 * i + 1], hits.get(i).score(), DELTA);
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package com.ps.culinarycompanion.useringredients;
+
+import com.ps.culinarycompanion.ingredients.Ingredient;
+import com.ps.culinarycompanion.ingredients.IngredientNormalizer;
+import com.ps.culinarycompanion.ingredients.IngredientService;
+import com.ps.culinarycompanion.recipes.CookingUnit;
+import com.ps.culinarycompanion.user.User;
+import com.ps.culinarycompanion.user.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Guards the pantry read path: a pantry is read with one query for the user and one for their lines, however many
+ * users and lines exist, and is then served from the cache until the pantry changes.
+ */
+@DataJpaTest(properties = {
+		"spring.sql.init.mode=never",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({UserIngredientService.class, UserService.class, IngredientService.class, IngredientNormalizer.class,
+		SimpleMeterRegistry.class})
+class UserIngredientReadQueryCountTest {
+
+	private static final int USERS = 20;
+
+	private static final int LINES_PER_USER = 5;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private UserIngredientService userIngredientService;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void createPantries() {
+		for (int u = 0; u < USERS; u++) {
+			User user = entityManager.persist(new User("User " + u, "user" + u + "@example.com", LocalDate.now()));
+			// Pantry lines map their ingredient one-to-one, so every user gets ingredients of their own
+			for (int i = 0; i < LINES_PER_USER; i++) {
+				Ingredient ingredient = entityManager.persist(new Ingredient("ingredient " + u + " " + i));
+				UserIngredient line = new UserIngredient();
+				line.setUserIngredientId(new UserIngredientId(user.getUserId(), ingredient.getIngredientId()));
+				line.setUser(user);
+				line.setIngredient(ingredient);
+				line.setQuantity(1L);
+				line.setUnit(CookingUnit.GRAM);
+				entityManager.persist(line);
+			}
+		}
+		entityManager.flush();
+		entityManager.clear();
+
+		statistics = entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class)
+				.getStatistics();
+	}
+
+	@Test
+	void pantryTakesTwoQueriesThenNone() {
+		List<UserIngredientView> pantry = countQueries(2,
+				() -> userIngredientService.getAllIngredients("user7@example.com"));
+		countQueries(0, () -> userIngredientService.getAllIngredients("user7@example.com"));
+
+		assertEquals(LINES_PER_USER, pantry.size());
+		Integer userId = pantry.get(0).userIngredientId().userId();
+		pantry.forEach(line -> assertEquals(userId, line.userIngredientId().userId()));
+	}
+
+	@Test
+	void changedPantryIsReadAgain() {
+		userIngredientService.getAllIngredients("user3@example.com");
+		userIngredientService.onPantryChanged(new PantryChangedEvent("user3@example.com"));
+
+		countQueries(2, () -> userIngredientService.getAllIngredients("user3@example.com"));
+		countQueries(0, () -> userIngredientService.getAllIngredients("user3@example.com"));
+	}
+
+	private <T> T countQueries(long expected, Supplier<T> read) {
+		entityManager.clear();
+		statistics.clear();
+		T result = read.get();
+		assertEquals(expected, statistics.getPrepareStatementCount());
+		return result;
+	}
+}
@@ -0,0 +1,136 @@
+package com.ps.culinarycompanion.useringredients;
+
+import com.ps.culinarycompanion.exception.NotFoundException;
+import com.ps.culinarycompanion.ingredients.Ingredient;
+import com.ps.culinarycompanion.ingredients.IngredientNormalizer;
+import com.ps.culinarycompanion.ingredients.IngredientService;
+import com.ps.culinarycompanion.recipes.CookingUnit;
+import com.ps.culinarycompanion.dao.UserIngredientRepository;
+import com.ps.culinarycompanion.user.User;
+import com.ps.culinarycompanion.user.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Guards the pantry write paths against per-item scans: editing or deleting any number of lines takes a fixed
+ * number of statements.
+ */
+@DataJpaTest(properties = {
+		"spring.sql.init.mode=never",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({UserIngredientService.class, UserService.class, IngredientService.class, IngredientNormalizer.class,
+		SimpleMeterRegistry.class})
+class UserIngredientWriteStatementCountTest {
+
+	private static final String EMAIL = "cook@example.com";
+
+	private static final int LINES = 10;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private UserIngredientService userIngredientService;
+
+	@Autowired
+	private UserIngredientRepository userIngredientRepository;
+
+	private Statistics statistics;
+
+	private int userId;
+
+	@BeforeEach
+	void createPantry() {
+		// The cached context keeps the pantry cache, which may hold this email's pantry from a rolled back test
+		userIngredientService.onPantryChanged(new PantryChangedEvent(EMAIL));
+		User user = entityManager.persist(new User("Cook", EMAIL, LocalDate.now()));
+		userId = user.getUserId();
+		for (int i = 0; i < LINES; i++) {
+			Ingredient ingredient = entityManager.persist(new Ingredient("ingredient " + i));
+			UserIngredient line = new UserIngredient();
+			line.setUserIngredientId(new UserIngredientId(user.getUserId(), ingredient.getIngredientId()));
+			line.setUser(user);
+			line.setIngredient(ingredient);
+			line.setQuantity(1L);
+			line.setUnit(CookingUnit.GRAM);
+			entityManager.persist(line);
+		}
+		entityManager.flush();
+		entityManager.clear();
+
+		statistics = entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class)
+				.getStatistics();
+	}
+
+	@Test
+	void updateTakesThreeStatementsWhateverItsSize() {
+		List<UserIngredient> update = new ArrayList<>();
+		for (int i = 0; i < LINES / 2; i++) {
+			UserIngredient line = new UserIngredient();
+			line.setIngredient(new Ingredient("Ingredient " + i));
+			line.setQuantity(5L);
+			line.setUnit(CookingUnit.CUP);
+			update.add(line);
+		}
+
+		// The user, the targeted lines, then one batched update
+		countStatements(3, () -> {
+			userIngredientService.updateUserIngredients(update, EMAIL);
+			return null;
+		});
+
+		List<UserIngredientView> pantry = userIngredientService.getAllIngredients(EMAIL);
+		assertEquals(LINES / 2, pantry.stream().filter(line -> line.quantity() == 5L).count());
+	}
+
+	@Test
+	void updateOfAMissingIngredientChangesNothing() {
+		UserIngredient present = new UserIngredient();
+		present.setIngredient(new Ingredient("ingredient 0"));
+		present.setQuantity(5L);
+		UserIngredient missing = new UserIngredient();
+		missing.setIngredient(new Ingredient("saffron"));
+
+		assertThrows(NotFoundException.class,
+				() -> userIngredientService.updateUserIngredients(List.of(present, missing), EMAIL));
+		entityManager.clear();
+		List<UserIngredientView> pantry = userIngredientRepository.findViewsByUserId(userId);
+		assertEquals(LINES, pantry.size());
+		pantry.forEach(line -> assertEquals(1L, line.quantity()));
+	}
+
+	@Test
+	void bulkDeleteTakesTwoStatements() {
+		int deleted = countStatements(2, () -> userIngredientService.deleteUserIngredients(
+				List.of("ingredient 1", "ingredient 2", "saffron"), EMAIL));
+
+		assertEquals(2, deleted);
+		assertEquals(LINES - 2, userIngredientService.getAllIngredients(EMAIL).size());
+		assertThrows(NotFoundException.class, () -> userIngredientService.deleteUserIngredient("ingredient 1", EMAIL));
+	}
+
+	private <T> T countStatements(long expected, Supplier<T> write) {
+		entityManager.clear();
+		statistics.clear();
+		T result = write.get();
+		assertEquals(expected, statistics.getPrepareStatementCount());
+		return result;
+	}
+}
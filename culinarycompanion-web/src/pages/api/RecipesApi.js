@@ -1,7 +1,7 @@
 import { apiClient } from "./ApiClient";
 
-export const getAllRecipes = async () => {
-  return apiClient.get("/recipes");
+export const getAllRecipes = async (cursor) => {
+  return apiClient.get("/recipes", { params: { cursor } });
 };
 
 export const createRecipe = async (recipe) => {
@@ -20,8 +20,8 @@ export const getRecipe = async (recipeId) => {
   return apiClient.get(`/recipes/${recipeId}`);
 };
 
-export const getUsersRecipes = async (username) => {
-  return apiClient.get(`/recipes/user/${username}`);
+export const getUsersRecipes = async (username, cursor) => {
+  return apiClient.get(`/recipes/user/${username}`, { params: { cursor } });
 };
 
 export const deleteRecipe = async (recipeId) => {
@@ -52,6 +52,10 @@ export const updateRecipeRating = async (ratingId, rating) => {
   return apiClient.put(`/recipes/ratings/${ratingId}/update`, rating);
 };
 
+export const getIngredientSuggestions = async (prefix) => {
+  return apiClient.get("/ingredients/autocomplete", { params: { prefix } });
+};
+
 export const getUserIngredients = async (username) => {
   return apiClient.get(`/myingredients/${username}`);
 };
@@ -6,6 +6,7 @@ import {
   deleteUserIngredient,
   updateUserIngredients,
   addUserIngredients,
+  getIngredientSuggestions,
 } from "./api/RecipesApi";
 import { useRouter } from "next/router";
 
@@ -18,6 +19,7 @@ const UserIngredientsPage = () => {
     { name: "", quantity: "", unit: "" },
   ]);
   const [editing, setEditing] = useState(false);
+  const [suggestions, setSuggestions] = useState([]);
   const authContext = useAuth();
   const email = authContext.username;
   const router = useRouter();
@@ -131,8 +133,25 @@ const UserIngredientsPage = () => {
     const updatedIngredients = [...ingredients];
     updatedIngredients[index][field] = value;
     setIngredients(updatedIngredients);
+    if (field === "name") {
+      suggestIngredients(value);
+    }
   };
 
+  function suggestIngredients(prefix) {
+    if (!prefix.trim()) {
+      setSuggestions([]);
+      return;
+    }
+    getIngredientSuggestions(prefix.trim())
+      .then((response) => {
+        setSuggestions(response.data);
+      })
+      .catch((error) => {
+        setSuggestions([]);
+      });
+  }
+
   const handleEditIngredientChange = (index, field, value) => {
     const updatedIngredients = [...editIngredients];
     updatedIngredients[index][field] = value;
@@ -285,12 +304,18 @@ const UserIngredientsPage = () => {
           >
             Ingredients:
           </label>
+          <datalist id="ingredient-suggestions">
+            {suggestions.map((suggestion) => (
+              <option key={suggestion.ingredientId} value={suggestion.name} />
+            ))}
+          </datalist>
           {ingredients.map((ingredient, index) => (
             <div key={index} className="ingredientGroup">
               <input
                 type="text"
                 value={ingredient.name}
                 placeholder="Name"
+                list="ingredient-suggestions"
                 onChange={(e) =>
                   handleIngredientChange(index, "name", e.target.value)
                 }
@@ -8,6 +8,7 @@ import TransitionEffect from "@/components/TransitionEffect";
 
 const Recipes = () => {
   const [recipes, setRecipes] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
 
   const router = useRouter();
 
@@ -16,10 +17,19 @@ const Recipes = () => {
   }, []);
 
   function refreshRecipes() {
-    getAllRecipes()
+    loadRecipes(undefined, []);
+  }
+
+  function loadMoreRecipes() {
+    loadRecipes(nextCursor, recipes);
+  }
+
+  function loadRecipes(cursor, loaded) {
+    getAllRecipes(cursor)
       .then((response) => {
-        setRecipes(response.data);
-        getRecipeRatings(response.data);
+        setRecipes([...loaded, ...response.data.items]);
+        setNextCursor(response.data.nextCursor);
+        getRecipeRatings(response.data.items);
       })
       .catch((error) => {
         alert("Unable to get your recipes at this time");
@@ -125,6 +135,16 @@ const Recipes = () => {
               </div>
             ))}
           </div>
+          {nextCursor && (
+            <div className="flex justify-center mt-6">
+              <button
+                onClick={loadMoreRecipes}
+                className="bg-blue-500 text-white px-4 py-2 rounded hover:bg-blue-600"
+              >
+                Load More
+              </button>
+            </div>
+          )}
         </div>
       </div>
     </>
@@ -13,6 +13,7 @@ import { useAuth } from "@/security/AuthContext";
 
 const Myrecipes = () => {
   const [recipes, setRecipes] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
 
   const router = useRouter();
 
@@ -22,10 +23,19 @@ const Myrecipes = () => {
   useEffect(() => refreshRecipes(), []);
 
   function refreshRecipes() {
-    getUsersRecipes(username)
+    loadRecipes(undefined, []);
+  }
+
+  function loadMoreRecipes() {
+    loadRecipes(nextCursor, recipes);
+  }
+
+  function loadRecipes(cursor, loaded) {
+    getUsersRecipes(username, cursor)
       .then((response) => {
-        setRecipes(response.data);
-        getRecipeRatings(response.data);
+        setRecipes([...loaded, ...response.data.items]);
+        setNextCursor(response.data.nextCursor);
+        getRecipeRatings(response.data.items);
       })
       .catch((error) => {
         alert("Unable to get your recipes at this time");
@@ -165,6 +175,16 @@ const Myrecipes = () => {
               </div>
             ))}
           </div>
+          {nextCursor && (
+            <div className="flex justify-center mt-6">
+              <button
+                onClick={loadMoreRecipes}
+                className="bg-blue-500 text-white px-4 py-2 rounded hover:bg-blue-600"
+              >
+                Load More
+              </button>
+            </div>
+          )}
         </div>
       </div>
     </div>